@@ -18,6 +18,9 @@ package x7;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 @ConfigurationProperties(prefix = "spring.datasource.read")
 public class DataSourceProperties_R {
@@ -26,6 +29,23 @@ public class DataSourceProperties_R {
     private String driverClassName;
     private String username;
     private String password;
+    /**
+     * weight of the url above, if replicas configed
+     */
+    private int weight = 1;
+    /**
+     * spring.datasource.read.replicas[0].url
+     */
+    private List<Replica> replicas = new ArrayList<>();
+    /**
+     * ms
+     */
+    private long healthCheckInterval = 5000;
+    /**
+     * seconds
+     */
+    private long maxLag = 10;
+    private String lagSql;
 
     public String getUrl() {
         return url;
@@ -59,6 +79,46 @@ public class DataSourceProperties_R {
         this.password = password;
     }
 
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    public long getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public void setHealthCheckInterval(long healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(long maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public String getLagSql() {
+        return lagSql;
+    }
+
+    public void setLagSql(String lagSql) {
+        this.lagSql = lagSql;
+    }
+
     @Override
     public String toString() {
         return "DataSourceProperties_R{" +
@@ -66,6 +126,71 @@ public class DataSourceProperties_R {
                 ", driverClassName='" + driverClassName + '\'' +
                 ", username='" + username + '\'' +
                 ", password='" + password + '\'' +
+                ", weight=" + weight +
+                ", replicas=" + replicas +
+                ", healthCheckInterval=" + healthCheckInterval +
+                ", maxLag=" + maxLag +
+                ", lagSql='" + lagSql + '\'' +
                 '}';
     }
+
+    public static class Replica {
+
+        private String url;
+        private String driverClassName;
+        private String username;
+        private String password;
+        private int weight = 1;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getDriverClassName() {
+            return driverClassName;
+        }
+
+        public void setDriverClassName(String driverClassName) {
+            this.driverClassName = driverClassName;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+
+        @Override
+        public String toString() {
+            return "Replica{" +
+                    "url='" + url + '\'' +
+                    ", driverClassName='" + driverClassName + '\'' +
+                    ", username='" + username + '\'' +
+                    ", password='" + password + '\'' +
+                    ", weight=" + weight +
+                    '}';
+        }
+    }
 }
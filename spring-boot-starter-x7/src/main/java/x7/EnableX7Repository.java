@@ -17,13 +17,14 @@
 package x7;
 
 import org.springframework.context.annotation.Import;
+import x7.repository.AsyncQueryRepository;
 
 import java.lang.annotation.*;
 
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 @Documented
-@Import({ParserStarter.class, RepositoryBeanRegistrar.class, RepositoryStarter.class})
+@Import({ParserStarter.class, RepositoryBeanRegistrar.class, RepositoryStarter.class, AsyncQueryRepository.class})
 public @interface EnableX7Repository {
 
     /**
@@ -28,18 +28,27 @@ import x7.config.SpringHelper;
 import x7.core.config.ConfigAdapter;
 import x7.core.config.Configs;
 import x7.repository.RepositoryBooter;
+import x7.repository.RepositoryProperties;
+import x7.repository.dao.JdbcExecutor;
+import x7.repository.dao.RcContext;
+import x7.repository.dao.ReplicaPool;
+import x7.repository.monitor.SqlStatistics;
 
 import javax.sql.DataSource;
+import java.util.List;
 import java.util.Objects;
 
 @EnableConfigurationProperties({
-        DataSourceProperties_R.class})
+        DataSourceProperties_R.class,
+        RepositoryProperties.class})
 public class RepositoryStarter  {
 
     private Logger logger = LoggerFactory.getLogger(RepositoryStarter.class);
     @Autowired
     private DataSourceProperties_R dataSourceProperties_r;
     @Autowired
+    private RepositoryProperties repositoryProperties;
+    @Autowired
     private Environment environment;
     @Autowired
     private DataSource dataSource;
@@ -73,6 +82,11 @@ public class RepositoryStarter  {
          */
         DataSource readDataSource = getReadDataSource();
 
+        ReplicaPool replicaPool = getReplicaPool(readDataSource);
+        if (Objects.nonNull(replicaPool)) {
+            RepositoryBooter.onReplicas(replicaPool);
+        }
+
         startX7Repsository(writeDataSource, readDataSource);
 
         return new X7Data();
@@ -90,30 +104,68 @@ public class RepositoryStarter  {
             return null;
         }
 
+        return createReadDataSource(dataSourceProperties_r.getUrl(), dataSourceProperties_r.getDriverClassName(),
+                dataSourceProperties_r.getUsername(), dataSourceProperties_r.getPassword());
+    }
+
+    /**
+     * spring.datasource.read.replicas[i].url, with spring.datasource.read.url as one of the replicas
+     * @param readDataSource
+     * @return null if no replicas configed
+     */
+    public ReplicaPool getReplicaPool(DataSource readDataSource) {
+
+        List<DataSourceProperties_R.Replica> replicaList = dataSourceProperties_r.getReplicas();
+        if (Objects.isNull(replicaList) || replicaList.isEmpty())
+            return null;
+
+        ReplicaPool replicaPool = new ReplicaPool();
+        replicaPool.setCheckInterval(dataSourceProperties_r.getHealthCheckInterval());
+        replicaPool.setMaxLagSeconds(dataSourceProperties_r.getMaxLag());
+        replicaPool.setLagSql(dataSourceProperties_r.getLagSql());
+
+        if (Objects.nonNull(readDataSource)) {
+            replicaPool.add(dataSourceProperties_r.getUrl(), readDataSource, dataSourceProperties_r.getWeight());
+        }
+
+        for (DataSourceProperties_R.Replica replica : replicaList) {
+            if (Objects.isNull(replica.getUrl()))
+                continue;
+            HikariDataSource ds = createReadDataSource(replica.getUrl(), replica.getDriverClassName(),
+                    replica.getUsername(), replica.getPassword());
+            replicaPool.add(replica.getUrl(), ds, replica.getWeight());
+        }
+
+        logger.info("Readable Replicas: " + replicaPool.getReplicaList().size());
+        return replicaPool;
+    }
+
+    private HikariDataSource createReadDataSource(String url, String driverClassNameR, String usernameR, String passwordR) {
+
         String driverClassName = Configs.getString("spring.datasource.driver-class-name");
         String username = Configs.getString("spring.datasource.username");
         String password = Configs.getString("spring.datasource.password");
 
-        if (Objects.nonNull(dataSourceProperties_r.getDriverClassName())) {
-            driverClassName = dataSourceProperties_r.getDriverClassName();
+        if (Objects.nonNull(driverClassNameR)) {
+            driverClassName = driverClassNameR;
         }
 
-        if (Objects.nonNull(dataSourceProperties_r.getUsername())) {
-            username = dataSourceProperties_r.getUsername();
+        if (Objects.nonNull(usernameR)) {
+            username = usernameR;
         }
 
-        if (Objects.nonNull(dataSourceProperties_r.getPassword())) {
-            password = dataSourceProperties_r.getPassword();
+        if (Objects.nonNull(passwordR)) {
+            password = passwordR;
         }
 
         HikariDataSource dsR = new HikariDataSource();
-        dsR.setJdbcUrl(dataSourceProperties_r.getUrl());
+        dsR.setJdbcUrl(url);
         dsR.setUsername(username);
         dsR.setPassword(password);
         dsR.setDriverClassName(driverClassName);
 
 
-        logger.info("Readable DataSource Created, url:"+dataSourceProperties_r.getUrl());
+        logger.info("Readable DataSource Created, url:"+url);
         return dsR;
     }
 
@@ -134,6 +186,13 @@ public class RepositoryStarter  {
             logger.info("X7 Repsository will not show SQL, for no config like one of: x7.repository.show-sql=true,spring.jpa.show-sql=true,log4j.logger.org....." );
         }
 
+        RcContext.setLeakDetectionThreshold(repositoryProperties.getLeakDetectionThreshold());
+        JdbcExecutor.setPoolSize(repositoryProperties.getAsyncPoolSize());
+        JdbcExecutor.setQueueCapacity(repositoryProperties.getAsyncQueueCapacity());
+        SqlStatistics.setEnabled(repositoryProperties.isStatsEnabled());
+        SqlStatistics.setSlowThreshold(repositoryProperties.getSlowQueryThreshold());
+        SqlStatistics.setMaxStatements(repositoryProperties.getStatsMaxStatements());
+
         String driverClassName = Configs.getString("spring.datasource.driver-class-name");
 
         RepositoryBooter.onDriver(driverClassName);
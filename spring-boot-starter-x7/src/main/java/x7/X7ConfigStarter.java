@@ -19,6 +19,8 @@ package x7;
 
 import org.springframework.core.env.Environment;
 import x7.config.ConfigBuilder;
+import x7.core.async.CasualWorker;
+import x7.core.async.ExecutorFactory;
 import x7.core.config.Configs;
 
 
@@ -28,6 +30,15 @@ public class X7ConfigStarter {
 
 		Configs.setEnvironment(environment);
 
+		/*
+		 * virtual | platform, virtual threads for async jdbc reads, replica probe, ReyClient calls, event dispatch, TimingWheel tasks
+		 */
+		ExecutorFactory.setMode(environment.getProperty("x7.execution-mode"));
+
+		CasualWorker.config(environment.getProperty("x7.casual.workers"),
+				environment.getProperty("x7.casual.queue-size"),
+				environment.getProperty("x7.casual.rejection"));
+
 		String[] ativeProfiles = environment.getActiveProfiles();
 
 		ConfigBuilder.build(ativeProfiles);
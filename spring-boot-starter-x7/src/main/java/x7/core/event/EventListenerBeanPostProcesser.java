@@ -49,7 +49,7 @@ public class EventListenerBeanPostProcesser implements BeanPostProcessor {
                 EventListener listener = AnnotationUtils.findAnnotation(method,EventListener.class);
                 if (listener != null){
                     String type = listener.type();
-                    String tag = listener.type();
+                    String tag = listener.tag();
                     if (StringUtil.isNullOrEmpty(type)) {
                         type = listener.value();
                     }
@@ -85,8 +85,8 @@ public class EventListenerBeanPostProcesser implements BeanPostProcessor {
                     EventDispatcher.addEventTemplate(event);
                     logger.info("@EventListener event: " + event.getType() + " " + event.getTag() );
 
-                    String key = type + tag;
-                    EventDispatcher.addEventListener(key, new EventListener.Handler() {
+                    String name = bean.getClass().getName() + "." + method.getName();
+                    EventDispatcher.addEventListener(type, tag, name, new EventListener.Handler() {
                         @Override
                         public void handle(Event event) {
                             try {
@@ -96,7 +96,8 @@ public class EventListenerBeanPostProcesser implements BeanPostProcessor {
                                 throw new RuntimeException("handle the event, got exception");
                             }
                         }
-                    });
+                    }, listener.mode(), listener.queueSize(), listener.rejection());
+                    logger.info("@EventListener mode: " + listener.mode() + ", " + name);
                 }
 
             }
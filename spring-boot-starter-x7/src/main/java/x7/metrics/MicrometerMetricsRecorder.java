@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import x7.core.metrics.MetricsRecorder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MetricsRecorder of micrometer, meters cached by name and tags <br>
+ * x7.repository.query, x7.repository.rows, x7.repository.cache, <br>
+ * x7.repository.batch.size, x7.redis, x7.connection.wait <br>
+ */
+public class MicrometerMetricsRecorder implements MetricsRecorder {
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> timerMap = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaryMap = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counterMap = new ConcurrentHashMap<>();
+
+    public MicrometerMetricsRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    private static String entity(Class<?> clz) {
+        return clz == null ? "none" : clz.getSimpleName();
+    }
+
+    @Override
+    public void recordQuery(Class<?> clz, String op, long nanos, int rows, boolean error) {
+        String entity = entity(clz);
+        String outcome = error ? "error" : "success";
+        Timer timer = timerMap.computeIfAbsent("query." + entity + "." + op + "." + outcome,
+                k -> Timer.builder("x7.repository.query")
+                        .tags("entity", entity, "op", op, "outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(registry));
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+
+        if (rows < 0)
+            return;
+        DistributionSummary summary = summaryMap.computeIfAbsent("rows." + entity + "." + op,
+                k -> DistributionSummary.builder("x7.repository.rows")
+                        .tags("entity", entity, "op", op)
+                        .register(registry));
+        summary.record(rows);
+    }
+
+    @Override
+    public void recordCache(Class<?> clz, Cache result, int count) {
+        String entity = entity(clz);
+        Counter counter = counterMap.computeIfAbsent("cache." + entity + "." + result,
+                k -> Counter.builder("x7.repository.cache")
+                        .tags("entity", entity, "result", result.name().toLowerCase())
+                        .register(registry));
+        counter.increment(count);
+    }
+
+    @Override
+    public void recordRedis(String op, long nanos) {
+        Timer timer = timerMap.computeIfAbsent("redis." + op,
+                k -> Timer.builder("x7.redis")
+                        .tags("op", op)
+                        .register(registry));
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordConnectionWait(String pool, long nanos) {
+        Timer timer = timerMap.computeIfAbsent("connection." + pool,
+                k -> Timer.builder("x7.connection.wait")
+                        .tags("pool", pool)
+                        .register(registry));
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordBatch(Class<?> clz, String op, int size) {
+        String entity = entity(clz);
+        DistributionSummary summary = summaryMap.computeIfAbsent("batch." + entity + "." + op,
+                k -> DistributionSummary.builder("x7.repository.batch.size")
+                        .tags("entity", entity, "op", op)
+                        .register(registry));
+        summary.record(size);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import x7.repository.monitor.SqlStatistics;
+import x7.repository.monitor.StatementStat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * top N statements of SqlStatistics <br>
+ * GET /actuator/x7sql?n=20&orderBy=total|count|avg|max|p99|rows|errors <br>
+ * DELETE /actuator/x7sql to reset <br>
+ */
+@Endpoint(id = "x7sql")
+public class SqlStatisticsEndpoint {
+
+    private final static int DEFAULT_TOP = 20;
+
+    @ReadOperation
+    public Map<String, Object> top(@Nullable Integer n, @Nullable String orderBy) {
+        List<StatementStat> statList = SqlStatistics.top(n == null ? DEFAULT_TOP : n, orderBy);
+        List<Map<String, Object>> list = new ArrayList<>(statList.size());
+        for (StatementStat stat : statList) {
+            list.add(stat.toMap());
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", SqlStatistics.isEnabled());
+        map.put("statements", list);
+        return map;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        SqlStatistics.reset();
+    }
+}
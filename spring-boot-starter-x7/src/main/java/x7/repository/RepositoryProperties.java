@@ -22,6 +22,30 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class RepositoryProperties {
 
 	private Boolean isRemote;
+	/**
+	 * ms, RcContext connection held longer reported
+	 */
+	private long leakDetectionThreshold = 60000;
+	/**
+	 * AsyncQueryRepository jdbc threads, 0: sized to the readable hikari pool
+	 */
+	private int asyncPoolSize = 0;
+	/**
+	 * 0: asyncPoolSize * 64
+	 */
+	private int asyncQueueCapacity = 0;
+	/**
+	 * per statement statistics, report by actuator endpoint x7sql
+	 */
+	private boolean statsEnabled = false;
+	/**
+	 * ms, statement executed longer logged with bind parameters, 0: no slow log
+	 */
+	private long slowQueryThreshold = 1000;
+	/**
+	 * distinct statements kept, others counted as (other)
+	 */
+	private int statsMaxStatements = 1000;
 
 	public Boolean getIsRemote() {
 		return isRemote;
@@ -30,4 +54,52 @@ public class RepositoryProperties {
 	public void setIsRemote(Boolean isRemote) {
 		this.isRemote = isRemote;
 	}
+
+	public long getLeakDetectionThreshold() {
+		return leakDetectionThreshold;
+	}
+
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		this.leakDetectionThreshold = leakDetectionThreshold;
+	}
+
+	public int getAsyncPoolSize() {
+		return asyncPoolSize;
+	}
+
+	public void setAsyncPoolSize(int asyncPoolSize) {
+		this.asyncPoolSize = asyncPoolSize;
+	}
+
+	public int getAsyncQueueCapacity() {
+		return asyncQueueCapacity;
+	}
+
+	public void setAsyncQueueCapacity(int asyncQueueCapacity) {
+		this.asyncQueueCapacity = asyncQueueCapacity;
+	}
+
+	public boolean isStatsEnabled() {
+		return statsEnabled;
+	}
+
+	public void setStatsEnabled(boolean statsEnabled) {
+		this.statsEnabled = statsEnabled;
+	}
+
+	public long getSlowQueryThreshold() {
+		return slowQueryThreshold;
+	}
+
+	public void setSlowQueryThreshold(long slowQueryThreshold) {
+		this.slowQueryThreshold = slowQueryThreshold;
+	}
+
+	public int getStatsMaxStatements() {
+		return statsMaxStatements;
+	}
+
+	public void setStatsMaxStatements(int statsMaxStatements) {
+		this.statsMaxStatements = statsMaxStatements;
+	}
 }
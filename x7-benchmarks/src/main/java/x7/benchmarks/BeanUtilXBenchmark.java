@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import x7.core.bean.Parsed;
+import x7.core.bean.Parser;
+import x7.core.util.BeanUtilX;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BeanUtilX.getQueryMap/getRefreshMap, called by every list(obj), getOne(obj) and refresh <br>
+ * sparse: only the key set, full: all properties set <br>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeanUtilXBenchmark {
+
+    private Parsed parsed;
+    private BenchOrder full;
+    private BenchOrder sparse;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        parsed = Parser.get(BenchOrder.class);
+        full = BenchOrder.of(1001);
+        sparse = new BenchOrder();
+        sparse.setId(1001);
+    }
+
+    @Benchmark
+    public Map<String, Object> queryMapFull() {
+        return BeanUtilX.getQueryMap(parsed, full);
+    }
+
+    @Benchmark
+    public Map<String, Object> queryMapSparse() {
+        return BeanUtilX.getQueryMap(parsed, sparse);
+    }
+
+    @Benchmark
+    public Map<String, Object> refreshMapFull() {
+        return BeanUtilX.getRefreshMap(parsed, full);
+    }
+
+    @Benchmark
+    public Map<String, Object> refreshMapSparse() {
+        return BeanUtilX.getRefreshMap(parsed, sparse);
+    }
+}
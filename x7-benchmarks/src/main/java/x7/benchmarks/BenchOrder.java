@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.benchmarks;
+
+import x7.core.repository.X;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * entity of the persistence benchmarks, table benchOrder <br>
+ */
+public class BenchOrder {
+
+    @X.Key
+    private long id;
+    private long userId;
+    private String name;
+    private int status;
+    private BigDecimal amount;
+    private Date createAt;
+
+    public static BenchOrder of(long id) {
+        BenchOrder order = new BenchOrder();
+        order.setId(id);
+        order.setUserId(id % 100);
+        order.setName("order-" + id);
+        order.setStatus((int) (id % 4));
+        order.setAmount(new BigDecimal(id).movePointLeft(2));
+        order.setCreateAt(new Date(1546300800000L + id * 1000));
+        return order;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public Date getCreateAt() {
+        return createAt;
+    }
+
+    public void setCreateAt(Date createAt) {
+        this.createAt = createAt;
+    }
+
+    @Override
+    public String toString() {
+        return "BenchOrder{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", name='" + name + '\'' +
+                ", status=" + status +
+                ", amount=" + amount +
+                ", createAt=" + createAt +
+                '}';
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.benchmarks;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import x7.core.bean.CriteriaBuilder;
+import x7.core.bean.Parser;
+import x7.core.bean.condition.InCondition;
+import x7.core.web.Direction;
+import x7.core.web.Page;
+import x7.repository.RepositoryBooter;
+import x7.repository.dao.DaoImpl;
+import x7.repository.dao.DataSourceHolder;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DaoImpl end to end against an embedded H2 in MySQL mode, HikariCP pooled <br>
+ * SQL building, binding, JDBC round trip and row mapping, no cache <br>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DaoImplBenchmark {
+
+    public final static String URL = "jdbc:h2:mem:x7bench;DB_CLOSE_DELAY=-1;MODE=MySQL";
+
+    public final static String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS benchOrder ("
+            + "id BIGINT PRIMARY KEY, userId BIGINT, name VARCHAR(64), status INT, "
+            + "amount DECIMAL(15,2), createAt TIMESTAMP)";
+
+    @Param({"10000"})
+    public int rows;
+
+    private HikariDataSource dataSource;
+    private DaoImpl dao;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dataSource = boot(URL, 8);
+        dao = DaoImpl.getInstance();
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS benchOrder");
+            stmt.execute(CREATE_TABLE);
+        }
+
+        List<BenchOrder> list = new ArrayList<>();
+        for (long id = 1; id <= rows; id++) {
+            list.add(BenchOrder.of(id));
+            if (list.size() == 500) {
+                dao.createBatch(list);
+                list.clear();
+            }
+        }
+        if (!list.isEmpty())
+            dao.createBatch(list);
+    }
+
+    /**
+     * dialect, parsed entity and the pooled datasource of DaoImpl, without redis and spring
+     */
+    public static HikariDataSource boot(String url, int poolSize) {
+        RepositoryBooter.onDriver("com.mysql.cj.jdbc.Driver");
+        Parser.get(BenchOrder.class);
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaximumPoolSize(poolSize);
+        DataSourceHolder.setDataSource(dataSource);
+        DataSourceHolder.setReadableDataSource(dataSource);
+        return dataSource;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    @Benchmark
+    public BenchOrder get() {
+        return dao.get(BenchOrder.class, randomId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BenchOrder getConcurrent() {
+        return dao.get(BenchOrder.class, randomId());
+    }
+
+    @Benchmark
+    public List<BenchOrder> listByObject() {
+        BenchOrder condition = new BenchOrder();
+        condition.setUserId(randomId() % 100);
+        condition.setStatus(1);
+        return dao.list(condition);
+    }
+
+    @Benchmark
+    public Page<BenchOrder> find() {
+        CriteriaBuilder builder = CriteriaBuilder.build(BenchOrder.class);
+        builder.and().eq("status", 2);
+        builder.and().gte("userId", randomId() % 50);
+        builder.paged().page(1).rows(20).orderBy("id").on(Direction.DESC);
+        return dao.find(builder.get());
+    }
+
+    @Benchmark
+    public List<BenchOrder> in() {
+        List<Long> idList = new ArrayList<>(20);
+        long from = randomId();
+        for (long i = 0; i < 20; i++) {
+            idList.add((from + i * 37) % rows + 1);
+        }
+        InCondition inCondition = new InCondition("id", idList);
+        inCondition.setClz(BenchOrder.class);
+        return dao.in(inCondition);
+    }
+
+    @Benchmark
+    public boolean refresh() {
+        BenchOrder order = new BenchOrder();
+        order.setId(randomId());
+        order.setName("refreshed");
+        return dao.refresh(order);
+    }
+}
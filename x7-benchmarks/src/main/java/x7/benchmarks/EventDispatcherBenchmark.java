@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import x7.core.event.Event;
+import x7.core.event.EventDispatcher;
+import x7.core.event.EventListener;
+import x7.core.event.EventOwner;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventDispatcher.dispatch of SYNC listeners, run with -prof gc for the allocation <br>
+ * dispatchWhileRegistering: dispatch with a thread adding and removing listeners <br>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventDispatcherBenchmark {
+
+    @Param({"1", "8"})
+    public int listeners;
+
+    private Event event;
+    private Event missed;
+    private EventListener.Handler churn;
+
+    private static volatile long sink;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        for (int i = 0; i < listeners; i++) {
+            EventDispatcher.addEventListener("ORDER", "PAID", "listener" + i, e -> sink += e.getReTimes(),
+                    EventListener.Mode.SYNC, 1, EventListener.Rejection.CALLER_RUNS);
+        }
+        for (int i = 0; i < 64; i++) {
+            EventDispatcher.addEventListener("TYPE" + i, "TAG", "other" + i, e -> sink++,
+                    EventListener.Mode.SYNC, 1, EventListener.Rejection.CALLER_RUNS);
+        }
+        event = new SimpleEvent("ORDER", "PAID");
+        missed = new SimpleEvent("ORDER", "CANCELED");
+        churn = e -> sink--;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        EventDispatcher.removeEventListener("ORDER", "PAID", churn);
+    }
+
+    @Benchmark
+    public void dispatch() {
+        EventDispatcher.dispatch(event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void dispatchConcurrent() {
+        EventDispatcher.dispatch(event);
+    }
+
+    @Benchmark
+    public void dispatchNoListener() {
+        EventDispatcher.dispatch(missed);
+    }
+
+    @Benchmark
+    @Group("registering")
+    @GroupThreads(3)
+    public void dispatchWhileRegistering() {
+        EventDispatcher.dispatch(event);
+    }
+
+    @Benchmark
+    @Group("registering")
+    @GroupThreads(1)
+    public void register(Blackhole bh) {
+        EventDispatcher.addEventListener("ORDER", "PAID", churn);
+        EventDispatcher.removeEventListener("ORDER", "PAID", churn);
+        bh.consume(sink);
+    }
+
+    static class SimpleEvent implements Event {
+
+        private final String type;
+        private final String tag;
+
+        SimpleEvent(String type, String tag) {
+            this.type = type;
+            this.tag = tag;
+        }
+
+        @Override
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public EventOwner getOwner() {
+            return null;
+        }
+
+        @Override
+        public String getTag() {
+            return tag;
+        }
+
+        @Override
+        public long getReTimes() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import x7.core.bean.Criteria;
+import x7.core.bean.CriteriaBuilder;
+import x7.core.bean.Parser;
+import x7.core.util.JsonX;
+import x7.core.util.VerifyUtil;
+import x7.core.web.Direction;
+import x7.core.web.Page;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonX round trips of the L2 cache values, and the key of LevelTwoCacheResolver: <br>
+ * MD5 of the condition json, without the namespace read from redis <br>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonXBenchmark {
+
+    private BenchOrder order;
+    private String orderJson;
+    private List<BenchOrder> orderList;
+    private String orderListJson;
+    private List<String> keyList;
+    private String keyListJson;
+    private String pageJson;
+    private BenchOrder condition;
+    private Criteria criteria;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Parser.get(BenchOrder.class);
+
+        order = BenchOrder.of(1001);
+        orderJson = JsonX.toJson(order);
+
+        orderList = new ArrayList<>();
+        keyList = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            orderList.add(BenchOrder.of(id));
+            keyList.add(String.valueOf(id));
+        }
+        orderListJson = JsonX.toJson(orderList);
+        keyListJson = JsonX.toJson(keyList);
+
+        Page<String> page = new Page<>();
+        page.setPage(1);
+        page.setRows(20);
+        page.setTotalRows(1000);
+        page.reSetList(keyList);
+        pageJson = JsonX.toJson(page);
+
+        condition = new BenchOrder();
+        condition.setUserId(7);
+        condition.setStatus(1);
+
+        CriteriaBuilder builder = CriteriaBuilder.build(BenchOrder.class);
+        builder.and().eq("status", 1);
+        builder.and().in("userId", Arrays.asList(1L, 2L, 3L));
+        builder.paged().page(1).rows(20).orderBy("id").on(Direction.DESC);
+        criteria = builder.get();
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JsonX.toJson(order);
+    }
+
+    @Benchmark
+    public BenchOrder toObject() {
+        return JsonX.toObject(orderJson, BenchOrder.class);
+    }
+
+    @Benchmark
+    public String toJsonList() {
+        return JsonX.toJson(orderList);
+    }
+
+    @Benchmark
+    public List<BenchOrder> toList() {
+        return JsonX.toList(orderListJson, BenchOrder.class);
+    }
+
+    @Benchmark
+    public List<String> toKeyList() {
+        return JsonX.toList(keyListJson, String.class);
+    }
+
+    @Benchmark
+    public Page pageRoundTrip() {
+        return JsonX.toObject(pageJson, Page.class);
+    }
+
+    @Benchmark
+    public String cacheKeyOfObject() {
+        return VerifyUtil.toMD5(JsonX.toJson(condition));
+    }
+
+    @Benchmark
+    public String cacheKeyOfCriteria() {
+        return VerifyUtil.toMD5(JsonX.toJson(criteria));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import x7.core.bean.BeanElement;
+import x7.core.bean.Parser;
+import x7.repository.dialect.MySqlDialect;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MySqlDialect.initObj, the row mapping of DaoImpl, against an in-memory CachedRowSet <br>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MySqlDialectBenchmark {
+
+    private MySqlDialect dialect;
+    private List<BeanElement> eles;
+    private CachedRowSet rs;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dialect = new MySqlDialect();
+        eles = Parser.get(BenchOrder.class).getBeanElementList();
+
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(eles.size());
+        int i = 1;
+        for (BeanElement ele : eles) {
+            metaData.setColumnName(i, ele.getMapper());
+            metaData.setColumnLabel(i, ele.getMapper());
+            metaData.setColumnType(i, sqlType(ele.clz));
+            i++;
+        }
+
+        BenchOrder order = BenchOrder.of(1001);
+        rs = RowSetProvider.newFactory().createCachedRowSet();
+        rs.setMetaData(metaData);
+        rs.moveToInsertRow();
+        i = 1;
+        for (BeanElement ele : eles) {
+            Object value = ele.getMethod.invoke(order);
+            if (value instanceof java.util.Date) {
+                value = new Timestamp(((java.util.Date) value).getTime());
+            }
+            rs.updateObject(i++, value);
+        }
+        rs.insertRow();
+        rs.moveToCurrentRow();
+        rs.beforeFirst();
+        rs.next();
+    }
+
+    private static int sqlType(Class clz) {
+        if (clz == long.class || clz == Long.class)
+            return Types.BIGINT;
+        if (clz == int.class || clz == Integer.class)
+            return Types.INTEGER;
+        if (clz == BigDecimal.class)
+            return Types.DECIMAL;
+        if (clz == java.util.Date.class)
+            return Types.TIMESTAMP;
+        return Types.VARCHAR;
+    }
+
+    @Benchmark
+    public BenchOrder initObj() throws Exception {
+        BenchOrder obj = new BenchOrder();
+        dialect.initObj(obj, rs, null, eles);
+        return obj;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import x7.core.bean.Criteria;
+import x7.core.bean.CriteriaBuilder;
+import x7.core.bean.Parser;
+import x7.core.web.Direction;
+import x7.repository.RepositoryBooter;
+import x7.repository.dao.SqlCriteriaParser;
+import x7.repository.dialect.MySqlDialect;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SqlCriteriaParser.parse of Criteria and ResultMappedCriteria <br>
+ * the criteria is built per invocation as in a request, build* measures the builder alone <br>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SqlCriteriaParserBenchmark {
+
+    private SqlCriteriaParser parser;
+    private List<Long> userIdList;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        RepositoryBooter.onDriver("com.mysql.cj.jdbc.Driver");
+        Parser.get(BenchOrder.class);
+        parser = new SqlCriteriaParser();
+        parser.setDialect(new MySqlDialect());
+        userIdList = Arrays.asList(1L, 2L, 3L, 5L, 8L, 13L);
+    }
+
+    private Criteria criteria() {
+        CriteriaBuilder builder = CriteriaBuilder.build(BenchOrder.class);
+        builder.and().eq("status", 1);
+        builder.and().gte("amount", new BigDecimal("10.00"));
+        builder.and().in("userId", userIdList);
+        builder.and().like("name", "order");
+        builder.paged().page(2).rows(20).orderBy("createAt").on(Direction.DESC);
+        return builder.get();
+    }
+
+    private Criteria.ResultMappedCriteria resultMapped() {
+        CriteriaBuilder.ResultMappedBuilder builder = CriteriaBuilder.buildResultMapped(BenchOrder.class);
+        builder.resultKey("id").resultKey("name").resultKey("amount");
+        builder.and().eq("status", 1);
+        builder.and().in("userId", userIdList);
+        builder.paged().page(1).rows(20).orderBy("id").on(Direction.ASC);
+        return builder.get();
+    }
+
+    @Benchmark
+    public Criteria build() {
+        return criteria();
+    }
+
+    @Benchmark
+    public String[] parse() {
+        return parser.parse(criteria());
+    }
+
+    @Benchmark
+    public Criteria.ResultMappedCriteria buildResultMapped() {
+        return resultMapped();
+    }
+
+    @Benchmark
+    public String[] parseResultMapped() {
+        return parser.parse(resultMapped());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.benchmarks.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * latency of one operation of LoadHarness, lock-free <br>
+ * histogram: 4 buckets per power of 2 of microseconds, error < 25% <br>
+ */
+public final class LatencyRecorder {
+
+    private final static int MAX_BIT = 40;
+    private final static int BUCKETS = 4 + (MAX_BIT - 1) * 4;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos, int rows) {
+        this.count.increment();
+        this.totalNanos.add(nanos);
+        if (rows > 0) {
+            this.rows.add(rows);
+        }
+        this.buckets.incrementAndGet(bucket(nanos / 1000));
+        long max = this.maxNanos.get();
+        while (nanos > max && !this.maxNanos.compareAndSet(max, nanos)) {
+            max = this.maxNanos.get();
+        }
+    }
+
+    private static int bucket(long us) {
+        if (us < 4)
+            return (int) us;
+        int bit = 63 - Long.numberOfLeadingZeros(us);
+        if (bit > MAX_BIT)
+            return BUCKETS - 1;
+        int sub = (int) ((us >>> (bit - 2)) & 3);
+        return 4 + (bit - 2) * 4 + sub;
+    }
+
+    /**
+     * @return exclusive upper bound of the bucket, microseconds
+     */
+    private static long upperBound(int index) {
+        if (index < 4)
+            return index + 1;
+        int bit = (index - 4) / 4 + 2;
+        int sub = (index - 4) % 4;
+        return ((4L | sub) + 1) << (bit - 2);
+    }
+
+    /**
+     * @param p 0.5, 0.95, 0.99
+     * @return ms
+     */
+    public double percentile(double p) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = this.buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0)
+            return 0;
+        long target = (long) Math.ceil(p * total);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= target)
+                return Math.min(upperBound(i) / 1000.0, getMax());
+        }
+        return getMax();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * ms
+     */
+    public double getAvg() {
+        long c = getCount();
+        return c == 0 ? 0 : totalNanos.sum() / 1000_000.0 / c;
+    }
+
+    /**
+     * ms
+     */
+    public double getMax() {
+        return maxNanos.get() / 1000_000.0;
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        long c = getCount();
+        map.put("op", name);
+        map.put("count", c);
+        map.put("avgMs", getAvg());
+        map.put("maxMs", getMax());
+        map.put("p50Ms", percentile(0.5));
+        map.put("p95Ms", percentile(0.95));
+        map.put("p99Ms", percentile(0.99));
+        map.put("avgRows", c == 0 ? 0 : getRows() / (double) c);
+        return map;
+    }
+}
@@ -0,0 +1,510 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.benchmarks.load;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import x7.benchmarks.BenchOrder;
+import x7.benchmarks.DaoImplBenchmark;
+import x7.core.bean.CriteriaBuilder;
+import x7.core.bean.Reduce;
+import x7.core.bean.condition.InCondition;
+import x7.core.bean.condition.ReduceCondition;
+import x7.core.metrics.Metrics;
+import x7.core.metrics.MetricsRecorder;
+import x7.core.util.JsonX;
+import x7.core.web.Direction;
+import x7.core.web.Page;
+import x7.repository.RepositoryBooter;
+import x7.repository.SqlRepository;
+import x7.repository.monitor.SqlStatistics;
+import x7.repository.monitor.StatementStat;
+
+import javax.sql.DataSource;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * end to end load of BaseRepository, the starter booted against H2 and an in-memory redis <br>
+ * java -cp x7-benchmarks/target/benchmarks.jar x7.benchmarks.load.LoadHarness \ <br>
+ * clients=16 warmup=10 duration=30 rows=10000 pool=10 cache=true profile=bench \ <br>
+ * mix=get:50,list:15,find:10,in:10,create:5,refresh:5,reduce:5 out=report.json <br>
+ * reports ops/s and latency percentiles per operation, allocation of the clients, <br>
+ * gc, hikari pool saturation, L2 cache hits and the top statements of SqlStatistics <br>
+ */
+public class LoadHarness {
+
+    enum Op {
+        GET, LIST, FIND, IN, CREATE, REFRESH, REDUCE
+    }
+
+    private final Map<String, String> options;
+    private final int clients;
+    private final int warmup;
+    private final int duration;
+    private final int rows;
+    private final Op[] wheel;
+
+    private BenchOrderRepository repository;
+    private HikariPoolMXBean pool;
+    private int poolSize;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final Map<Op, LatencyRecorder> statMap = new HashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    private final CacheCounter cacheCounter = new CacheCounter();
+
+    public LoadHarness(Map<String, String> options) {
+        this.options = options;
+        this.clients = Integer.parseInt(option("clients", "16"));
+        this.warmup = Integer.parseInt(option("warmup", "10"));
+        this.duration = Integer.parseInt(option("duration", "30"));
+        this.rows = Integer.parseInt(option("rows", "10000"));
+        this.wheel = parseMix(option("mix", "get:50,list:15,find:10,in:10,create:5,refresh:5,reduce:5"));
+        for (Op op : Op.values()) {
+            statMap.put(op, new LatencyRecorder(op.name().toLowerCase()));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int i = arg.indexOf('=');
+            if (i > 0)
+                options.put(arg.substring(0, i), arg.substring(i + 1));
+        }
+        new LoadHarness(options).run();
+        System.exit(0);
+    }
+
+    private String option(String key, String defaultValue) {
+        String value = options.get(key);
+        if (value == null)
+            value = System.getProperty("x7.load." + key, defaultValue);
+        return value;
+    }
+
+    /**
+     * get:50,list:15 to a wheel of 100 slots, picked at random by the clients
+     */
+    private static Op[] parseMix(String mix) {
+        List<Op> list = new ArrayList<>();
+        for (String pair : mix.split(",")) {
+            String[] arr = pair.trim().split(":");
+            Op op = Op.valueOf(arr[0].trim().toUpperCase());
+            int weight = Integer.parseInt(arr[1].trim());
+            for (int i = 0; i < weight; i++) {
+                list.add(op);
+            }
+        }
+        if (list.isEmpty())
+            throw new IllegalArgumentException("mix is empty");
+        return list.toArray(new Op[0]);
+    }
+
+    public void run() throws Exception {
+        boot();
+        preload();
+
+        List<Thread> threadList = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    client();
+                } finally {
+                    done.countDown();
+                }
+            }, "x7-load-" + i);
+            threadList.add(thread);
+            thread.start();
+        }
+
+        System.out.println("warmup " + warmup + "s, " + clients + " clients");
+        Thread.sleep(warmup * 1000L);
+
+        long[] threadIds = new long[clients];
+        for (int i = 0; i < clients; i++) {
+            threadIds[i] = threadList.get(i).getId();
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedStart = sum(threadMXBean.getThreadAllocatedBytes(threadIds));
+        long[] gcStart = gc();
+        SqlStatistics.reset();
+        cacheCounter.reset();
+
+        System.out.println("measure " + duration + "s");
+        measuring = true;
+        long start = System.nanoTime();
+        PoolSampler sampler = new PoolSampler();
+        sampler.start();
+
+        Thread.sleep(duration * 1000L);
+
+        measuring = false;
+        long elapsed = System.nanoTime() - start;
+        sampler.interrupt();
+        sampler.join();
+        long allocated = sum(threadMXBean.getThreadAllocatedBytes(threadIds)) - allocatedStart;
+        long[] gcEnd = gc();
+
+        running = false;
+        done.await();
+
+        report(elapsed, allocated, gcEnd[0] - gcStart[0], gcEnd[1] - gcStart[1], sampler);
+    }
+
+    private void boot() throws Exception {
+        String url = option("url", "jdbc:h2:mem:x7load;DB_CLOSE_DELAY=-1;MODE=MySQL");
+        poolSize = Integer.parseInt(option("pool", "10"));
+
+        try (Connection conn = DriverManager.getConnection(url, "sa", "");
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS idGenerator (clzName VARCHAR(120) PRIMARY KEY, maxId BIGINT)");
+            stmt.execute(DaoImplBenchmark.CREATE_TABLE);
+        }
+
+        /*
+         * the dialect is chosen by the driver name, H2 in MySQL mode
+         */
+        RepositoryBooter.onDriver("mysql");
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", url);
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.hikari.maximum-pool-size", poolSize);
+        properties.put("x7.repository.stats-enabled", true);
+        properties.put("x7.repository.slow-query-threshold", 0);
+        /*
+         * spring-webmvc on the classpath, no servlet container
+         */
+        properties.put("spring.main.web-application-type", "none");
+        /*
+         * no profile or dev: Configs.Inner.isDev, L2 cache off in SqlRepository
+         */
+        properties.put("spring.profiles.active", option("profile", "bench"));
+
+        SpringApplication application = new SpringApplication(LoadApplication.class);
+        application.setDefaultProperties(properties);
+        ConfigurableApplicationContext context = application.run();
+
+        repository = context.getBean(BenchOrderRepository.class);
+        DataSource dataSource = context.getBean(DataSource.class);
+        if (dataSource instanceof HikariDataSource) {
+            pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+        }
+
+        if (!Boolean.parseBoolean(option("cache", "true"))) {
+            SqlRepository.getInstance().setCacheResolver(null);
+        }
+        Metrics.setRecorder(cacheCounter);
+    }
+
+    private void preload() {
+        List<BenchOrder> list = new ArrayList<>();
+        for (long id = 1; id <= rows; id++) {
+            list.add(BenchOrder.of(id));
+            if (list.size() == 500) {
+                repository.createBatch(list);
+                list.clear();
+            }
+        }
+        if (!list.isEmpty())
+            repository.createBatch(list);
+        nextId.set(rows);
+        System.out.println("preloaded " + rows + " rows");
+    }
+
+    private void client() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            Op op = wheel[random.nextInt(wheel.length)];
+            long startTime = System.nanoTime();
+            int count;
+            try {
+                count = execute(op, random);
+            } catch (Exception e) {
+                errors.increment();
+                continue;
+            }
+            if (measuring) {
+                statMap.get(op).record(System.nanoTime() - startTime, count);
+            }
+        }
+    }
+
+    private long randomId(ThreadLocalRandom random) {
+        return random.nextLong(1, rows + 1);
+    }
+
+    private int execute(Op op, ThreadLocalRandom random) {
+        switch (op) {
+            case GET:
+                return repository.get(randomId(random)) == null ? 0 : 1;
+            case LIST: {
+                BenchOrder condition = new BenchOrder();
+                condition.setUserId(random.nextInt(100));
+                condition.setStatus(random.nextInt(4));
+                return repository.list(condition).size();
+            }
+            case FIND: {
+                CriteriaBuilder builder = CriteriaBuilder.build(BenchOrder.class);
+                builder.and().eq("status", random.nextInt(4));
+                builder.and().gte("userId", random.nextInt(100));
+                builder.paged().page(1 + random.nextInt(5)).rows(20).orderBy("id").on(Direction.DESC);
+                Page<BenchOrder> page = repository.find(builder.get());
+                return page.getList().size();
+            }
+            case IN: {
+                List<Long> idList = new ArrayList<>(20);
+                for (int i = 0; i < 20; i++) {
+                    idList.add(randomId(random));
+                }
+                InCondition inCondition = new InCondition("id", idList);
+                inCondition.setClz(BenchOrder.class);
+                return repository.in(inCondition).size();
+            }
+            case CREATE:
+                repository.create(BenchOrder.of(nextId.incrementAndGet()));
+                return 1;
+            case REFRESH: {
+                BenchOrder order = new BenchOrder();
+                order.setId(randomId(random));
+                order.setName("refreshed-" + random.nextInt(1000));
+                return repository.refresh(order) ? 1 : 0;
+            }
+            case REDUCE: {
+                ReduceCondition reduceCondition = new ReduceCondition(Reduce.ReduceType.SUM, "amount");
+                reduceCondition.setClz(BenchOrder.class);
+                reduceCondition.and().eq("status", random.nextInt(4));
+                repository.reduce(reduceCondition);
+                return 1;
+            }
+            default:
+                throw new IllegalStateException(op.name());
+        }
+    }
+
+    private static long sum(long[] arr) {
+        long sum = 0;
+        for (long v : arr) {
+            if (v > 0)
+                sum += v;
+        }
+        return sum;
+    }
+
+    /**
+     * @return count, ms
+     */
+    private static long[] gc() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return new long[]{count, time};
+    }
+
+    private void report(long elapsed, long allocated, long gcCount, long gcTime, PoolSampler sampler) throws Exception {
+        double seconds = elapsed / 1000_000_000.0;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", clients);
+        report.put("seconds", seconds);
+        report.put("rows", rows);
+        report.put("cacheEnabled", Boolean.parseBoolean(option("cache", "true")));
+
+        System.out.println();
+        System.out.println(String.format("%-8s %10s %10s %9s %9s %9s %9s %9s %8s",
+                "op", "count", "ops/s", "avg(ms)", "p50", "p95", "p99", "max", "rows/op"));
+        long total = 0;
+        List<Map<String, Object>> opList = new ArrayList<>();
+        for (Op op : Op.values()) {
+            LatencyRecorder stat = statMap.get(op);
+            long count = stat.getCount();
+            if (count == 0)
+                continue;
+            total += count;
+            Map<String, Object> map = stat.toMap();
+            map.put("opsPerSecond", count / seconds);
+            opList.add(map);
+            System.out.println(String.format("%-8s %10d %10.0f %9.3f %9.3f %9.3f %9.3f %9.3f %8.1f",
+                    stat.getName(), count, count / seconds, stat.getAvg(),
+                    stat.percentile(0.5), stat.percentile(0.95), stat.percentile(0.99), stat.getMax(),
+                    stat.getRows() / (double) count));
+        }
+        report.put("ops", opList);
+        report.put("opsPerSecond", total / seconds);
+        report.put("errors", errors.sum());
+        System.out.println(String.format("total    %10d %10.0f, errors %d", total, total / seconds, errors.sum()));
+
+        double mbPerSecond = allocated / seconds / (1024 * 1024);
+        double bytesPerOp = total == 0 ? 0 : allocated / (double) total;
+        report.put("allocatedMBPerSecond", mbPerSecond);
+        report.put("allocatedBytesPerOp", bytesPerOp);
+        report.put("gcCount", gcCount);
+        report.put("gcMs", gcTime);
+        System.out.println(String.format("alloc    %.1f MB/s, %.0f bytes/op (client threads); gc %d, %d ms",
+                mbPerSecond, bytesPerOp, gcCount, gcTime));
+
+        Map<String, Object> poolMap = sampler.toMap();
+        report.put("pool", poolMap);
+        System.out.println("pool     " + poolMap);
+
+        Map<String, Object> cacheMap = cacheCounter.toMap();
+        report.put("cache", cacheMap);
+        System.out.println("cache    " + cacheMap);
+
+        List<Map<String, Object>> topList = new ArrayList<>();
+        System.out.println("top statements by total time:");
+        for (StatementStat stat : SqlStatistics.top(10, "total")) {
+            Map<String, Object> map = stat.toMap();
+            topList.add(map);
+            System.out.println(String.format("  %8d %9.3f avg %9.3f p99  %s",
+                    stat.getCount(), stat.getAvg(), stat.percentile(0.99), stat.getSql()));
+        }
+        report.put("statements", topList);
+
+        String out = option("out", null);
+        if (out != null) {
+            try (OutputStream os = new FileOutputStream(out)) {
+                os.write(JsonX.toJson(report).getBytes(StandardCharsets.UTF_8));
+            }
+            System.out.println("report written to " + out);
+        }
+    }
+
+    /**
+     * hikari active/idle/awaiting every 50ms while measuring
+     */
+    private class PoolSampler extends Thread {
+
+        private long samples;
+        private long activeSum;
+        private int activeMax;
+        private int awaitingMax;
+        private long saturated;
+
+        PoolSampler() {
+            super("x7-load-pool");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            if (pool == null)
+                return;
+            while (!isInterrupted()) {
+                int active = pool.getActiveConnections();
+                int awaiting = pool.getThreadsAwaitingConnection();
+                samples++;
+                activeSum += active;
+                activeMax = Math.max(activeMax, active);
+                awaitingMax = Math.max(awaitingMax, awaiting);
+                if (awaiting > 0 || active >= poolSize)
+                    saturated++;
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("size", poolSize);
+            map.put("activeAvg", samples == 0 ? 0 : activeSum / (double) samples);
+            map.put("activeMax", activeMax);
+            map.put("awaitingMax", awaitingMax);
+            map.put("saturatedPercent", samples == 0 ? 0 : saturated * 100.0 / samples);
+            return map;
+        }
+    }
+
+    /**
+     * L2 cache results and redis round trips, through Metrics
+     */
+    private static class CacheCounter implements MetricsRecorder {
+
+        private final LongAdder hit = new LongAdder();
+        private final LongAdder miss = new LongAdder();
+        private final LongAdder repair = new LongAdder();
+        private final LongAdder redis = new LongAdder();
+
+        @Override
+        public void recordCache(Class<?> clz, Cache result, int count) {
+            switch (result) {
+                case HIT:
+                    hit.add(count);
+                    break;
+                case MISS:
+                    miss.add(count);
+                    break;
+                default:
+                    repair.add(count);
+            }
+        }
+
+        @Override
+        public void recordRedis(String op, long nanos) {
+            redis.increment();
+        }
+
+        void reset() {
+            hit.reset();
+            miss.reset();
+            repair.reset();
+            redis.reset();
+        }
+
+        Map<String, Object> toMap() {
+            long h = hit.sum();
+            long m = miss.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("hit", h);
+            map.put("miss", m);
+            map.put("repair", repair.sum());
+            map.put("hitRatio", h + m == 0 ? 0 : h / (double) (h + m));
+            map.put("redisCalls", redis.sum());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.benchmarks.load;
+
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * in-memory stand-in of redis for the load harness, bean redisTemplate and stringRedisTemplate <br>
+ * String keys only, as used by JedisConnector_Cache and JedisConnector_Persistence <br>
+ * value: get, set, multiGet, setIfAbsent, increment; hash: get, put, increment, entries, delete <br>
+ * no expiration, no scripts (DistributionLock), no pub/sub <br>
+ */
+public class StandInRedisTemplate extends StringRedisTemplate {
+
+    private final ConcurrentMap<String, String> valueMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<Object, Object>> hashMap = new ConcurrentHashMap<>();
+
+    private final ValueOperations<String, String> valueOperations = proxy(ValueOperations.class, this::value);
+    private final HashOperations<String, Object, Object> hashOperations = proxy(HashOperations.class, this::hash);
+
+    private interface Handler {
+        Object handle(String name, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, (Object proxy, Method method, Object[] args) -> {
+            if (method.getDeclaringClass() == Object.class)
+                return method.invoke(this, args);
+            return handler.handle(method.getName(), args);
+        });
+    }
+
+    private Object value(String name, Object[] args) {
+        switch (name) {
+            case "get":
+                return valueMap.get(key(args[0]));
+            case "set":
+                valueMap.put(key(args[0]), (String) args[1]);
+                return null;
+            case "multiGet":
+                List<String> list = new ArrayList<>();
+                for (Object key : (Collection) args[0]) {
+                    list.add(valueMap.get(key(key)));
+                }
+                return list;
+            case "setIfAbsent":
+                return valueMap.putIfAbsent(key(args[0]), (String) args[1]) == null;
+            case "increment":
+                long delta = args.length > 1 ? (Long) args[1] : 1;
+                return Long.valueOf(valueMap.merge(key(args[0]), String.valueOf(delta),
+                        (v, d) -> String.valueOf(Long.parseLong(v) + Long.parseLong(d))));
+            default:
+                throw new UnsupportedOperationException("opsForValue()." + name);
+        }
+    }
+
+    private Object hash(String name, Object[] args) {
+        ConcurrentMap<Object, Object> map = hashMap.computeIfAbsent(key(args[0]), k -> new ConcurrentHashMap<>());
+        switch (name) {
+            case "get":
+                return map.get(args[1]);
+            case "put":
+                map.put(args[1], args[2]);
+                return null;
+            case "increment":
+                long delta = ((Number) args[2]).longValue();
+                return Long.valueOf(map.merge(args[1], String.valueOf(delta),
+                        (v, d) -> String.valueOf(Long.parseLong(v.toString()) + Long.parseLong(d.toString()))).toString());
+            case "entries":
+                return map;
+            case "hasKey":
+                return map.containsKey(args[1]);
+            case "delete":
+                long count = 0;
+                for (Object hk : (Object[]) args[1]) {
+                    if (map.remove(hk) != null)
+                        count++;
+                }
+                return count;
+            default:
+                throw new UnsupportedOperationException("opsForHash()." + name);
+        }
+    }
+
+    private static String key(Object key) {
+        return (String) key;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+    }
+
+    @Override
+    public ValueOperations<String, String> opsForValue() {
+        return valueOperations;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <HK, HV> HashOperations<String, HK, HV> opsForHash() {
+        return (HashOperations<String, HK, HV>) (HashOperations) hashOperations;
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        boolean b = valueMap.remove(key) != null;
+        return hashMap.remove(key) != null || b;
+    }
+
+    @Override
+    public Long delete(Collection<String> keys) {
+        long count = 0;
+        for (String key : keys) {
+            if (delete(key))
+                count++;
+        }
+        return count;
+    }
+
+    @Override
+    public Boolean hasKey(String key) {
+        return valueMap.containsKey(key) || hashMap.containsKey(key);
+    }
+
+    @Override
+    public Boolean expire(String key, long timeout, TimeUnit unit) {
+        return hasKey(key);
+    }
+
+    @Override
+    public Set<String> keys(String pattern) {
+        Pattern regex = Pattern.compile(("\\Q" + pattern + "\\E").replace("*", "\\E.*\\Q").replace("?", "\\E.\\Q"));
+        Set<String> set = new HashSet<>();
+        for (String key : valueMap.keySet()) {
+            if (regex.matcher(key).matches())
+                set.add(key);
+        }
+        for (String key : hashMap.keySet()) {
+            if (regex.matcher(key).matches())
+                set.add(key);
+        }
+        return set;
+    }
+
+    @Override
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        throw new UnsupportedOperationException("scripts not supported by the stand-in");
+    }
+
+    @Override
+    public void convertAndSend(String channel, Object message) {
+    }
+
+    public int size() {
+        return valueMap.size() + hashMap.size();
+    }
+
+    public Map<String, String> getValueMap() {
+        return valueMap;
+    }
+}
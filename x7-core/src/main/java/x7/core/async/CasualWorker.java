@@ -16,10 +16,12 @@
  */
 package x7.core.async;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 
@@ -29,58 +31,354 @@ import java.util.concurrent.Executors;
  * 适应举例：<br>
  * 1. 在创建场景时，初始化场景的数据<br>
  * 2. 在倒计时的时间段里，<br>
+ * 默认一个worker, 任务在一个线程里顺序执行, 总是平台线程, 不受x7.execution-mode影响<br>
+ * x7.casual.workers > 1: 同一个key的任务在同一个worker里顺序执行, 没有key的任务轮流分配<br>
+ * 优先级: HIGH, NORMAL, LOW, 每个worker先执行高优先级的任务<br>
+ * 队列满时: x7.casual.rejection=CALLER_RUNS(默认) | DISCARD | BLOCK, CALLER_RUNS时不保证同一个key的顺序<br>
+ * coalesce(key, task): 同一个key未开始执行的任务, 被新任务替换<br>
  * 
  * @author wangyan
  *
  */
 public final class CasualWorker {
-	
-	private final static ExecutorService service = Executors.newFixedThreadPool(1);
-	
-	private final static BlockingQueue<IAsyncTask> tasks = new ArrayBlockingQueue<IAsyncTask>(4096);
-	
-	static {
-		
-		service.execute(new Runnable(){
-
-			@Override
-			public void run() {
 
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-				while (true) {
-					try {
-						tasks.take().execute();
-					} catch (NullPointerException npe){
-						npe.printStackTrace();
-					}catch (InterruptedException e) {
-						e.printStackTrace();
-					} catch (Exception e){
-						e.printStackTrace();
-					}
-				}
+	public enum Priority {
+		HIGH,
+		NORMAL,
+		LOW
+	}
+
+	public enum Rejection {
+		CALLER_RUNS,
+		DISCARD,
+		BLOCK
+	}
+
+	private static int workers = 1;
+	private static int queueSize = 4096;
+	private static Rejection rejection = Rejection.CALLER_RUNS;
+
+	private final static ConcurrentHashMap<Object, Entry> coalesceMap = new ConcurrentHashMap<Object, Entry>();
+	private final static AtomicInteger cursor = new AtomicInteger();
+
+	private final static AtomicLong accepted = new AtomicLong();
+	private final static AtomicLong executed = new AtomicLong();
+	private final static AtomicLong rejected = new AtomicLong();
+	private final static AtomicLong callerRuns = new AtomicLong();
+	private final static AtomicLong coalesced = new AtomicLong();
+	private final static AtomicLong waitNanos = new AtomicLong();
+	private static volatile long maxWaitNanos;
+
+	/**
+	 * 在第一个任务之前配置
+	 * @param workers  线程数
+	 * @param queueSize 每个worker的队列长度
+	 * @param rejection 队列满时
+	 */
+	public static synchronized void config(int workers, int queueSize, Rejection rejection) {
+		if (workers > 0)
+			CasualWorker.workers = workers;
+		if (queueSize > 0)
+			CasualWorker.queueSize = queueSize;
+		if (rejection != null)
+			CasualWorker.rejection = rejection;
+	}
+
+	/**
+	 * @param rejection "CALLER_RUNS" | "DISCARD" | "BLOCK", ignored if null or unknown
+	 */
+	public static void config(String workers, String queueSize, String rejection) {
+		Rejection r = null;
+		if (rejection != null) {
+			for (Rejection value : Rejection.values()) {
+				if (value.name().equalsIgnoreCase(rejection.trim().replace('-', '_')))
+					r = value;
 			}
-			
-		});
+		}
+		config(workers == null ? 0 : Integer.parseInt(workers.trim()),
+				queueSize == null ? 0 : Integer.parseInt(queueSize.trim()), r);
+	}
 
+	private static class Holder {
+		final static Worker[] WORKERS = new Worker[workers];
+
+		static {
+			for (int i = 0; i < WORKERS.length; i++) {
+				WORKERS[i] = new Worker(queueSize);
+				String prefix = WORKERS.length == 1 ? "x7-casual" : "x7-casual-" + i;
+				ExecutorFactory.newSingleThreadExecutor(prefix, false).execute(WORKERS[i]);
+			}
+		}
 	}
+
 	/**
 	 * 接受临时任务，异步执行
 	 * @param task
-	 * @throws InterruptedException
 	 */
 	public static void accept(IAsyncTask task) {
-		try {
-			tasks.put(task);
-		} catch (InterruptedException e) {
+		accept(null, task, Priority.NORMAL);
+	}
 
+	public static void accept(IAsyncTask task, Priority priority) {
+		accept(null, task, priority);
+	}
+
+	/**
+	 * @param key 同一个key的任务顺序执行
+	 */
+	public static void accept(Object key, IAsyncTask task) {
+		accept(key, task, Priority.NORMAL);
+	}
+
+	public static void accept(Object key, IAsyncTask task, Priority priority) {
+		submit(new Entry(key, task, priority, false), key);
+	}
+
+	/**
+	 * 同一个key, 未开始执行的任务被替换, 如: 只需要最新值的更新
+	 * @param key not null
+	 */
+	public static void coalesce(Object key, IAsyncTask task, Priority priority) {
+		for (; ; ) {
+			Entry entry = coalesceMap.get(key);
+			if (entry != null) {
+				synchronized (entry) {
+					if (!entry.started) {
+						entry.task = task;
+						accepted.incrementAndGet();
+						coalesced.incrementAndGet();
+						return;
+					}
+				}
+				coalesceMap.remove(key, entry);
+				continue;
+			}
+			entry = new Entry(key, task, priority, true);
+			if (coalesceMap.putIfAbsent(key, entry) == null) {
+				submit(entry, key);
+				return;
+			}
+		}
+	}
+
+	private static void submit(Entry entry, Object key) {
+		accepted.incrementAndGet();
+		Worker[] arr = Holder.WORKERS;
+		Worker worker = arr.length == 1 ? arr[0] : arr[index(key, arr.length)];
+		if (worker.offer(entry, rejection == Rejection.BLOCK))
+			return;
+
+		if (entry.coalescing) {
+			coalesceMap.remove(entry.key, entry);
+		}
+		if (rejection == Rejection.DISCARD) {
+			rejected.incrementAndGet();
+			return;
+		}
+		callerRuns.incrementAndGet();
+		execute(entry);
+	}
+
+	private static int index(Object key, int size) {
+		if (key == null)
+			return (cursor.getAndIncrement() & 0x7fffffff) % size;
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return (h & 0x7fffffff) % size;
+	}
+
+	private static void execute(Entry entry) {
+		IAsyncTask task;
+		if (entry.coalescing) {
+			synchronized (entry) {
+				entry.started = true;
+				task = entry.task;
+			}
+			coalesceMap.remove(entry.key, entry);
+		} else {
+			task = entry.task;
+		}
+		try {
+			task.execute();
+		} catch (NullPointerException npe){
+			npe.printStackTrace();
+		} catch (Exception e){
 			e.printStackTrace();
-		}catch (Exception e){
-			e.printStackTrace();
+		} finally {
+			executed.incrementAndGet();
+		}
+	}
+
+	/**
+	 * 等待的任务数
+	 */
+	public static int getQueued() {
+		int n = 0;
+		for (Worker worker : Holder.WORKERS) {
+			n += worker.size();
 		}
+		return n;
 	}
-	
+
+	public static int getQueued(Priority priority) {
+		int n = 0;
+		for (Worker worker : Holder.WORKERS) {
+			n += worker.size(priority);
+		}
+		return n;
+	}
+
+	public static long getAccepted() {
+		return accepted.get();
+	}
+
+	public static long getExecuted() {
+		return executed.get();
+	}
+
+	public static long getRejected() {
+		return rejected.get();
+	}
+
+	public static long getCallerRuns() {
+		return callerRuns.get();
+	}
+
+	public static long getCoalesced() {
+		return coalesced.get();
+	}
+
+	/**
+	 * 从入队到开始执行的平均等待, nanos
+	 */
+	public static long getAvgWaitNanos() {
+		long n = executed.get() - callerRuns.get();
+		return n <= 0 ? 0 : waitNanos.get() / n;
+	}
+
+	public static long getMaxWaitNanos() {
+		return maxWaitNanos;
+	}
+
+	private static class Entry {
+		final Object key;
+		final Priority priority;
+		final boolean coalescing;
+		final long enqueueTime = System.nanoTime();
+		IAsyncTask task;
+		boolean started;
+
+		Entry(Object key, IAsyncTask task, Priority priority, boolean coalescing) {
+			this.key = key;
+			this.task = task;
+			this.priority = priority == null ? Priority.NORMAL : priority;
+			this.coalescing = coalescing;
+		}
+	}
+
+	/**
+	 * 一个线程, 每个优先级一个队列, 共用容量
+	 */
+	private static class Worker implements Runnable {
+
+		private final ArrayDeque<Entry>[] lanes;
+		private final int capacity;
+		private int count;
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition notEmpty = lock.newCondition();
+		private final Condition notFull = lock.newCondition();
+
+		@SuppressWarnings("unchecked")
+		Worker(int capacity) {
+			this.capacity = capacity;
+			this.lanes = new ArrayDeque[Priority.values().length];
+			for (int i = 0; i < lanes.length; i++) {
+				lanes[i] = new ArrayDeque<Entry>();
+			}
+		}
+
+		boolean offer(Entry entry, boolean block) {
+			lock.lock();
+			try {
+				while (count >= capacity) {
+					if (!block)
+						return false;
+					notFull.await();
+				}
+				lanes[entry.priority.ordinal()].addLast(entry);
+				count++;
+				notEmpty.signal();
+				return true;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		Entry take() throws InterruptedException {
+			lock.lock();
+			try {
+				while (count == 0) {
+					notEmpty.await();
+				}
+				for (ArrayDeque<Entry> lane : lanes) {
+					Entry entry = lane.pollFirst();
+					if (entry != null) {
+						count--;
+						notFull.signal();
+						return entry;
+					}
+				}
+				throw new IllegalStateException();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		int size() {
+			lock.lock();
+			try {
+				return count;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		int size(Priority priority) {
+			lock.lock();
+			try {
+				return lanes[priority.ordinal()].size();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		@Override
+		public void run() {
+
+			try {
+				Thread.sleep(1000);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+			while (true) {
+				try {
+					Entry entry = take();
+					long wait = System.nanoTime() - entry.enqueueTime;
+					waitNanos.addAndGet(wait);
+					if (wait > maxWaitNanos) {
+						maxWaitNanos = wait;
+					}
+					CasualWorker.execute(entry);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				} catch (Exception e){
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
 }
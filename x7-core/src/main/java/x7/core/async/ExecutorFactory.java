@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.core.async;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads of the blocking work <br>
+ * x7.execution-mode=virtual: virtual threads on JDK 21+, platform threads on older JDK, <br>
+ * for the daemon executors only: async jdbc reads, replica probe, ReyClient calls and retry, event dispatch, TimingWheel tasks <br>
+ * CasualWorker, AsyncDaoImpl: non-daemon, platform threads in both modes <br>
+ * x7.execution-mode=platform: platform threads, default <br>
+ * set the mode before the executors created <br>
+ * on virtual threads, no blocking io in synchronized blocks, or the carrier pinned <br>
+ */
+public final class ExecutorFactory {
+
+    public enum Mode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    private static volatile Mode mode = Mode.PLATFORM;
+
+    private final static Method OF_VIRTUAL;
+    private final static Method NAME;
+    private final static Method FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> ofVirtualClz = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            name = ofVirtualClz.getMethod("name", String.class, long.class);
+            factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            factory.invoke(ofVirtual.invoke(null)); // preview on JDK 19/20: UnsupportedOperationException
+        } catch (Throwable e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    private ExecutorFactory() {
+    }
+
+    public static boolean isVirtualSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    public static void setMode(Mode mode) {
+        if (mode != null)
+            ExecutorFactory.mode = mode;
+    }
+
+    /**
+     * @param mode "virtual" | "platform", ignored if null or unknown
+     */
+    public static void setMode(String mode) {
+        if (mode == null)
+            return;
+        for (Mode m : Mode.values()) {
+            if (m.name().equalsIgnoreCase(mode.trim())) {
+                setMode(m);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true if virtual mode and supported by the JDK
+     */
+    public static boolean isVirtual() {
+        return mode == Mode.VIRTUAL && isVirtualSupported();
+    }
+
+    /**
+     * @param prefix thread name prefix
+     * @param daemon false: platform threads in both modes, virtual threads are always daemon, <br>
+     *               for the work not to be dropped at JVM exit
+     */
+    public static ThreadFactory threadFactory(final String prefix, final boolean daemon) {
+
+        if (daemon && isVirtual()) {
+            try {
+                Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix + "-", 1L);
+                return (ThreadFactory) FACTORY.invoke(builder);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + "-" + count.incrementAndGet());
+                thread.setDaemon(daemon);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * virtual: one new thread per task <br>
+     * platform: fixed pool of nThreads
+     */
+    public static ExecutorService newTaskExecutor(String prefix, int nThreads) {
+        return newTaskExecutor(prefix, nThreads, true);
+    }
+
+    /**
+     * @param daemon false: fixed pool of platform threads in both modes
+     */
+    public static ExecutorService newTaskExecutor(String prefix, int nThreads, boolean daemon) {
+        ThreadFactory threadFactory = threadFactory(prefix, daemon);
+        if (!daemon) {
+            return Executors.newFixedThreadPool(nThreads, threadFactory);
+        }
+        if (isVirtual()) {
+            return Executors.newCachedThreadPool(threadFactory);
+        }
+        return Executors.newFixedThreadPool(nThreads, threadFactory);
+    }
+
+    /**
+     * keeps the order of tasks, in both modes
+     */
+    public static ExecutorService newSingleThreadExecutor(String prefix) {
+        return newSingleThreadExecutor(prefix, true);
+    }
+
+    /**
+     * @param daemon false: the queued tasks not dropped at JVM exit, platform thread in both modes
+     */
+    public static ExecutorService newSingleThreadExecutor(String prefix, boolean daemon) {
+        return Executors.newSingleThreadExecutor(threadFactory(prefix, daemon));
+    }
+}
@@ -16,9 +16,7 @@
  */
 package x7.core.async;
 
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 
@@ -26,17 +24,16 @@ import java.util.concurrent.TimeUnit;
  * 心跳循环器<br>
  * 实现了IHeartBeat接口的service需要注册到此心跳循环器
  * HeartBeator.add(this);
+ * 每个HeartBeat是TimingWheel的一个定时任务, 在x7-timer线程池执行, 同一个task不会并发执行<br>
+ * 上次tick未结束时, 本次tick跳过(overrun)<br>
  * @author wyan
  * 
  */
 public class HeartBeator {
 
 	private final static long INTERVAL = 50;
-	private final static TimeUnit UNIT = TimeUnit.MILLISECONDS;
-	private final static ScheduledExecutorService service = Executors
-			.newScheduledThreadPool(1);
 
-	private final static CopyOnWriteArrayList<HeartBeat> tasks = new CopyOnWriteArrayList<HeartBeat>();
+	private final static ConcurrentHashMap<HeartBeat, TimingWheel.Timeout> tasks = new ConcurrentHashMap<HeartBeat, TimingWheel.Timeout>();
 
 	private static HeartBeator instance;
 	public static void newInstance(){
@@ -46,42 +43,6 @@ public class HeartBeator {
 	}
 	
 	private HeartBeator(){}
-	
-	static {
-		schedule(new Runnable() {
-
-			@Override
-			public void run() {
-				try {
-					tick();
-				} catch (NullPointerException npe){
-					npe.printStackTrace();
-				}catch (Exception e) {
-					e.printStackTrace();
-				}
-
-			}
-		}, System.currentTimeMillis() + 1000, INTERVAL);
-	}
-
-	private static void schedule(Runnable command, long scheduledAt, long delay) {
-		long now = System.currentTimeMillis();
-		if (scheduledAt <= now) {
-			scheduledAt += 86400000L;
-		}
-		service.scheduleWithFixedDelay(command, scheduledAt - now, delay, UNIT);
-	}
-
-	private static void tick() {
-		long now = System.currentTimeMillis();
-		for (HeartBeat task : tasks){
-			try{
-				task.tick(now);
-			}catch(Exception e){
-				e.printStackTrace();
-			}
-		}
-	}
 
 	/**
 	 * 注册心跳循环服务
@@ -89,7 +50,27 @@ public class HeartBeator {
 	 * @param task
 	 */
 	public static void add(HeartBeat task) {
-		tasks.add(task);
+		add(task, INTERVAL);
+	}
+
+	/**
+	 * 注册心跳循环服务, 每period毫秒tick一次
+	 *
+	 * @param task
+	 * @param period ms
+	 */
+	public static void add(final HeartBeat task, long period) {
+		if (tasks.containsKey(task))
+			return;
+		TimingWheel.Timeout timeout = TimingWheel.scheduleAtFixedRate(task.getClass().getName(), new Runnable() {
+			@Override
+			public void run() {
+				task.tick(System.currentTimeMillis());
+			}
+		}, 1000, Math.max(TimingWheel.TICK, period), TimeUnit.MILLISECONDS);
+		if (tasks.putIfAbsent(task, timeout) != null) {
+			timeout.cancel();
+		}
 	}
 
 	/**
@@ -98,6 +79,9 @@ public class HeartBeator {
 	 * @param task
 	 */
 	public static void remove(HeartBeat task) {
-		tasks.remove(task);
+		TimingWheel.Timeout timeout = tasks.remove(task);
+		if (timeout != null) {
+			timeout.cancel();
+		}
 	}
 }
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.core.async;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hashed timing wheel, TICK ms per bucket, WHEEL_SIZE buckets, rounds for the longer delay <br>
+ * one ticker thread only moves the timeouts, the tasks run on the pool of x7-timer <br>
+ * periodic task: fixed rate; if still running at the next deadline, the run skipped as overrun <br>
+ * TimingWheel.schedule(task, 100, TimeUnit.MILLISECONDS);<br>
+ * TimingWheel.scheduleAtFixedRate("name", task, 0, 5, TimeUnit.SECONDS);<br>
+ */
+public final class TimingWheel {
+
+    private static Logger logger = LoggerFactory.getLogger(TimingWheel.class);
+
+    public final static long TICK = 10;
+    private final static int WHEEL_SIZE = 512;
+    private final static long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK);
+
+    private final static List<Timeout>[] wheel = newWheel();
+    private final static Queue<Timeout> pending = new ConcurrentLinkedQueue<Timeout>();
+    private final static long startTime = System.nanoTime();
+    private final static ExecutorService executor = ExecutorFactory.newTaskExecutor("x7-timer", Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    private final static AtomicLong overruns = new AtomicLong();
+    private static long ticks = 0;
+
+    static {
+        Thread ticker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (; ; ) {
+                    try {
+                        waitForNextTick();
+                        transferPending();
+                        expire();
+                        ticks++;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        logger.error("Exception, while ticking", e);
+                    }
+                }
+            }
+        }, "x7-timing-wheel");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    private TimingWheel() {
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Timeout>[] newWheel() {
+        List<Timeout>[] arr = new List[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            arr[i] = new ArrayList<Timeout>();
+        }
+        return arr;
+    }
+
+    public static Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return add(new Timeout(null, task, System.nanoTime() - startTime + unit.toNanos(Math.max(0, delay)), 0));
+    }
+
+    /**
+     * @param name for the log of overrun
+     */
+    public static Timeout scheduleAtFixedRate(String name, Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0)
+            throw new IllegalArgumentException("period <= 0: " + name);
+        return add(new Timeout(name, task, System.nanoTime() - startTime + unit.toNanos(Math.max(0, initialDelay)), unit.toNanos(period)));
+    }
+
+    /**
+     * skipped runs of all tasks
+     */
+    public static long getOverruns() {
+        return overruns.get();
+    }
+
+    private static Timeout add(Timeout timeout) {
+        pending.add(timeout);
+        return timeout;
+    }
+
+    private static void waitForNextTick() throws InterruptedException {
+        long deadline = TICK_NANOS * (ticks + 1);
+        for (; ; ) {
+            long sleepNanos = deadline - (System.nanoTime() - startTime);
+            if (sleepNanos <= 0)
+                return;
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        }
+    }
+
+    private static void transferPending() {
+        for (Timeout timeout; (timeout = pending.poll()) != null; ) {
+            if (!timeout.cancelled) {
+                place(timeout, ticks);
+            }
+        }
+    }
+
+    /**
+     * by the ticker thread only <br>
+     * @param minTick the first tick the bucket visited again, ticks + 1 from expire
+     */
+    private static void place(Timeout timeout, long minTick) {
+        long due = Math.max(minTick, timeout.deadline / TICK_NANOS);
+        timeout.rounds = (due - minTick) / WHEEL_SIZE;
+        wheel[(int) (due % WHEEL_SIZE)].add(timeout);
+    }
+
+    private static void expire() {
+        List<Timeout> bucket = wheel[(int) (ticks % WHEEL_SIZE)];
+        if (bucket.isEmpty())
+            return;
+        List<Timeout> again = null;
+        for (Iterator<Timeout> ite = bucket.iterator(); ite.hasNext(); ) {
+            Timeout timeout = ite.next();
+            if (timeout.cancelled) {
+                ite.remove();
+                continue;
+            }
+            if (timeout.rounds > 0) {
+                timeout.rounds--;
+                continue;
+            }
+            ite.remove();
+            timeout.fire();
+            if (timeout.period > 0 && !timeout.cancelled) {
+                timeout.deadline += timeout.period;
+                long now = TICK_NANOS * ticks;
+                if (timeout.deadline <= now) {
+                    timeout.deadline = now + timeout.period;
+                }
+                if (again == null) {
+                    again = new ArrayList<Timeout>();
+                }
+                again.add(timeout);
+            }
+        }
+        if (again != null) {
+            for (Timeout timeout : again) {
+                place(timeout, ticks + 1);
+            }
+        }
+    }
+
+    public static class Timeout {
+
+        private final String name;
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private volatile long maxNanos;
+
+        private Timeout(String name, Runnable task, long deadline, long period) {
+            this.name = name;
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        private void fire() {
+            if (!running.compareAndSet(false, true)) {
+                long n = skipped.incrementAndGet();
+                overruns.incrementAndGet();
+                if (n == 1 || n % 100 == 0) {
+                    logger.warn("TimingWheel overrun: " + name + ", skipped: " + n + ", max(ms): " + TimeUnit.NANOSECONDS.toMillis(maxNanos));
+                }
+                return;
+            }
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        long start = System.nanoTime();
+                        try {
+                            task.run();
+                        } catch (Exception e) {
+                            logger.error("Exception, while running: " + name, e);
+                        } finally {
+                            long cost = System.nanoTime() - start;
+                            if (cost > maxNanos) {
+                                maxNanos = cost;
+                            }
+                            runs.incrementAndGet();
+                            running.set(false);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+                logger.error("Rejected, while running: " + name, e);
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getRuns() {
+            return runs.get();
+        }
+
+        /**
+         * the runs skipped while the last still running
+         */
+        public long getSkipped() {
+            return skipped.get();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+}
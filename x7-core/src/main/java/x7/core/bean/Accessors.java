@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.core.bean;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * accessors of getter and setter, created once by Parser <br>
+ * LambdaMetafactory if the class public and visible to the classloader of x7, <br>
+ * else MethodHandle, else Method.invoke <br>
+ */
+public final class Accessors {
+
+    private final static MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private Accessors() {
+    }
+
+    public static Getter getter(Method method) {
+        try {
+            if (isLambdaable(method)) {
+                Class returnType = method.getReturnType();
+                return (Getter) metafactory(Getter.class, "get",
+                        MethodType.methodType(Object.class, Object.class),
+                        MethodType.methodType(wrap(returnType), method.getDeclaringClass()),
+                        LOOKUP.unreflect(method));
+            }
+        } catch (Throwable e) {
+        }
+        try {
+            method.setAccessible(true);
+            final MethodHandle handle = LOOKUP.unreflect(method)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            return obj -> {
+                try {
+                    return handle.invokeExact(obj);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            };
+        } catch (Throwable e) {
+        }
+        return obj -> {
+            try {
+                return method.invoke(obj);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    public static Setter setter(Method method) {
+        try {
+            if (isLambdaable(method)) {
+                final Class paramType = method.getParameterTypes()[0];
+                final Class wrapper = wrap(paramType);
+                final Setter setter = (Setter) metafactory(Setter.class, "set",
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        MethodType.methodType(void.class, method.getDeclaringClass(), wrapper),
+                        LOOKUP.unreflect(method));
+                if (!paramType.isPrimitive())
+                    return setter;
+                /*
+                 * Integer of the column to long, as Method.invoke does
+                 */
+                return (obj, value) -> {
+                    if (value != null && value.getClass() != wrapper) {
+                        value = convert(value, paramType);
+                    }
+                    setter.set(obj, value);
+                };
+            }
+        } catch (Throwable e) {
+        }
+        try {
+            method.setAccessible(true);
+            final MethodHandle handle = LOOKUP.unreflect(method)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (obj, value) -> {
+                try {
+                    handle.invokeExact(obj, value);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            };
+        } catch (Throwable e) {
+        }
+        return (obj, value) -> {
+            try {
+                method.invoke(obj, value);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    /**
+     * @return null if the getter not of long, int, short, byte, char
+     */
+    public static Getter.OfLong longGetter(Method method) {
+        Class type = method.getReturnType();
+        if (type != long.class && type != int.class && type != short.class && type != byte.class && type != char.class)
+            return null;
+        try {
+            if (isLambdaable(method)) {
+                return (Getter.OfLong) metafactory(Getter.OfLong.class, "get",
+                        MethodType.methodType(long.class, Object.class),
+                        MethodType.methodType(long.class, method.getDeclaringClass()),
+                        LOOKUP.unreflect(method));
+            }
+        } catch (Throwable e) {
+        }
+        final Getter getter = getter(method);
+        if (type == char.class)
+            return obj -> (Character) getter.get(obj);
+        return obj -> ((Number) getter.get(obj)).longValue();
+    }
+
+    /**
+     * @return null if the getter not of double, float
+     */
+    public static Getter.OfDouble doubleGetter(Method method) {
+        Class type = method.getReturnType();
+        if (type != double.class && type != float.class)
+            return null;
+        try {
+            if (isLambdaable(method)) {
+                return (Getter.OfDouble) metafactory(Getter.OfDouble.class, "get",
+                        MethodType.methodType(double.class, Object.class),
+                        MethodType.methodType(double.class, method.getDeclaringClass()),
+                        LOOKUP.unreflect(method));
+            }
+        } catch (Throwable e) {
+        }
+        final Getter getter = getter(method);
+        return obj -> ((Number) getter.get(obj)).doubleValue();
+    }
+
+    /**
+     * @return null if the getter not of boolean
+     */
+    public static Getter.OfBoolean booleanGetter(Method method) {
+        if (method.getReturnType() != boolean.class)
+            return null;
+        try {
+            if (isLambdaable(method)) {
+                return (Getter.OfBoolean) metafactory(Getter.OfBoolean.class, "get",
+                        MethodType.methodType(boolean.class, Object.class),
+                        MethodType.methodType(boolean.class, method.getDeclaringClass()),
+                        LOOKUP.unreflect(method));
+            }
+        } catch (Throwable e) {
+        }
+        final Getter getter = getter(method);
+        return obj -> (Boolean) getter.get(obj);
+    }
+
+    /**
+     * for the key without getter
+     */
+    public static Getter getter(Field field) {
+        try {
+            field.setAccessible(true);
+            final MethodHandle handle = LOOKUP.unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            return obj -> {
+                try {
+                    return handle.invokeExact(obj);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            };
+        } catch (Throwable e) {
+        }
+        return obj -> {
+            try {
+                return field.get(obj);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    private static Object metafactory(Class functionalInterface, String name, MethodType samType,
+                                      MethodType instantiatedType, MethodHandle impl) throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, name,
+                MethodType.methodType(functionalInterface), samType, impl, instantiatedType);
+        return site.getTarget().invoke();
+    }
+
+    /**
+     * the generated class hosted by Accessors, linked by the classloader of x7, <br>
+     * so the bean and the types of the method must be public and visible to it <br>
+     */
+    private static boolean isLambdaable(Method method) {
+        Class clz = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers()) || !isPublic(clz))
+            return false;
+        if (!isVisible(clz) || !isVisible(method.getReturnType()))
+            return false;
+        for (Class type : method.getParameterTypes()) {
+            if (!isVisible(type))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isPublic(Class clz) {
+        for (Class c = clz; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers()))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isVisible(Class clz) {
+        while (clz.isArray()) {
+            clz = clz.getComponentType();
+        }
+        if (clz.isPrimitive())
+            return true;
+        ClassLoader loader = clz.getClassLoader();
+        ClassLoader x7Loader = Accessors.class.getClassLoader();
+        if (loader == null || loader == x7Loader)
+            return true;
+        try {
+            return Class.forName(clz.getName(), false, x7Loader) == clz;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static Object convert(Object value, Class type) {
+        if (!(value instanceof Number))
+            return value;
+        Number number = (Number) value;
+        if (type == long.class)
+            return number.longValue();
+        if (type == int.class)
+            return number.intValue();
+        if (type == double.class)
+            return number.doubleValue();
+        if (type == float.class)
+            return number.floatValue();
+        if (type == short.class)
+            return number.shortValue();
+        if (type == byte.class)
+            return number.byteValue();
+        return value;
+    }
+
+    private static Class wrap(Class type) {
+        if (!type.isPrimitive())
+            return type;
+        if (type == int.class)
+            return Integer.class;
+        if (type == long.class)
+            return Long.class;
+        if (type == double.class)
+            return Double.class;
+        if (type == float.class)
+            return Float.class;
+        if (type == boolean.class)
+            return Boolean.class;
+        if (type == short.class)
+            return Short.class;
+        if (type == byte.class)
+            return Byte.class;
+        if (type == char.class)
+            return Character.class;
+        return Void.class;
+    }
+}
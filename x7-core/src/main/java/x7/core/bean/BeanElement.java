@@ -37,6 +37,18 @@ public class BeanElement {
 	public Method getMethod;
 	public Method setMethod;
 
+	/*
+	 * created by Parser, instead of getMethod.invoke, setMethod.invoke
+	 */
+	public Getter getAccessor;
+	public Setter setAccessor;
+	/*
+	 * null if not of primitive type
+	 */
+	public Getter.OfLong longAccessor;
+	public Getter.OfDouble doubleAccessor;
+	public Getter.OfBoolean booleanAccessor;
+
 	public boolean isJson;
 	public Class geneType;
 
@@ -65,6 +77,18 @@ public class BeanElement {
 		mapper = BeanUtilX.filterSQLKeyword(mapper);
 	}
 
+	public void initAccessor(){
+		if (getMethod != null) {
+			getAccessor = Accessors.getter(getMethod);
+			longAccessor = Accessors.longGetter(getMethod);
+			doubleAccessor = Accessors.doubleGetter(getMethod);
+			booleanAccessor = Accessors.booleanGetter(getMethod);
+		}
+		if (setMethod != null) {
+			setAccessor = Accessors.setter(setMethod);
+		}
+	}
+
 	public String getMapper() {
 		return mapper;
 	}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.core.bean;
+
+/**
+ * generated by Accessors, instead of Method.invoke <br>
+ * the primitive variants without boxing <br>
+ */
+@FunctionalInterface
+public interface Getter {
+
+    Object get(Object obj);
+
+    /**
+     * getter of long, int, short, byte, char
+     */
+    @FunctionalInterface
+    interface OfLong {
+        long get(Object obj);
+    }
+
+    /**
+     * getter of double, float
+     */
+    @FunctionalInterface
+    interface OfDouble {
+        double get(Object obj);
+    }
+
+    @FunctionalInterface
+    interface OfBoolean {
+        boolean get(Object obj);
+    }
+}
@@ -51,6 +51,12 @@ public class Parsed {
 	private boolean isSearchable;
 	
 	private Map<String, TagParsed> tagMap = new HashMap();
+
+	private ValueExtractor refreshExtractor;
+	private ValueExtractor queryExtractor;
+
+	private Getter keyOneAccessor;
+	private Getter.OfLong keyOneLongAccessor;
 	
 	
 	public Class getClz() {
@@ -201,6 +207,50 @@ public class Parsed {
 		
 	}
 
+	public ValueExtractor getRefreshExtractor() {
+		return refreshExtractor;
+	}
+
+	public void setRefreshExtractor(ValueExtractor refreshExtractor) {
+		this.refreshExtractor = refreshExtractor;
+	}
+
+	public ValueExtractor getQueryExtractor() {
+		return queryExtractor;
+	}
+
+	public void setQueryExtractor(ValueExtractor queryExtractor) {
+		this.queryExtractor = queryExtractor;
+	}
+
+	public void setKeyOneAccessor(Getter keyOneAccessor) {
+		this.keyOneAccessor = keyOneAccessor;
+	}
+
+	public void setKeyOneLongAccessor(Getter.OfLong keyOneLongAccessor) {
+		this.keyOneLongAccessor = keyOneLongAccessor;
+	}
+
+	/**
+	 * instead of getKeyField(X.KEY_ONE).get(obj)
+	 */
+	public Object getKeyOneValue(Object obj) {
+		if (keyOneAccessor == null)
+			return null;
+		return keyOneAccessor.get(obj);
+	}
+
+	/**
+	 * the key of long, int, without boxing <br>
+	 * 0 if null
+	 */
+	public long getKeyOneLong(Object obj) {
+		if (keyOneLongAccessor != null)
+			return keyOneLongAccessor.get(obj);
+		Object value = getKeyOneValue(obj);
+		return value == null ? 0 : ((Number) value).longValue();
+	}
+
 	@Override
 	public String toString() {
 		return "Parsed [clz=" + clz + ", tableName=" + tableName + ", keyMap=" + keyMap + ", keyFieldMap=" + keyFieldMap
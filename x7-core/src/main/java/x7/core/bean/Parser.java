@@ -161,6 +161,29 @@ public class Parser {
 		 */
 		BeanUtilX.parseCacheableAnno(clz, parsed);
 
+		/*
+		 * accessors, instead of reflection
+		 */
+		for (BeanElement element : parsed.getBeanElementList()) {
+			element.initAccessor();
+		}
+		BeanElement keyOne = parsed.getElement(parsed.getKey(X.KEY_ONE));
+		if (keyOne != null && keyOne.getAccessor != null) {
+			parsed.setKeyOneAccessor(keyOne.getAccessor);
+			parsed.setKeyOneLongAccessor(keyOne.longAccessor);
+		} else {
+			Field keyOneField = parsed.getKeyField(X.KEY_ONE);
+			if (keyOneField != null) {
+				parsed.setKeyOneAccessor(Accessors.getter(keyOneField));
+			}
+		}
+
+		/*
+		 * getRefreshMap, getQueryMap
+		 */
+		parsed.setRefreshExtractor(ValueExtractor.ofRefresh(parsed.getBeanElementList()));
+		parsed.setQueryExtractor(ValueExtractor.ofQuery(parsed.getBeanElementList()));
+
 		put(clz, parsed);
 
 		/*
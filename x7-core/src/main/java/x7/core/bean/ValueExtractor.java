@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.core.bean;
+
+import x7.core.util.JsonX;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * non-default values of an object, compiled once per Parsed by Parser <br>
+ * the test of every property resolved by type when compiled, not per call, <br>
+ * primitive read by the accessors of BeanElement without boxing <br>
+ * properties in the order of the bean element list, the key first, <br>
+ * so the sql and the order of the parameters are deterministic <br>
+ */
+public final class ValueExtractor {
+
+    private enum Kind {
+        INT,
+        LONG,
+        DOUBLE,
+        FLOAT,
+        BOOLEAN,
+        NON_NULL,
+        /**
+         * not null, not ""
+         */
+        NON_EMPTY,
+        /**
+         * not null, by toString()
+         */
+        ENUM,
+        /**
+         * not null, by JsonX.toJson()
+         */
+        JSON
+    }
+
+    private final String[] properties;
+    private final BeanElement[] elements;
+    private final Kind[] kinds;
+
+    private ValueExtractor(List<BeanElement> elementList, List<Kind> kindList) {
+        int size = elementList.size();
+        this.properties = new String[size];
+        this.elements = elementList.toArray(new BeanElement[size]);
+        this.kinds = kindList.toArray(new Kind[size]);
+        for (int i = 0; i < size; i++) {
+            this.properties[i] = elementList.get(i).getProperty();
+        }
+    }
+
+    /**
+     * 0 and false of primitive type, null skipped, enum by toString(), json by JsonX <br>
+     * the other types not refreshed <br>
+     */
+    public static ValueExtractor ofRefresh(List<BeanElement> beanElementList) {
+        List<BeanElement> elementList = new ArrayList<>();
+        List<Kind> kindList = new ArrayList<>();
+        for (BeanElement element : beanElementList) {
+            if (element.getAccessor == null)
+                continue;
+            Class type = element.getMethod.getReturnType();
+            Kind kind = primitive(type);
+            if (kind == null) {
+                if (type == Integer.class || type == Long.class || type == Double.class || type == Float.class
+                        || type == Boolean.class || type == String.class || type == BigDecimal.class
+                        || type == Date.class || type == java.sql.Date.class || type == Timestamp.class) {
+                    kind = Kind.NON_NULL;
+                } else if (type.isEnum()) {
+                    kind = Kind.ENUM;
+                } else if (element.isJson) {
+                    kind = Kind.JSON;
+                } else {
+                    continue;
+                }
+            }
+            elementList.add(element);
+            kindList.add(kind);
+        }
+        return new ValueExtractor(elementList, kindList);
+    }
+
+    /**
+     * 默认值为0, false, "" 的不做查询条件 <br>
+     * enum by toString(), the other types as is <br>
+     */
+    public static ValueExtractor ofQuery(List<BeanElement> beanElementList) {
+        List<BeanElement> elementList = new ArrayList<>();
+        List<Kind> kindList = new ArrayList<>();
+        for (BeanElement element : beanElementList) {
+            if (element.getAccessor == null)
+                continue;
+            Class type = element.getMethod.getReturnType();
+            Kind kind = primitive(type);
+            if (kind == null) {
+                if (type == String.class) {
+                    kind = Kind.NON_EMPTY;
+                } else if (type.isEnum()) {
+                    kind = Kind.ENUM;
+                } else {
+                    kind = Kind.NON_NULL;
+                }
+            }
+            elementList.add(element);
+            kindList.add(kind);
+        }
+        return new ValueExtractor(elementList, kindList);
+    }
+
+    private static Kind primitive(Class type) {
+        if (type == int.class)
+            return Kind.INT;
+        if (type == long.class)
+            return Kind.LONG;
+        if (type == double.class)
+            return Kind.DOUBLE;
+        if (type == float.class)
+            return Kind.FLOAT;
+        if (type == boolean.class)
+            return Kind.BOOLEAN;
+        return null;
+    }
+
+    public int size() {
+        return this.properties.length;
+    }
+
+    /**
+     * @param target ordered map, LinkedHashMap, or cleared and reused by the caller
+     */
+    public void extractTo(Object obj, Map<String, Object> target) {
+        final String[] properties = this.properties;
+        final BeanElement[] elements = this.elements;
+        final Kind[] kinds = this.kinds;
+        for (int i = 0, length = properties.length; i < length; i++) {
+            BeanElement element = elements[i];
+            Object value;
+            switch (kinds[i]) {
+                case INT: {
+                    long v = element.longAccessor.get(obj);
+                    if (v == 0)
+                        continue;
+                    value = (int) v;
+                    break;
+                }
+                case LONG: {
+                    long v = element.longAccessor.get(obj);
+                    if (v == 0)
+                        continue;
+                    value = v;
+                    break;
+                }
+                case DOUBLE: {
+                    double v = element.doubleAccessor.get(obj);
+                    if (v == 0)
+                        continue;
+                    value = v;
+                    break;
+                }
+                case FLOAT: {
+                    double v = element.doubleAccessor.get(obj);
+                    if (v == 0)
+                        continue;
+                    value = (float) v;
+                    break;
+                }
+                case BOOLEAN:
+                    if (!element.booleanAccessor.get(obj))
+                        continue;
+                    value = Boolean.TRUE;
+                    break;
+                default:
+                    value = element.getAccessor.get(obj);
+                    if (value == null)
+                        continue;
+                    if (kinds[i] == Kind.NON_EMPTY) {
+                        if (((String) value).isEmpty())
+                            continue;
+                    } else if (kinds[i] == Kind.ENUM) {
+                        value = value.toString();
+                    } else if (kinds[i] == Kind.JSON) {
+                        value = JsonX.toJson(value);
+                    }
+            }
+            target.put(properties[i], value);
+        }
+    }
+}
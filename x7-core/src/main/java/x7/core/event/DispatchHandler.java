@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.core.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import x7.core.async.ExecutorFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * listener with the dispatch mode of EventListener <br>
+ * SYNC: on the thread of dispatch <br>
+ * ASYNC: on the shared pool <br>
+ * ORDERED: striped single thread by event.getKey(), the events of same key handled in order <br>
+ * queueSize: the events waiting of this listener, the rejection applied if full <br>
+ * ORDERED with CALLER_RUNS: waits ORDERED_WAIT_MILLIS at most, then rejected, <br>
+ * never blocks a stripe dispatching to its own listener forever <br>
+ */
+public class DispatchHandler implements EventListener.Handler {
+
+    private static Logger logger = LoggerFactory.getLogger(DispatchHandler.class);
+
+    public final static long ORDERED_WAIT_MILLIS = 1000;
+
+    private final String name;
+    private final EventListener.Handler handler;
+    private final EventListener.Mode mode;
+    private final EventListener.Rejection rejection;
+    private final int queueSize;
+    private final Semaphore semaphore;
+
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong handleNanos = new AtomicLong();
+
+    /**
+     * @param name unique of the listener, like class name + method name
+     */
+    public DispatchHandler(String name, EventListener.Handler handler, EventListener.Mode mode, int queueSize, EventListener.Rejection rejection) {
+        this.name = name;
+        this.handler = handler;
+        this.mode = mode == null ? EventListener.Mode.SYNC : mode;
+        this.rejection = rejection == null ? EventListener.Rejection.CALLER_RUNS : rejection;
+        this.queueSize = Math.max(1, queueSize);
+        this.semaphore = new Semaphore(this.queueSize);
+    }
+
+    static class Holder {
+        final static ExecutorService ASYNC = ExecutorFactory.newTaskExecutor("x7-event", Runtime.getRuntime().availableProcessors());
+        final static ExecutorService[] STRIPES = new ExecutorService[Runtime.getRuntime().availableProcessors()];
+
+        static {
+            for (int i = 0; i < STRIPES.length; i++) {
+                STRIPES[i] = ExecutorFactory.newSingleThreadExecutor("x7-event-ordered-" + i);
+            }
+        }
+
+        static ExecutorService stripe(Object key) {
+            if (key == null)
+                return STRIPES[0];
+            int h = key.hashCode();
+            h ^= (h >>> 16);
+            return STRIPES[(h & 0x7fffffff) % STRIPES.length];
+        }
+    }
+
+    @Override
+    public void handle(Event event) {
+
+        dispatched.incrementAndGet();
+
+        if (mode == EventListener.Mode.SYNC) {
+            invoke(event);
+            return;
+        }
+
+        if (!semaphore.tryAcquire()) {
+            switch (rejection) {
+                case DISCARD:
+                    rejected.incrementAndGet();
+                    return;
+                case CALLER_RUNS:
+                    if (mode == EventListener.Mode.ASYNC) {
+                        callerRuns.incrementAndGet();
+                        invoke(event);
+                        return;
+                    }
+                    // ORDERED: running on the caller breaks the order, wait bounded
+                    try {
+                        if (semaphore.tryAcquire(ORDERED_WAIT_MILLIS, TimeUnit.MILLISECONDS))
+                            break;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    rejected.incrementAndGet();
+                    logger.warn("Rejected, queue of ORDERED listener full: " + name + ", event: " + event);
+                    return;
+                default:
+                    try {
+                        semaphore.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        rejected.incrementAndGet();
+                        return;
+                    }
+            }
+        }
+
+        ExecutorService executor = mode == EventListener.Mode.ORDERED ? Holder.stripe(event.getKey()) : Holder.ASYNC;
+        try {
+            executor.execute(() -> {
+                try {
+                    invoke(event);
+                } catch (Exception e) {
+                    logger.error("Exception, while handling event: " + event + ", listener: " + name, e);
+                } finally {
+                    semaphore.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            semaphore.release();
+            rejected.incrementAndGet();
+        }
+    }
+
+    private void invoke(Event event) {
+        long startTime = System.nanoTime();
+        try {
+            handler.handle(event);
+            handled.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            throw e;
+        } finally {
+            handleNanos.addAndGet(System.nanoTime() - startTime);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public EventListener.Handler getHandler() {
+        return handler;
+    }
+
+    public EventListener.Mode getMode() {
+        return mode;
+    }
+
+    public long getDispatched() {
+        return dispatched.get();
+    }
+
+    public long getHandled() {
+        return handled.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getCallerRuns() {
+        return callerRuns.get();
+    }
+
+    /**
+     * the events waiting or handling
+     */
+    public int getQueued() {
+        return mode == EventListener.Mode.SYNC ? 0 : queueSize - semaphore.availablePermits();
+    }
+
+    public long getHandleNanos() {
+        return handleNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DispatchHandler{" +
+                "name='" + name + '\'' +
+                ", mode=" + mode +
+                ", dispatched=" + dispatched +
+                ", handled=" + handled +
+                ", failed=" + failed +
+                ", rejected=" + rejected +
+                ", callerRuns=" + callerRuns +
+                '}';
+    }
+}
@@ -32,6 +32,13 @@ public interface Event {
 
 	long getReTimes();
 
+	/**
+	 * the events of same key handled in order by the ORDERED listener
+	 */
+	default Object getKey() {
+		return getOwner();
+	}
+
 }
 
 
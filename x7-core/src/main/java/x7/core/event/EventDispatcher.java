@@ -16,9 +16,16 @@
  */
 package x7.core.event;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 
@@ -27,7 +34,31 @@ import java.util.TreeMap;
  */
 public class EventDispatcher implements EventReceiver {
 
-	private static List<Event> eventList = new ArrayList<Event>();
+	private static Logger logger = LoggerFactory.getLogger(EventDispatcher.class);
+
+	/**
+	 * exceptions of listeners on the thread of dispatch
+	 */
+	private final static AtomicLong failed = new AtomicLong();
+
+	private final static EventListener.Handler[] EMPTY = new EventListener.Handler[0];
+
+	/**
+	 * type -> tag -> listeners, sorted by key of listener, copy on write
+	 */
+	private final static ConcurrentHashMap<String, ConcurrentHashMap<String, EventListener.Handler[]>> handlersMap = new ConcurrentHashMap<String, ConcurrentHashMap<String, EventListener.Handler[]>>();
+
+	/**
+	 * written under the lock of EventDispatcher.class only
+	 */
+	private final static Map<String, Map<String, TreeMap<String, EventListener.Handler>>> registry = new TreeMap<String, Map<String, TreeMap<String, EventListener.Handler>>>();
+
+	/**
+	 * listeners added by eventType = type + tag, dispatched after the listeners of (type, tag)
+	 */
+	private static volatile boolean combinedKeyAdded = false;
+
+	private static List<Event> eventList = new CopyOnWriteArrayList<Event>();
 
 	public static  List<Event> getEventTemplateList(){
 		return  eventList;
@@ -47,59 +78,171 @@ public class EventDispatcher implements EventReceiver {
 		eventList.add(event);
 	}
 
+	/**
+	 * @param eventType type + tag of event
+	 */
 	public static void addEventListener(String eventType, EventListener.Handler listener) {
+		combinedKeyAdded = true;
+		addEventListener(eventType, "", listener);
+	}
 
-		TreeMap<String, EventListener.Handler> listenerMap = listenersMap
-				.get(eventType);
+	public static synchronized void addEventListener(String type, String tag, EventListener.Handler listener) {
 
+		if (tag == null)
+			tag = "";
+
+		Map<String, TreeMap<String, EventListener.Handler>> tagMap = registry.get(type);
+		if (tagMap == null) {
+			tagMap = new TreeMap<String, TreeMap<String, EventListener.Handler>>();
+			registry.put(type, tagMap);
+		}
+		TreeMap<String, EventListener.Handler> listenerMap = tagMap.get(tag);
 		if (listenerMap == null) {
 			listenerMap = new TreeMap<String, EventListener.Handler>();
-			listenersMap.put(eventType, listenerMap);
-		} 
+			tagMap.put(tag, listenerMap);
+		}
 		String key = createKey(listener);
 		if (! (listenerMap.containsKey(key))){
 			listenerMap.put(key, listener);
+			publish(type, tag, listenerMap);
 		}
 
 	}
 
+	/**
+	 * @param name unique of the listener
+	 */
+	public static void addEventListener(String eventType, String name, EventListener.Handler listener,
+										EventListener.Mode mode, int queueSize, EventListener.Rejection rejection) {
+		addEventListener(eventType, new DispatchHandler(name, listener, mode, queueSize, rejection));
+	}
 
-	public static void removeEventListener(String eventType,
-										   EventListener.Handler listener) {
-		TreeMap<String, EventListener.Handler> listenerMap = listenersMap
-				.get(eventType);
+	/**
+	 * @param name unique of the listener
+	 */
+	public static void addEventListener(String type, String tag, String name, EventListener.Handler listener,
+										EventListener.Mode mode, int queueSize, EventListener.Rejection rejection) {
+		addEventListener(type, tag, new DispatchHandler(name, listener, mode, queueSize, rejection));
+	}
 
-		if (listenerMap != null) {
-			listenerMap.remove(createKey(listener));
-			if (listenerMap.size() == 0) {
-				listenersMap.remove(eventType);
+	/**
+	 * for metrics
+	 */
+	public static List<DispatchHandler> getDispatchHandlers() {
+		List<DispatchHandler> list = new ArrayList<DispatchHandler>();
+		for (ConcurrentHashMap<String, EventListener.Handler[]> tagMap : handlersMap.values()) {
+			for (EventListener.Handler[] handlers : tagMap.values()) {
+				for (EventListener.Handler listener : handlers) {
+					if (listener instanceof DispatchHandler) {
+						list.add((DispatchHandler) listener);
+					}
+				}
 			}
 		}
+		return list;
+	}
 
+	/**
+	 * for metrics, exceptions of listeners on the thread of dispatch
+	 */
+	public static long getFailed() {
+		return failed.get();
 	}
 
-	public static void dispatch(Event event) {
-		String key = event.getType() + event.getTag();
-		TreeMap<String, EventListener.Handler> listenerMap = listenersMap
-				.get(key);
+	/**
+	 * @param eventType type + tag of event
+	 */
+	public static void removeEventListener(String eventType,
+										   EventListener.Handler listener) {
+		removeEventListener(eventType, "", listener);
+	}
+
+	public static synchronized void removeEventListener(String type, String tag, EventListener.Handler listener) {
+
+		if (tag == null)
+			tag = "";
+
+		Map<String, TreeMap<String, EventListener.Handler>> tagMap = registry.get(type);
+		if (tagMap == null)
+			return;
+		TreeMap<String, EventListener.Handler> listenerMap = tagMap.get(tag);
 		if (listenerMap == null)
 			return;
-		for (EventListener.Handler listener : listenerMap.values()) {
-			if (listener != null) {
-				try{
-					listener.handle(event);
-				} catch(Exception e) {
-					System.out.println("\nException, while handling event: " + event + "\n");
-					e.printStackTrace();
+
+		listenerMap.remove(createKey(listener));
+		if (listenerMap.size() == 0) {
+			tagMap.remove(tag);
+			if (tagMap.size() == 0) {
+				registry.remove(type);
+			}
+		}
+		publish(type, tag, listenerMap);
+
+	}
+
+	private static void publish(String type, String tag, TreeMap<String, EventListener.Handler> listenerMap) {
+		if (listenerMap.isEmpty()) {
+			ConcurrentHashMap<String, EventListener.Handler[]> tagMap = handlersMap.get(type);
+			if (tagMap != null) {
+				tagMap.remove(tag);
+				if (tagMap.isEmpty()) {
+					handlersMap.remove(type);
 				}
 			}
+			return;
 		}
+		ConcurrentHashMap<String, EventListener.Handler[]> tagMap = handlersMap.get(type);
+		if (tagMap == null) {
+			tagMap = new ConcurrentHashMap<String, EventListener.Handler[]>();
+			handlersMap.put(type, tagMap);
+		}
+		tagMap.put(tag, listenerMap.values().toArray(EMPTY));
+	}
 
+	/**
+	 * no lock, no allocation
+	 */
+	private static EventListener.Handler[] getHandlers(String type, String tag) {
+		if (type == null)
+			return null;
+		ConcurrentHashMap<String, EventListener.Handler[]> tagMap = handlersMap.get(type);
+		if (tagMap == null)
+			return null;
+		return tagMap.get(tag == null ? "" : tag);
 	}
+
+	/**
+	 * the listeners of (type, tag), then the listeners added by type + tag
+	 */
+	public static void dispatch(Event event) {
+		String type = event.getType();
+		String tag = event.getTag();
+		handle(getHandlers(type, tag), event);
+		if (combinedKeyAdded && tag != null && ! tag.isEmpty()) {
+			handle(getHandlers(type + tag, ""), event);
+		}
+	}
+
+	private static void handle(EventListener.Handler[] handlers, Event event) {
+		if (handlers == null)
+			return;
+		for (EventListener.Handler listener : handlers) {
+			try{
+				listener.handle(event);
+			} catch(Exception e) {
+				failed.incrementAndGet();
+				logger.error("Exception, while handling event: " + event, e);
+			}
+		}
+	}
+
 	/**
 	 * CREATE KEY
 	 */
 	private static String createKey(EventListener.Handler listener){
+		if (listener instanceof DispatchHandler){
+			return ((DispatchHandler) listener).getName();
+		}
 		if (listener.getClass().getName().contains("EventListener.Handler")){
 			return listener.getClass().getName()+listener.hashCode();
 		}
@@ -40,6 +40,36 @@ public @interface EventListener {
 	 */
 	String tag() default "";
 
+	/**
+	 * SYNC, ASYNC, ORDERED by event.getKey()
+	 */
+	Mode mode() default Mode.SYNC;
+
+	/**
+	 * the events waiting, ASYNC and ORDERED
+	 */
+	int queueSize() default 1024;
+
+	/**
+	 * if the queue full
+	 */
+	Rejection rejection() default Rejection.CALLER_RUNS;
+
+	enum Mode {
+		SYNC,
+		ASYNC,
+		ORDERED
+	}
+
+	/**
+	 * CALLER_RUNS of ORDERED waits a while then discards, or the order broken
+	 */
+	enum Rejection {
+		CALLER_RUNS,
+		DISCARD,
+		BLOCK
+	}
+
 	interface Handler {
 		void handle(Event event);
 	}
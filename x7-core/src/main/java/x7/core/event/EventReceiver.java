@@ -26,6 +26,10 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public interface EventReceiver {
 
+	/**
+	 * not used, the listeners kept by EventDispatcher
+	 */
+	@Deprecated
 	ConcurrentHashMap<String,TreeMap<String,EventListener.Handler>> listenersMap = new ConcurrentHashMap<String,TreeMap<String,EventListener.Handler>>();
 	
 }
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.core.metrics;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * holder of MetricsRecorder, the first of ServiceLoader if not set <br>
+ * Metrics.get().recordQuery(clz, "get", nanos, rows, false);<br>
+ */
+public final class Metrics {
+
+    private final static MetricsRecorder NOOP = new MetricsRecorder() {
+    };
+
+    private static volatile MetricsRecorder recorder = load();
+
+    private Metrics() {
+    }
+
+    private static MetricsRecorder load() {
+        try {
+            Iterator<MetricsRecorder> ite = ServiceLoader.load(MetricsRecorder.class).iterator();
+            if (ite.hasNext())
+                return ite.next();
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
+        return NOOP;
+    }
+
+    public static MetricsRecorder get() {
+        return recorder;
+    }
+
+    public static void setRecorder(MetricsRecorder recorder) {
+        Metrics.recorder = recorder == null ? NOOP : recorder;
+    }
+
+    public static boolean isEnabled() {
+        return recorder != NOOP;
+    }
+
+    /**
+     * @param startTime System.nanoTime() before the round trip
+     */
+    public static void redis(String op, long startTime) {
+        MetricsRecorder r = recorder;
+        if (r != NOOP) {
+            r.recordRedis(op, System.nanoTime() - startTime);
+        }
+    }
+
+    public static void cache(Class<?> clz, MetricsRecorder.Cache result) {
+        MetricsRecorder r = recorder;
+        if (r != NOOP) {
+            r.recordCache(clz, result, 1);
+        }
+    }
+}
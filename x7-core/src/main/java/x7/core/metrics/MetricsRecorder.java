@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.core.metrics;
+
+/**
+ * SPI of metrics, all methods no-op by default <br>
+ * Metrics.setRecorder(recorder), or META-INF/services/x7.core.metrics.MetricsRecorder <br>
+ * called on the hot path, no blocking <br>
+ */
+public interface MetricsRecorder {
+
+    enum Cache {
+        HIT,
+        MISS,
+        /**
+         * some objects of the result key list not cached, loaded by dao
+         */
+        REPAIR
+    }
+
+    /**
+     * @param clz   entity class, or null if unknown
+     * @param op    create, refresh, remove, get, list, find, in, reduce ...
+     * @param nanos latency
+     * @param rows  mapped or affected, -1 if unknown
+     * @param error true if failed
+     */
+    default void recordQuery(Class<?> clz, String op, long nanos, int rows, boolean error) {
+    }
+
+    default void recordCache(Class<?> clz, Cache result, int count) {
+    }
+
+    /**
+     * one round trip of redis
+     */
+    default void recordRedis(String op, long nanos) {
+    }
+
+    /**
+     * @param pool write, read
+     */
+    default void recordConnectionWait(String pool, long nanos) {
+    }
+
+    default void recordBatch(Class<?> clz, String op, int size) {
+    }
+}
@@ -19,6 +19,7 @@ package x7.core.util;
 import x7.core.bean.BeanElement;
 import x7.core.bean.DataPermission;
 import x7.core.bean.Parsed;
+import x7.core.bean.ValueExtractor;
 import x7.core.config.ConfigAdapter;
 import x7.core.repository.SqlFieldType;
 import x7.core.repository.X;
@@ -302,89 +303,18 @@ public class BeanUtilX extends BeanUtil {
 	 */
 	public static Map<String, Object> getRefreshMap(Parsed parsed, Object obj) {
 
-		Map<String, Object> map = new HashMap<String, Object>();
-
 		if (Objects.isNull(obj))
-			return map;
+			return new LinkedHashMap<String, Object>();
 
-		Class clz = obj.getClass();
-		
 		if (obj instanceof DataPermission){
 			DataPermission dp = (DataPermission)obj;
 			dp.setDataPermissionValue(null);
 		}
-		
+
+		ValueExtractor extractor = parsed.getRefreshExtractor();
+		Map<String, Object> map = new LinkedHashMap<String, Object>(extractor.size() * 2);
 		try {
-			for (BeanElement element : parsed.getBeanElementList()) {
-
-				Method method = element.getMethod;
-				Object value = method.invoke(obj);
-				Class type = method.getReturnType();
-				String property = element.getProperty();
-				if (type == int.class) {
-					if ((int) value != 0) {
-						map.put(property, value);
-					}
-				} else if (type == Integer.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type == long.class) {
-					if ((long) value != 0) {
-						map.put(property, value);
-					}
-				} else if (type == Long.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type == double.class) {
-					if ((double) value != 0) {
-						map.put(property, value);
-					}
-				} else if (type == Double.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type == float.class) {
-					if ((float) value != 0) {
-						map.put(property, value);
-					}
-				} else if (type == Float.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type == boolean.class) {
-					if ((boolean) value != false) {
-						map.put(property, value);
-					}
-				} else if (type == Boolean.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type == String.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type.isEnum()){
-					if (value != null) {
-						map.put(property, value.toString());
-					}
-				}else if (type == Date.class || clz == java.sql.Date.class || type == Timestamp.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type == BigDecimal.class){
-					if (value != null) {
-						map.put(property, value);
-					}
-				}else if (element.isJson) {
-				
-					if (value != null) {
-						String str = JsonX.toJson(value);
-						map.put(property, str);
-					}
-				}
-			}
+			extractor.extractTo(obj, map);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -398,83 +328,12 @@ public class BeanUtilX extends BeanUtil {
 	 * 额外条件从另外一个map参数获得<br>
 	 * boolean必须从另外一个map参数获得
 	 */
-	@SuppressWarnings({ "rawtypes", "unused" })
 	public static Map<String, Object> getQueryMap(Parsed parsed, Object obj) {
 
-		Map<String, Object> map = new HashMap<String, Object>();
-
-		Class clz = obj.getClass();
+		ValueExtractor extractor = parsed.getQueryExtractor();
+		Map<String, Object> map = new LinkedHashMap<String, Object>(extractor.size() * 2);
 		try {
-			for (BeanElement element : parsed.getBeanElementList()) {
-
-				Method method = element.getMethod;
-				Object value = method.invoke(obj);
-				Class type = method.getReturnType();
-
-				String property = element.getProperty();
-				
-				if (type == long.class) {
-					if ((long) value != 0) {
-						map.put(property, value);
-					}
-				} else if (type == Long.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type == String.class) {
-					if (value != null && !value.equals("")) {
-						map.put(property, value);
-					}
-				}else if (type.isEnum()){
-					if (value != null) {
-						map.put(property, value.toString());
-					}
-				} else if (type == int.class) {
-					if ((int) value != 0) {
-						map.put(property, value);
-					}
-				} else if (type == Integer.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type == double.class) {
-					if ((double) value != 0) {
-						map.put(property, value);
-					}
-				} else if (type == Double.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type == float.class) {
-					if ((float) value != 0) {
-						map.put(property, value);
-					}
-				} else if (type == Float.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type == boolean.class) {
-					if ((boolean) value != false) {
-						map.put(property, value);
-					}
-				} else if (type == BigDecimal.class){
-					if (value != null) {
-						map.put(property, value);
-					}
-				}else if (type == Boolean.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else if (type == Date.class || clz == java.sql.Date.class || type == Timestamp.class) {
-					if (value != null) {
-						map.put(property, value);
-					}
-				} else {
-					if (value != null) {
-						map.put(property, value);
-					}
-				}
-			}
+			extractor.extractTo(obj, map);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
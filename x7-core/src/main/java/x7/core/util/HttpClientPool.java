@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.core.util;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled, keep-alive http client, one per backend <br>
+ * idle and expired connections evicted in the background <br>
+ */
+public class HttpClientPool {
+
+    private final static HttpClientPool DEFAULT = new HttpClientPool(new Config());
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private final Config config;
+
+    public HttpClientPool(final Config config) {
+
+        this.config = config;
+
+        this.connectionManager = new PoolingHttpClientConnectionManager(config.getTimeToLive(), TimeUnit.MILLISECONDS);
+        this.connectionManager.setMaxTotal(config.getMaxTotal());
+        this.connectionManager.setDefaultMaxPerRoute(config.getMaxPerRoute());
+        this.connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivity());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(config.getConnectTimeout())
+                .setSocketTimeout(config.getSocketTimeout())
+                .setConnectionRequestTimeout(config.getConnectionRequestTimeout())
+                .build();
+
+        this.client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(config.getKeepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(config.getIdleTimeout(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Keep-Alive: timeout=n of the server, not longer than keepAlive
+     */
+    public static ConnectionKeepAliveStrategy keepAliveStrategy(final long keepAlive) {
+        return new ConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+                while (it.hasNext()) {
+                    HeaderElement he = it.nextElement();
+                    String value = he.getValue();
+                    if (value != null && "timeout".equalsIgnoreCase(he.getName())) {
+                        try {
+                            return Math.min(Long.parseLong(value) * 1000, keepAlive);
+                        } catch (NumberFormatException nfe) {
+                        }
+                    }
+                }
+                return keepAlive;
+            }
+        };
+    }
+
+    /**
+     * shared by the calls without backend
+     */
+    public static HttpClientPool getDefault() {
+        return DEFAULT;
+    }
+
+    public CloseableHttpClient getClient() {
+        return client;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    public int getLeased() {
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    public int getPending() {
+        return connectionManager.getTotalStats().getPending();
+    }
+
+    public int getAvailable() {
+        return connectionManager.getTotalStats().getAvailable();
+    }
+
+    public void close() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static class Config {
+
+        private int maxTotal = 200;
+        private int maxPerRoute = 50;
+        private int connectTimeout = 6000;
+        private int socketTimeout = 15000;
+        private int connectionRequestTimeout = 1000;
+        private long keepAlive = 30000;
+        private long idleTimeout = 60000;
+        private long timeToLive = -1;
+        private int validateAfterInactivity = 2000;
+
+        public int getMaxTotal() {
+            return maxTotal;
+        }
+
+        public void setMaxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+        }
+
+        public int getMaxPerRoute() {
+            return maxPerRoute;
+        }
+
+        public void setMaxPerRoute(int maxPerRoute) {
+            this.maxPerRoute = maxPerRoute;
+        }
+
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public int getSocketTimeout() {
+            return socketTimeout;
+        }
+
+        public void setSocketTimeout(int socketTimeout) {
+            this.socketTimeout = socketTimeout;
+        }
+
+        public int getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        public long getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(long keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public long getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public long getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(long timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public int getValidateAfterInactivity() {
+            return validateAfterInactivity;
+        }
+
+        public void setValidateAfterInactivity(int validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+        }
+
+        @Override
+        public String toString() {
+            return "Config{" +
+                    "maxTotal=" + maxTotal +
+                    ", maxPerRoute=" + maxPerRoute +
+                    ", connectTimeout=" + connectTimeout +
+                    ", socketTimeout=" + socketTimeout +
+                    ", connectionRequestTimeout=" + connectionRequestTimeout +
+                    ", keepAlive=" + keepAlive +
+                    ", idleTimeout=" + idleTimeout +
+                    ", timeToLive=" + timeToLive +
+                    ", validateAfterInactivity=" + validateAfterInactivity +
+                    '}';
+        }
+    }
+}
@@ -16,15 +16,19 @@
  */
 package x7.core.util;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.apache.http.conn.HttpHostConnectException;
 import org.apache.http.entity.ByteArrayEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,9 +37,10 @@ import x7.core.bean.KV;
 import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.net.URLConnection;
 import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -49,119 +54,142 @@ public class HttpClientUtil {
     }
 
     public static String post(String url, Object param, List<KV> hearderList, int connectTimeoutMS, int socketTimeoutMS) {
+        return post(HttpClientPool.getDefault(), url, param, hearderList, connectTimeoutMS, socketTimeoutMS);
+    }
 
-        CloseableHttpClient httpclient = HttpClients.createDefault();
+    public static String post(HttpClientPool pool, String url, Object param, List<KV> hearderList, int connectTimeoutMS, int socketTimeoutMS) {
 
-        HttpPost httpPost = new HttpPost(url);
+        HttpPost httpPost = newPost(pool, url, param, hearderList, connectTimeoutMS, socketTimeoutMS);
+        logger.info("executing request " + httpPost.getURI());
+        String result = execute(pool, httpPost, url, Response::of).getBody();
+        logger.info("Response content: " + result);
+        return result;
+    }
 
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setSocketTimeout(socketTimeoutMS)
-                .setConnectTimeout(connectTimeoutMS)
-                .setConnectionRequestTimeout(1000)
-                .build();//设置请求和传输超时时间
+    /**
+     * @param handler decode the response, the entity consumed fully after, the connection back to pool
+     */
+    public static <T> T post(HttpClientPool pool, String url, Object param, List<KV> hearderList, int connectTimeoutMS, int socketTimeoutMS, ResponseHandler<T> handler) {
 
-        httpPost.setConfig(requestConfig);
+        HttpPost httpPost = newPost(pool, url, param, hearderList, connectTimeoutMS, socketTimeoutMS);
+        return execute(pool, httpPost, url, handler);
+    }
 
-        if (hearderList != null) {
-            for (KV kv : hearderList) {
-                httpPost.addHeader(kv.getK(), kv.getV().toString());
-            }
-        }
+    public static String getUrl(String urlString) {
+        return getUrl(urlString, null,15000, 15000);
+    }
 
-        String json = "";
-        if (param != null) {
-            json = JsonX.toJson(param);
+    public static String getUrl(String urlString, List<KV> hearderList, int connectTimeoutMS, int readTimeoutMS) {
+        return getUrl(HttpClientPool.getDefault(), urlString, hearderList, connectTimeoutMS, readTimeoutMS);
+    }
+
+    public static String getUrl(HttpClientPool pool, String urlString, List<KV> hearderList, int connectTimeoutMS, int readTimeoutMS) {
+
+        HttpGet httpGet = newGet(pool, urlString, hearderList, connectTimeoutMS, readTimeoutMS);
+
+        Response response = execute(pool, httpGet, urlString, Response::of);
+        if (response.getStatus() >= 400) {
+            throw new RuntimeException("Server returned HTTP response code: " + response.getStatus() + " for URL: " + urlString);
         }
-        HttpEntity entity = null;
-        String result = null;
-        try {
-            entity = new ByteArrayEntity(json.getBytes("UTF-8"));
-            httpPost.setHeader("Content-type", "application/json;charset=UTF-8");
-            httpPost.setEntity(entity);
-            logger.info("executing request " + httpPost.getURI());
-            CloseableHttpResponse response = httpclient.execute(httpPost);
-            try {
-                entity = response.getEntity();
-                if (entity != null) {
-                    result = EntityUtils.toString(entity, "UTF-8");
-                    logger.info("Response content: " + result);
 
-                }
-            } finally {
-                response.close();
-            }
-        } catch (HttpHostConnectException hce) {
-            hce.printStackTrace();
-            String str = "org.apache.http.conn.HttpHostConnectException: Connect to " + url + " failed: Connection refused: connect";
-            throw new RuntimeException(str);
-        } catch (ConnectTimeoutException cte){
-            cte.printStackTrace();
-            String str = "org.apache.http.conn.ConnectTimeoutException: Connect to " + url + " failed: Connection timeout: connect";
-            throw new RuntimeException(str);
-        } catch(IOException ioe){
-            ioe.printStackTrace();
-            throw new RuntimeException(ExceptionUtil.getMessage(ioe));
-        } catch (Exception e) {
-            throw e;
-        } finally {
-            try {
-                httpclient.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+        String result = response.getBody();
+        if (result == null)
+            return "";
+
+        try {
+            result = URLDecoder.decode(result, "UTF-8");
+            logger.info("get: " + result);
+        } catch (UnsupportedEncodingException e) {
+            e.printStackTrace();
+            throw new RuntimeException(ExceptionUtil.getMessage(e));
         }
 
         return result;
     }
 
-    public static String getUrl(String urlString) {
-        return getUrl(urlString, null,15000, 15000);
+    /**
+     * GET with status and headers, the body not decoded <br>
+     * not thrown on status >= 400, unlike getUrl
+     */
+    public static Response exchange(HttpClientPool pool, String urlString, List<KV> hearderList, int connectTimeoutMS, int readTimeoutMS) {
+        return get(pool, urlString, hearderList, connectTimeoutMS, readTimeoutMS, Response::of);
     }
 
-    public static String getUrl(String urlString, List<KV> hearderList, int connectTimeoutMS, int readTimeoutMS) {
-        StringBuffer sb = new StringBuffer();
-        BufferedReader reader = null;
-        try {
-            URL url = new URL(urlString);
+    /**
+     * @param handler decode the response, the entity consumed fully after, the connection back to pool
+     */
+    public static <T> T get(HttpClientPool pool, String urlString, List<KV> hearderList, int connectTimeoutMS, int readTimeoutMS, ResponseHandler<T> handler) {
 
-            URLConnection conn = url.openConnection();
+        HttpGet httpGet = newGet(pool, urlString, hearderList, connectTimeoutMS, readTimeoutMS);
+        return execute(pool, httpGet, urlString, handler);
+    }
 
-            conn.setConnectTimeout(connectTimeoutMS);
-            conn.setReadTimeout(readTimeoutMS);
+    private static HttpPost newPost(HttpClientPool pool, String url, Object param, List<KV> hearderList, int connectTimeoutMS, int socketTimeoutMS) {
 
-            if (hearderList != null) {
-                for (KV kv : hearderList) {
-                    conn.addRequestProperty(kv.getK(),kv.getV().toString());
-                }
-            }
+        HttpPost httpPost = new HttpPost(url);
 
-            reader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
+        httpPost.setConfig(requestConfig(pool, connectTimeoutMS, socketTimeoutMS));//设置请求和传输超时时间
 
-            for (String line = null; (line = reader.readLine()) != null; ) {
-                sb.append(line + "\n");
-            }
+        addHeaders(httpPost, hearderList);
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException(ExceptionUtil.getMessage(e));
-        }finally {
-            try {
-                if (reader != null) {
-                    reader.close();
-                }
-            } catch (IOException e) {
+        String json = "";
+        if (param != null) {
+            json = JsonX.toJson(param);
+        }
+
+        HttpEntity entity = new ByteArrayEntity(json.getBytes(StandardCharsets.UTF_8));
+        httpPost.setHeader("Content-type", "application/json;charset=UTF-8");
+        httpPost.setEntity(entity);
+        return httpPost;
+    }
+
+    private static HttpGet newGet(HttpClientPool pool, String urlString, List<KV> hearderList, int connectTimeoutMS, int readTimeoutMS) {
+
+        HttpGet httpGet = new HttpGet(urlString);
+
+        httpGet.setConfig(requestConfig(pool, connectTimeoutMS, readTimeoutMS));
+
+        addHeaders(httpGet, hearderList);
+
+        return httpGet;
+    }
+
+    private static void addHeaders(HttpRequestBase request, List<KV> hearderList) {
+        if (hearderList != null) {
+            for (KV kv : hearderList) {
+                request.addHeader(kv.getK(), kv.getV().toString());
             }
         }
-        String result = "";
+    }
+
+    private static RequestConfig requestConfig(HttpClientPool pool, int connectTimeoutMS, int socketTimeoutMS) {
+        return RequestConfig.custom()
+                .setSocketTimeout(socketTimeoutMS)
+                .setConnectTimeout(connectTimeoutMS)
+                .setConnectionRequestTimeout(pool.getConfig().getConnectionRequestTimeout())
+                .build();
+    }
+
+    private static <T> T execute(HttpClientPool pool, HttpUriRequest request, String url, ResponseHandler<T> handler) {
+
         try {
-            result = URLDecoder.decode(sb.toString(), "UTF-8");
-            logger.info("get: " + result);
-        } catch (UnsupportedEncodingException e) {
-            e.printStackTrace();
-            throw new RuntimeException(ExceptionUtil.getMessage(e));
+            return pool.getClient().execute(request, handler);
+        } catch (HttpHostConnectException hce) {
+            hce.printStackTrace();
+            String str = "org.apache.http.conn.HttpHostConnectException: Connect to " + url + " failed: Connection refused: connect";
+            throw new RuntimeException(str);
+        } catch (ConnectionPoolTimeoutException cpte){
+            cpte.printStackTrace();
+            String str = "org.apache.http.conn.ConnectionPoolTimeoutException: Connect to " + url + " failed: Timeout waiting for connection from pool";
+            throw new RuntimeException(str);
+        } catch (ConnectTimeoutException cte){
+            cte.printStackTrace();
+            String str = "org.apache.http.conn.ConnectTimeoutException: Connect to " + url + " failed: Connection timeout: connect";
+            throw new RuntimeException(str);
+        } catch(IOException ioe){
+            ioe.printStackTrace();
+            throw new RuntimeException(ExceptionUtil.getMessage(ioe));
         }
-
-        return result;
     }
 
     public final static String EQ = "=";
@@ -273,6 +301,50 @@ public class HttpClientUtil {
         return fileEndWitsh;
     }
 
+    public static class Response {
+
+        private int status;
+        private String body;
+        private Map<String, String> headerMap = new HashMap<>();
+
+        public static Response of(HttpResponse httpResponse) throws IOException {
+            Response response = new Response();
+            response.status = httpResponse.getStatusLine().getStatusCode();
+            for (Header header : httpResponse.getAllHeaders()) {
+                response.headerMap.put(header.getName().toLowerCase(), header.getValue());
+            }
+            HttpEntity entity = httpResponse.getEntity();
+            if (entity != null) {
+                response.body = EntityUtils.toString(entity, "UTF-8");
+            }
+            return response;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * @param name case insensitive
+         */
+        public String getHeader(String name) {
+            return headerMap.get(name.toLowerCase());
+        }
+
+        @Override
+        public String toString() {
+            return "Response{" +
+                    "status=" + status +
+                    ", body='" + body + '\'' +
+                    ", headerMap=" + headerMap +
+                    '}';
+        }
+    }
+
     public static class FileWrapper {
         private String extName;
         private byte[] bytes;
@@ -17,8 +17,16 @@
 package x7.core.util;
 
 import com.alibaba.fastjson.JSON;
-
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.JSONReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.lang.reflect.Type;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -73,6 +81,48 @@ public class JsonX {
 		return JSON.parseObject(json, clz);
 	}
 	
+	/**
+	 * decoded while reading, no String of the whole json<br>
+	 * the stream not closed
+	 */
+	public static <T> T readObject(InputStream is, Type type) throws IOException {
+		PushbackInputStream pis = new PushbackInputStream(is);
+		int b = pis.read();
+		if (b == -1)
+			return null;
+		pis.unread(b);
+		JSONReader reader = new JSONReader(new InputStreamReader(pis, StandardCharsets.UTF_8));
+		return reader.readObject(type);
+	}
+
+	/**
+	 * the json object read as a map, to be checked before toObject(map, clz)<br>
+	 * the stream not closed
+	 */
+	public static Map<String, Object> readMap(InputStream is) throws IOException {
+		return readObject(is, JSONObject.class);
+	}
+
+	/**
+	 * decoded while reading, element by element<br>
+	 * the stream not closed
+	 */
+	public static <T> List<T> readList(InputStream is, Class<T> clz) throws IOException {
+		List<T> list = new ArrayList<T>();
+		PushbackInputStream pis = new PushbackInputStream(is);
+		int b = pis.read();
+		if (b == -1)
+			return list;
+		pis.unread(b);
+		JSONReader reader = new JSONReader(new InputStreamReader(pis, StandardCharsets.UTF_8));
+		reader.startArray();
+		while (reader.hasNext()) {
+			list.add(reader.readObject(clz));
+		}
+		reader.endArray();
+		return list;
+	}
+
 	public static <T> T toObject(Object jsonObject, Class<T> clz){
 		if (Objects.isNull(jsonObject))
 			return null;
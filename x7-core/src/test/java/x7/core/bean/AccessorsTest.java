@@ -0,0 +1,126 @@
+package x7.core.bean;
+
+import org.junit.Test;
+import x7.core.repository.X;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AccessorsTest {
+
+    public static class Bean {
+        @X.Key
+        private long id;
+        private int age;
+        private double rate;
+        private String name;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    private static class Hidden {
+        private long value;
+        private boolean on;
+        private String secret = "s";
+
+        public long getValue() {
+            return value;
+        }
+
+        public void setValue(long value) {
+            this.value = value;
+        }
+
+        public boolean isOn() {
+            return on;
+        }
+
+        public void setOn(boolean on) {
+            this.on = on;
+        }
+    }
+
+    @Test
+    public void primitiveSetterOfOtherNumber() throws Exception {
+        Bean bean = new Bean();
+        Accessors.setter(Bean.class.getMethod("setId", long.class)).set(bean, Integer.valueOf(42));
+        assertEquals(42, bean.getId());
+        Accessors.setter(Bean.class.getMethod("setAge", int.class)).set(bean, Long.valueOf(7));
+        assertEquals(7, bean.getAge());
+        Accessors.setter(Bean.class.getMethod("setRate", double.class)).set(bean, Float.valueOf(1.5f));
+        assertEquals(1.5, bean.getRate(), 0);
+    }
+
+    @Test
+    public void elementAccessors() {
+        Parsed parsed = Parser.get(Bean.class);
+        Bean bean = new Bean();
+
+        parsed.getElement("id").setAccessor.set(bean, Integer.valueOf(3));
+        parsed.getElement("age").setAccessor.set(bean, Long.valueOf(5));
+        parsed.getElement("name").setAccessor.set(bean, "x");
+        parsed.getElement("name").setAccessor.set(bean, null);
+
+        assertEquals(3L, parsed.getKeyOneValue(bean));
+        assertEquals(3L, parsed.getKeyOneLong(bean));
+        assertEquals(5, parsed.getElement("age").longAccessor.get(bean));
+        assertEquals(Integer.valueOf(5), parsed.getElement("age").getAccessor.get(bean));
+        assertNull(parsed.getElement("name").getAccessor.get(bean));
+    }
+
+    @Test
+    public void nonPublicBean() throws Exception {
+        Hidden hidden = new Hidden();
+        Method setValue = Hidden.class.getMethod("setValue", long.class);
+        Method getValue = Hidden.class.getMethod("getValue");
+
+        Accessors.setter(setValue).set(hidden, Integer.valueOf(9));
+        assertEquals(9, hidden.getValue());
+        assertEquals(Long.valueOf(9), Accessors.getter(getValue).get(hidden));
+        assertEquals(9, Accessors.longGetter(getValue).get(hidden));
+
+        Accessors.setter(Hidden.class.getMethod("setOn", boolean.class)).set(hidden, Boolean.TRUE);
+        assertTrue(Accessors.booleanGetter(Hidden.class.getMethod("isOn")).get(hidden));
+        hidden.setOn(false);
+        assertFalse(Accessors.booleanGetter(Hidden.class.getMethod("isOn")).get(hidden));
+    }
+
+    @Test
+    public void fieldGetter() throws Exception {
+        assertEquals("s", Accessors.getter(Hidden.class.getDeclaredField("secret")).get(new Hidden()));
+    }
+}
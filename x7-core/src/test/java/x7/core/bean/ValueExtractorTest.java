@@ -0,0 +1,206 @@
+package x7.core.bean;
+
+import org.junit.Test;
+import x7.core.repository.X;
+import x7.core.util.BeanUtilX;
+import x7.core.util.JsonX;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ValueExtractorTest {
+
+    public enum Status {
+        ON,
+        OFF
+    }
+
+    public static class Item {
+        @X.Key
+        private long id;
+        private int age;
+        private long total;
+        private boolean isValid;
+        private double rate;
+        private String name;
+        private Long version;
+        private Status status;
+        private BigDecimal amount;
+        private java.sql.Date day;
+        private Map<String, String> attrs;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public boolean isValid() {
+            return isValid;
+        }
+
+        public void setValid(boolean valid) {
+            this.isValid = valid;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+
+        public void setVersion(Long version) {
+            this.version = version;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public java.sql.Date getDay() {
+            return day;
+        }
+
+        public void setDay(java.sql.Date day) {
+            this.day = day;
+        }
+
+        public Map<String, String> getAttrs() {
+            return attrs;
+        }
+
+        public void setAttrs(Map<String, String> attrs) {
+            this.attrs = attrs;
+        }
+    }
+
+    private final Parsed parsed = Parser.get(Item.class);
+
+    @Test
+    public void queryMapSkipsDefaults() {
+        Item item = new Item();
+        item.setName("");
+        assertTrue(BeanUtilX.getQueryMap(parsed, item).isEmpty());
+    }
+
+    @Test
+    public void queryMapOfPrimitives() {
+        Item item = new Item();
+        item.setId(3);
+        item.setAge(5);
+        item.setTotal(7);
+        item.setValid(true);
+        item.setRate(1.5);
+
+        Map<String, Object> map = BeanUtilX.getQueryMap(parsed, item);
+        assertEquals(Long.valueOf(3), map.get("id"));
+        assertEquals(Integer.valueOf(5), map.get("age"));
+        assertEquals(Long.valueOf(7), map.get("total"));
+        assertEquals(Boolean.TRUE, map.get("isValid"));
+        assertEquals(Double.valueOf(1.5), map.get("rate"));
+        assertEquals(5, map.size());
+    }
+
+    @Test
+    public void queryMapOfObjects() {
+        Item item = new Item();
+        item.setName("x");
+        item.setVersion(0L);
+        item.setStatus(Status.OFF);
+        item.setAmount(BigDecimal.ONE);
+
+        Map<String, Object> map = BeanUtilX.getQueryMap(parsed, item);
+        assertEquals("x", map.get("name"));
+        assertEquals(Long.valueOf(0), map.get("version"));
+        assertEquals("OFF", map.get("status"));
+        assertEquals(BigDecimal.ONE, map.get("amount"));
+    }
+
+    @Test
+    public void refreshMap() {
+        Map<String, String> attrs = new HashMap<>();
+        attrs.put("color", "red");
+
+        Item item = new Item();
+        item.setId(3);
+        item.setName("");
+        item.setStatus(Status.ON);
+        item.setAmount(BigDecimal.TEN);
+        item.setDay(new java.sql.Date(0));
+        item.setAttrs(attrs);
+
+        Map<String, Object> map = BeanUtilX.getRefreshMap(parsed, item);
+        assertEquals(Long.valueOf(3), map.get("id"));
+        assertEquals("", map.get("name"));
+        assertEquals("ON", map.get("status"));
+        assertEquals(BigDecimal.TEN, map.get("amount"));
+        assertEquals(new java.sql.Date(0), map.get("day"));
+        assertEquals(JsonX.toJson(attrs), map.get("attrs"));
+        assertFalse(map.containsKey("age"));
+        assertFalse(map.containsKey("isValid"));
+        assertFalse(map.containsKey("version"));
+    }
+
+    @Test
+    public void keyFirst() {
+        Item item = new Item();
+        item.setId(3);
+        item.setAge(5);
+        item.setName("x");
+
+        List<String> keys = new ArrayList<>(BeanUtilX.getQueryMap(parsed, item).keySet());
+        assertEquals("id", keys.get(0));
+        assertEquals(keys, new ArrayList<>(BeanUtilX.getQueryMap(parsed, item).keySet()));
+    }
+}
@@ -19,27 +19,100 @@ package x7.distributed;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import x7.core.async.TimingWheel;
 import x7.repository.redis.JedisConnector_Persistence;
 
-
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DistributionLock.by(key).lock(obj -> {...});<br>
+ * DistributionLock.by(key).lease(30000).waitTime(3000).lock(obj -> {...});<br>
+ * SET NX PX with the owner token, unLock only by the owner <br>
+ * lease: renewed every lease/3 by the watchdog while the task running <br>
+ * waitTime: 0, fail at once; or wake up by the unLock of other, polling by RETRY_INTERVAL at most <br>
+ * fencing token: increased on every lock of the key, pass it to the storage to reject the stale owner <br>
+ * the fencing key: "{key}:fence", expired after FENCE_TTL without lock, the token still increased after <br>
+ * the threads of one node for the same key queued by LocalLockTable, one of them to redis <br>
+ */
 public class DistributionLock {
 
     private static Logger logger = LoggerFactory.getLogger(DistributionLock.class);
 
-    private static void lock(String key) {
+    public final static long DEFAULT_LEASE = 10000;
+    private final static long RETRY_INTERVAL = 200;
+    private final static String FENCE_SUFFIX = ":fence";
+    private final static long FENCE_TTL = TimeUnit.DAYS.toMillis(7);
+
+    /**
+     * in the same cluster slot of the key, for the scripts of two keys <br>
+     * the key with a hash tag already: key + ":fence", or "{" + key + "}:fence"
+     */
+    static String fenceKey(String key) {
+        int start = key.indexOf('{');
+        if (start >= 0 && key.indexOf('}', start + 1) > start + 1)
+            return key + FENCE_SUFFIX;
+        return "{" + key + "}" + FENCE_SUFFIX;
+    }
+
+    /**
+     * @return the fencing token, 0 if failed
+     */
+    private static long tryLock(String key, String token, long lease) {
+        return JedisConnector_Persistence.getInstance().lock(key, token, lease, fenceKey(key), FENCE_TTL);
+    }
+
+    private final static LocalLockTable.Release RELEASE = new LocalLockTable.Release() {
+        @Override
+        public void unLock(String key, String token) {
+            DistributionLock.unLock(key, token);
+        }
+    };
+
+    private static long lock(String key, String token, long lease, long deadline) {
 
-        boolean locked = JedisConnector_Persistence.getInstance().lock(key);
-        if (!locked) {
-            logger.info("Get distributed lock failed, lockKey: " + key);
-            throw new RuntimeException("service busy");
+        long fence = tryLock(key, token, lease);
+        if (fence > 0)
+            return fence;
+
+        if (deadline - System.nanoTime() > 0) {
+            LockNotifier.Signal signal = LockNotifier.enter(key);
+            try {
+                for (; ; ) {
+                    long version = signal.getVersion();
+                    fence = tryLock(key, token, lease);
+                    if (fence > 0)
+                        return fence;
+                    long nanos = deadline - System.nanoTime();
+                    if (nanos <= 0)
+                        break;
+                    signal.await(version, Math.min(nanos, TimeUnit.MILLISECONDS.toNanos(RETRY_INTERVAL)));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                LockNotifier.exit(key);
+            }
         }
+
+        throw busy(key);
+    }
+
+    private static RuntimeException busy(String key) {
+        logger.info("Get distributed lock failed, lockKey: " + key);
+        return new RuntimeException("service busy");
     }
 
-    private static void unLock( String key){
-        JedisConnector_Persistence.getInstance().unLock(key);
+    private static void unLock(String key, String token) {
+        boolean unLocked = JedisConnector_Persistence.getInstance().unLock(key, token, LockNotifier.CHANNEL);
+        if (unLocked) {
+            LockNotifier.released(key);
+        } else {
+            logger.warn("Distributed lock expired before unLock, lockKey: " + key);
+        }
     }
 
-    private static void unLockAsync( String key){
+    private static void unLockAsync(String key, String token) {
 
     }
 
@@ -51,46 +124,117 @@ public class DistributionLock {
 
     public static class Lock{
         private  String key;
+        private long lease = DEFAULT_LEASE;
+        private long waitTime = 0;
+        private long fencingToken;
 
         private void setKey(String key){
             this.key = key;
         }
 
+        /**
+         * @param lease ms, the ttl of the lock in redis
+         */
+        public Lock lease(long lease) {
+            if (lease > 0)
+                this.lease = lease;
+            return this;
+        }
+
+        /**
+         * @param waitTime ms, 0: fail at once
+         */
+        public Lock waitTime(long waitTime) {
+            this.waitTime = Math.max(0, waitTime);
+            return this;
+        }
+
+        /**
+         * increased on every lock of the key, valid after locked
+         */
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
         public <T> T lock(Task<T> obj){
-            DistributionLock.lock(key);
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTime);
+            final LocalLockTable.Entry entry = LocalLockTable.acquire(key, deadline - System.nanoTime(), RELEASE);
+            if (entry == null)
+                throw busy(key);
+
+            String token = entry.takeToken();
+            try {
+                if (token != null) {
+                    this.fencingToken = JedisConnector_Persistence.getInstance().relock(key, token, lease, fenceKey(key), FENCE_TTL);
+                }
+                if (token == null || this.fencingToken == 0) {
+                    entry.resetHandovers();
+                    token = UUID.randomUUID().toString();
+                    this.fencingToken = DistributionLock.lock(key, token, lease, deadline);
+                }
+            } catch (RuntimeException e) {
+                LocalLockTable.release(key, entry, RELEASE);
+                throw e;
+            }
+
+            TimingWheel.Timeout watchdog = watch(token);
             T o = null;
             try {
                 o = obj.run(obj);
             }catch (Exception e) {
-                DistributionLock.unLock(key);
                 if (e instanceof RuntimeException) {
                     throw (RuntimeException) e;
                 }else {
                     throw new RuntimeException(e.getMessage());
                 }
             }finally {
-                DistributionLock.unLock(key);
+                watchdog.cancel();
+                if (!entry.handOver(token)) {
+                    DistributionLock.unLock(key, token);
+                }
+                LocalLockTable.release(key, entry, RELEASE);
             }
             return o;
         }
 
+        /**
+         * the lock kept until the lease expired, no watchdog
+         */
         public <T> T lockAsync(Task<T> obj){
-            DistributionLock.lock(key);
+            final String token = UUID.randomUUID().toString();
+            this.fencingToken = DistributionLock.lock(key, token, lease, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTime));
             T o = null;
             try {
                 o = obj.run(obj);
             }catch (Exception e) {
-                DistributionLock.unLock(key);
+                DistributionLock.unLock(key, token);
                 if (e instanceof RuntimeException) {
                     throw (RuntimeException) e;
                 }else {
                     throw new RuntimeException(e.getMessage());
                 }
             }finally {
-                DistributionLock.unLockAsync(key);
+                DistributionLock.unLockAsync(key, token);
             }
             return o;
         }
+
+        private TimingWheel.Timeout watch(final String token) {
+            final long period = Math.max(TimingWheel.TICK, lease / 3);
+            final TimingWheel.Timeout[] holder = new TimingWheel.Timeout[1];
+            holder[0] = TimingWheel.scheduleAtFixedRate("DistributionLock:" + key, new Runnable() {
+                @Override
+                public void run() {
+                    if (holder[0] == null || holder[0].isCancelled())
+                        return;
+                    if (!JedisConnector_Persistence.getInstance().renew(key, token, lease)) {
+                        logger.warn("Distributed lock lost, lockKey: " + key + ", fencingToken: " + fencingToken);
+                        holder[0].cancel();
+                    }
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+            return holder[0];
+        }
     }
 
     public interface Task<T> {
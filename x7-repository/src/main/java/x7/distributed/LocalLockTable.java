@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.distributed;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * the threads of one node for the same key queued here, only one of them goes to redis <br>
+ * on release, the redis lock handed to the next local waiter, MAX_HANDOVER times at most, <br>
+ * then released in redis, so the other nodes not starved <br>
+ */
+public class LocalLockTable {
+
+    public final static int MAX_HANDOVER = 8;
+
+    private final static ConcurrentHashMap<String, Entry> entryMap = new ConcurrentHashMap<>();
+
+    private LocalLockTable() {
+    }
+
+    public static class Entry {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private int refs;
+        /**
+         * the owner token of redis lock kept for the next local holder
+         */
+        private volatile String token;
+        private int handovers;
+
+        public String takeToken() {
+            String t = token;
+            token = null;
+            return t;
+        }
+
+        /**
+         * by the holder
+         * @return true if the token kept for the queued thread, no unLock in redis
+         */
+        public boolean handOver(String token) {
+            if (handovers >= MAX_HANDOVER || !lock.hasQueuedThreads()) {
+                handovers = 0;
+                return false;
+            }
+            handovers++;
+            this.token = token;
+            return true;
+        }
+
+        public void resetHandovers() {
+            handovers = 0;
+        }
+
+        public int getQueueLength() {
+            return lock.getQueueLength();
+        }
+    }
+
+    /**
+     * @param release unLock the token left in redis, if no thread of this node wants the key any more
+     * @return null if timeout
+     */
+    public static Entry acquire(String key, long waitNanos, Release release) {
+        Entry entry = entryMap.compute(key, (k, e) -> {
+            if (e == null) {
+                e = new Entry();
+            }
+            e.refs++;
+            return e;
+        });
+        boolean locked = false;
+        try {
+            locked = waitNanos <= 0 ? entry.lock.tryLock() : entry.lock.tryLock(waitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (locked)
+            return entry;
+        exit(key, entry, release);
+        return null;
+    }
+
+    public static void release(String key, Entry entry, Release release) {
+        entry.lock.unlock();
+        exit(key, entry, release);
+    }
+
+    private static void exit(String key, Entry entry, Release release) {
+        boolean[] last = new boolean[1];
+        entryMap.computeIfPresent(key, (k, e) -> {
+            if (e != entry)
+                return e;
+            if (--e.refs > 0)
+                return e;
+            last[0] = true;
+            return null;
+        });
+        if (last[0]) {
+            String token = entry.takeToken();
+            if (token != null) {
+                release.unLock(key, token);
+            }
+        }
+    }
+
+    public interface Release {
+        void unLock(String key, String token);
+    }
+
+    /**
+     * the keys of threads holding or waiting on this node
+     */
+    public static int size() {
+        return entryMap.size();
+    }
+}
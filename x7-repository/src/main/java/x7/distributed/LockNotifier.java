@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.distributed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import x7.config.SpringHelper;
+import x7.repository.redis.JedisConnector_Persistence;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * wake up the waiters of the key, on the message of CHANNEL published by unLock <br>
+ * no message if the lock expired, so the waiters still poll by the retry interval <br>
+ * the listener container stopped on the close of the spring context <br>
+ */
+public class LockNotifier implements MessageListener {
+
+    private static Logger logger = LoggerFactory.getLogger(LockNotifier.class);
+
+    public final static String CHANNEL = "x7:lock:released";
+
+    private final static ConcurrentHashMap<String, Signal> signalMap = new ConcurrentHashMap<>();
+
+    private static volatile boolean subscribed;
+    private static volatile RedisMessageListenerContainer container;
+
+    private LockNotifier() {
+    }
+
+    private static class Holder {
+        final static LockNotifier INSTANCE = subscribe();
+    }
+
+    private static LockNotifier subscribe() {
+        LockNotifier notifier = new LockNotifier();
+        try {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(JedisConnector_Persistence.getInstance().getConnectionFactory());
+            container.addMessageListener(notifier, new ChannelTopic(CHANNEL));
+            container.afterPropertiesSet();
+            container.start();
+            LockNotifier.container = container;
+            subscribed = true;
+            closeOnContextClosed();
+        } catch (Exception e) {
+            logger.warn("Subscribe " + CHANNEL + " failed, waiting by polling: " + e.getMessage());
+        }
+        return notifier;
+    }
+
+    private static void closeOnContextClosed() {
+        ApplicationContext context = SpringHelper.getContext();
+        if (!(context instanceof ConfigurableApplicationContext))
+            return;
+        ((ConfigurableApplicationContext) context).addApplicationListener(new ApplicationListener<ApplicationEvent>() {
+            @Override
+            public void onApplicationEvent(ApplicationEvent event) {
+                if (event instanceof ContextClosedEvent) {
+                    close();
+                }
+            }
+        });
+    }
+
+    /**
+     * stop the listener container, the waiters poll by the retry interval
+     */
+    public static void close() {
+        RedisMessageListenerContainer c = container;
+        if (c == null)
+            return;
+        container = null;
+        subscribed = false;
+        try {
+            c.destroy();
+        } catch (Exception e) {
+            logger.warn("Close the subscription of " + CHANNEL + " failed: " + e.getMessage());
+        }
+    }
+
+    private static LockNotifier instance() {
+        return Holder.INSTANCE;
+    }
+
+    public static boolean isSubscribed() {
+        return subscribed;
+    }
+
+    static class Signal {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private int waiters;
+        private long version;
+
+        long getVersion() {
+            lock.lock();
+            try {
+                return version;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return false if timeout
+         */
+        boolean await(long version, long nanos) throws InterruptedException {
+            lock.lock();
+            try {
+                while (this.version == version) {
+                    if (nanos <= 0)
+                        return false;
+                    nanos = released.awaitNanos(nanos);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void signal() {
+            lock.lock();
+            try {
+                version++;
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    static Signal enter(String key) {
+        instance();
+        return signalMap.compute(key, (k, s) -> {
+            if (s == null) {
+                s = new Signal();
+            }
+            s.waiters++;
+            return s;
+        });
+    }
+
+    static void exit(String key) {
+        signalMap.computeIfPresent(key, (k, s) -> --s.waiters <= 0 ? null : s);
+    }
+
+    /**
+     * also by the local unLock, no wait for the round trip of pub/sub
+     */
+    static void released(String key) {
+        Signal signal = signalMap.get(key);
+        if (signal != null) {
+            signal.signal();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        released(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+}
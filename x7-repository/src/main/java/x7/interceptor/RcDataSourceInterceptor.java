@@ -18,17 +18,22 @@ package x7.interceptor;
 
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
-import x7.repository.dao.RcDataSourceUtil;
+import x7.repository.dao.RcContext;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 
 public class RcDataSourceInterceptor implements HandlerInterceptor {
+
+    public final static String RC_CONTEXT = RcContext.class.getName();
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
 
-        RcDataSourceUtil.key();
+        if (request.getAttribute(RC_CONTEXT) == null) {
+            request.setAttribute(RC_CONTEXT, RcContext.open());
+        }
         return true;
     }
 
@@ -40,7 +45,11 @@ public class RcDataSourceInterceptor implements HandlerInterceptor {
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
 
-        RcDataSourceUtil.closeConnection();
+        RcContext context = (RcContext) request.getAttribute(RC_CONTEXT);
+        if (context != null) {
+            request.removeAttribute(RC_CONTEXT);
+            context.close();
+        }
 
     }
 }
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.repository;
+
+import org.springframework.stereotype.Repository;
+import x7.core.bean.Criteria;
+import x7.core.bean.condition.InCondition;
+import x7.core.bean.condition.ReduceCondition;
+import x7.core.exception.BusyException;
+import x7.core.web.Page;
+import x7.repository.dao.JdbcExecutor;
+import x7.repository.dao.RcContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking query API <br>
+ * cache hit: completed on the caller thread <br>
+ * cache miss: jdbc on JdbcExecutor, RcContext of the caller carried <br>
+ * JdbcExecutor full: completed exceptionally by BusyException <br>
+ * (AsyncRepository is write-behind)
+ */
+@Repository
+public class AsyncQueryRepository {
+
+    private SqlRepository getRepository() {
+        return SqlRepository.getInstance();
+    }
+
+    public <T> CompletableFuture<T> get(final Class<T> clz, final long idOne) {
+        T obj = probe(() -> getRepository().getIfCached(clz, idOne));
+        if (obj != null)
+            return CompletableFuture.completedFuture(obj);
+        return supply(() -> getRepository().getAndCache(clz, idOne));
+    }
+
+    public <T> CompletableFuture<List<T>> list(final Object conditionObj) {
+        List<T> list = probe(() -> getRepository().listIfCached(conditionObj.getClass(), conditionObj));
+        if (list != null)
+            return CompletableFuture.completedFuture(list);
+        return supply(() -> getRepository().list(conditionObj));
+    }
+
+    public <T> CompletableFuture<List<T>> list(final Class<T> clz) {
+        List<T> list = probe(() -> getRepository().listIfCached(clz, getRepository().getLoadAllCondition()));
+        if (list != null)
+            return CompletableFuture.completedFuture(list);
+        return supply(() -> getRepository().list(clz));
+    }
+
+    public <T> CompletableFuture<List<T>> list(final Criteria criteria) {
+        List<T> list = probe(() -> getRepository().listIfCached(criteria.getClz(), criteria));
+        if (list != null)
+            return CompletableFuture.completedFuture(list);
+        return supply(() -> getRepository().list(criteria));
+    }
+
+    public <T> CompletableFuture<Page<T>> find(final Criteria criteria) {
+        Page<T> p = probe(() -> getRepository().findIfCached(criteria));
+        if (p != null)
+            return CompletableFuture.completedFuture(p);
+        return supply(() -> getRepository().find(criteria));
+    }
+
+    public <T> CompletableFuture<List<T>> in(final InCondition inCondition) {
+        List<T> list = probe(() -> getRepository().inIfCached(inCondition));
+        if (list != null)
+            return CompletableFuture.completedFuture(list);
+        return supply(() -> getRepository().in(inCondition));
+    }
+
+    public CompletableFuture<Object> reduce(final ReduceCondition reduceCondition) {
+        return supply(() -> getRepository().reduce(reduceCondition));
+    }
+
+    public CompletableFuture<Page<Map<String, Object>>> find(final Criteria.ResultMappedCriteria resultMapped) {
+        return supply(() -> getRepository().find(resultMapped));
+    }
+
+    public CompletableFuture<List<Map<String, Object>>> list(final Criteria.ResultMappedCriteria resultMapped) {
+        return supply(() -> getRepository().list(resultMapped));
+    }
+
+    /**
+     * cache exception taken as cache miss
+     */
+    private <R> R probe(Supplier<R> supplier) {
+        try {
+            return supplier.get();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private <R> CompletableFuture<R> supply(Supplier<R> supplier) {
+        RcContext context = RcContext.current();
+        if (context != null) {
+            supplier = context.wrap(supplier);
+        }
+        try {
+            return CompletableFuture.supplyAsync(supplier, JdbcExecutor.get());
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<R> future = new CompletableFuture<>();
+            future.completeExceptionally(new BusyException());
+            return future;
+        }
+    }
+}
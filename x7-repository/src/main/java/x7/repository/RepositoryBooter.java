@@ -20,6 +20,9 @@ import x7.core.async.CasualWorker;
 import x7.core.async.IAsyncTask;
 import x7.core.config.Configs;
 import x7.repository.dao.DaoImpl;
+import x7.repository.dao.DataSourceHolder;
+import x7.repository.dao.MeteredDao;
+import x7.repository.dao.ReplicaPool;
 import x7.repository.internal.DefaultRepository;
 import x7.repository.mapper.Mapper;
 import x7.repository.mapper.MapperFactory;
@@ -132,13 +135,17 @@ public class RepositoryBooter {
         }
     }
 
+    public static void onReplicas(ReplicaPool replicaPool) {
+        DataSourceHolder.setReplicaPool(replicaPool);
+    }
+
     private static void setDataSource(DataSource ds_W, DataSource ds_R) {
 
         if (Objects.isNull(ds_W))
             throw new RuntimeException("Primary DataSource start failed");
 
         DataSourceSetter.set(ds_W, ds_R);
-        SqlRepository.getInstance().setSyncDao(DaoImpl.getInstance());
+        SqlRepository.getInstance().setSyncDao(new MeteredDao(DaoImpl.getInstance()));
 
     }
 
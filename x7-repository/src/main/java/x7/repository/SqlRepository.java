@@ -24,6 +24,8 @@ import x7.core.bean.condition.InCondition;
 import x7.core.bean.condition.ReduceCondition;
 import x7.core.bean.condition.RefreshCondition;
 import x7.core.config.Configs;
+import x7.core.metrics.Metrics;
+import x7.core.metrics.MetricsRecorder;
 import x7.core.repository.CacheResolver;
 import x7.core.repository.X;
 import x7.core.util.JsonX;
@@ -41,6 +43,7 @@ import java.util.*;
 public class SqlRepository implements Repository {
 
     private final static Logger logger = LoggerFactory.getLogger(SqlRepository.class);
+    private final static String LOAD_ALL = "loadAll";
     private static SqlRepository instance;
 
     public static SqlRepository getInstance() {
@@ -72,9 +75,7 @@ public class SqlRepository implements Repository {
     private String getCacheKey(Object obj, Parsed parsed) {
         try {
 
-            Field field = obj.getClass().getDeclaredField(parsed.getKey(X.KEY_ONE));
-            field.setAccessible(true);
-            String keyOne = field.get(obj).toString();
+            String keyOne = parsed.getKeyOneValue(obj).toString();
             return keyOne;
 
         } catch (Exception e) {
@@ -91,9 +92,11 @@ public class SqlRepository implements Repository {
             keySet.add(key);
         }
 
+        int missing = 0;
         for (String key : keyList) {
             if (!keySet.contains(key)) {
 
+                missing++;
                 T obj = null;
 
                 Field f = parsed.getKeyField(X.KEY_ONE);
@@ -132,6 +135,8 @@ public class SqlRepository implements Repository {
             }
         }
 
+        if (missing > 0)
+            Metrics.get().recordCache(clz, MetricsRecorder.Cache.REPAIR, missing);
     }
 
     private <T> List<T> sort(List<String> keyList, List<T> list, Parsed parsed) {
@@ -251,17 +256,94 @@ public class SqlRepository implements Repository {
             return syncDao.get(clz, idOne);
         }
 
-        String key = String.valueOf(idOne);
-        T obj = cacheResolver.get(clz, key);
+        T obj = getIfCached(clz, idOne);
 
         if (obj == null) {
-            obj = syncDao.get(clz, idOne);
-            cacheResolver.set(clz, key, obj);
+            obj = getAndCache(clz, idOne);
         }
 
         return obj;
     }
 
+    /**
+     * cache only, no dao
+     * @return null if no cache, or not cached
+     */
+    protected <T> T getIfCached(Class<T> clz, long idOne) {
+        Parsed parsed = Parser.get(clz);
+        if (isNoCache() || parsed.isNoCache())
+            return null;
+        return cacheResolver.get(clz, String.valueOf(idOne));
+    }
+
+    protected <T> T getAndCache(Class<T> clz, long idOne) {
+        testAvailable();
+        Parsed parsed = Parser.get(clz);
+        T obj = syncDao.get(clz, idOne);
+        if (!isNoCache() && !parsed.isNoCache()) {
+            cacheResolver.set(clz, String.valueOf(idOne), obj);
+        }
+        return obj;
+    }
+
+    /**
+     * cache only, no dao
+     * @param clz
+     * @param condition conditionObj, Criteria, or the condition string
+     * @return null if no cache, or not all objects cached
+     */
+    protected <T> List<T> listIfCached(Class clz, Object condition) {
+        Parsed parsed = Parser.get(clz);
+        if (isNoCache() || parsed.isNoCache())
+            return null;
+
+        List<String> keyList = cacheResolver.getResultKeyList(clz, condition);
+        if (keyList == null || keyList.isEmpty())
+            return null;
+
+        List<T> list = cacheResolver.list(clz, keyList);
+        if (keyList.size() != list.size())
+            return null;
+        return list;
+    }
+
+    /**
+     * cache only, no dao
+     * @return null if no cache, or not all objects cached
+     */
+    protected <T> Page<T> findIfCached(Criteria criteria) {
+        Class clz = criteria.getClz();
+        if (isNoCache())
+            return null;
+
+        Page<T> p = cacheResolver.getResultKeyListPaginated(clz, criteria);
+        if (p == null)
+            return null;
+
+        List<String> keyList = p.getKeyList();
+        if (keyList == null || keyList.isEmpty())
+            return p;
+
+        List<T> list = cacheResolver.list(clz, keyList);
+        if (keyList.size() != list.size())
+            return null;
+        p.reSetList(list);
+        return p;
+    }
+
+    protected String getLoadAllCondition() {
+        return LOAD_ALL;
+    }
+
+    protected String getInCondition(InCondition inCondition) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(inCondition.getProperty()).append(":");
+        for (Object obj : inCondition.getInList()) {
+            sb.append(obj.toString()).append("_");
+        }
+        return sb.toString();
+    }
+
     @Override
     public <T> List<T> list(Object conditionObj) {
         testAvailable();
@@ -370,7 +452,7 @@ public class SqlRepository implements Repository {
         Page<T> p = cacheResolver.getResultKeyListPaginated(clz, criteria);// FIXME
 
         if (p == null) {
-            syncDao.find(criteria);
+            p = syncDao.find(criteria);
 
             list = p.getList(); // 结果
 
@@ -467,7 +549,7 @@ public class SqlRepository implements Repository {
 
         List<T> list = null;
 
-        String condition = "loadAll";
+        String condition = LOAD_ALL;
 
         List<String> keyList = cacheResolver.getResultKeyList(clz, condition);
 
@@ -527,22 +609,14 @@ public class SqlRepository implements Repository {
     protected <T> List<T> in0(InCondition inCondition) {
 
         Class clz = inCondition.getClz();
-        String inProperty = inCondition.getProperty();
 
         Parsed parsed = Parser.get(clz);
 
-        List<? extends Object> inList = inCondition.getInList();
-
         if (isNoCache() || parsed.isNoCache()) {
             return syncDao.in(inCondition);
         }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append(inProperty).append(":");
-        for (Object obj : inList) {
-            sb.append(obj.toString()).append("_");
-        }
-        String condition = sb.toString();
+        String condition = getInCondition(inCondition);
 
         List<String> keyList = cacheResolver.getResultKeyList(clz, condition);
 
@@ -578,22 +652,44 @@ public class SqlRepository implements Repository {
     }
 
 
-    @Override
-    public <T> List<T> in(InCondition inCondition) {
+    /**
+     * cache only, no dao
+     * @return null if no cache, not all objects cached, or more than IN_MAX
+     */
+    protected <T> List<T> inIfCached(InCondition inCondition) {
 
-        testAvailable();
-        if (inCondition.getInList().isEmpty())
+        List<Object> inList = distinct(inCondition.getInList());
+        if (inList.isEmpty())
             return new ArrayList<T>();
+        if (inList.size() > IN_MAX)
+            return null;
 
+        InCondition ic = new InCondition(inCondition.getProperty(), inList);
+        ic.setClz(inCondition.getClz());
+        return listIfCached(inCondition.getClz(), getInCondition(ic));
+    }
+
+    private List<Object> distinct(List<? extends Object> list) {
         List<Object> inList = new ArrayList<Object>();
 
-        for (Object obj : inCondition.getInList()) {
+        for (Object obj : list) {
             if (Objects.isNull(obj))
                 continue;
             if (!inList.contains(obj)) {
                 inList.add(obj);
             }
         }
+        return inList;
+    }
+
+    @Override
+    public <T> List<T> in(InCondition inCondition) {
+
+        testAvailable();
+        if (inCondition.getInList().isEmpty())
+            return new ArrayList<T>();
+
+        List<Object> inList = distinct(inCondition.getInList());
 
         if (inList.isEmpty())
             return new ArrayList<T>();
@@ -18,18 +18,19 @@ package x7.repository.dao;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import x7.core.async.ExecutorFactory;
 import x7.core.async.HeartBeator;
 import x7.core.async.HeartBeat;
 import x7.core.bean.BeanElement;
 import x7.core.bean.Parsed;
 import x7.core.bean.Parser;
+import x7.core.metrics.Metrics;
 import x7.core.repository.X;
 import x7.core.util.TimeUtil;
 import x7.repository.mapper.Mapper;
 import x7.repository.mapper.MapperFactory;
 
 import javax.sql.DataSource;
-import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -38,7 +39,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 
 /**
@@ -58,15 +58,17 @@ public class AsyncDaoImpl implements HeartBeat, AsyncDao {
 	 * 延时1分钟
 	 */
 	private final static int HEARTBEAT_DELAY = (int) TimeUtil.ONE_MINUTE;
-	private long heartBeatTime = 0; // 降低心跳的实时性来提高性能
 
-	private final ExecutorService mainExecutor = Executors.newSingleThreadExecutor();
+	/**
+	 * 平台线程, 不受x7.execution-mode影响
+	 */
+	private final ExecutorService mainExecutor = ExecutorFactory.newSingleThreadExecutor("x7-async-dao", false);
 
-	private final ExecutorService inner = Executors.newSingleThreadExecutor();
+	private final ExecutorService inner = ExecutorFactory.newSingleThreadExecutor("x7-async-dao-batch", false);
 
 
 	public AsyncDaoImpl() {
-		HeartBeator.add(this);
+		HeartBeator.add(this, HEARTBEAT_DELAY);
 	}
 
 	@Autowired
@@ -332,20 +334,14 @@ public class AsyncDaoImpl implements HeartBeat, AsyncDao {
 			pstmt = conn.prepareStatement(sql);
 			
 			Parsed parsed = Parser.get(objList.get(0).getClass());
+			Metrics.get().recordBatch(parsed.getClz(), "create", objList.size());
 			
 			for (Object obj : objList) {
 
 				int i = 1;
 				for (BeanElement ele : eles) {
 
-					Method method = null;
-					try {
-						method = obj.getClass().getSuperclass()
-								.getDeclaredMethod(ele.getter);
-					} catch (NoSuchMethodException e) {
-						method = obj.getClass().getDeclaredMethod(ele.getter);
-					}
-					Object value = method.invoke(obj);
+					Object value = ele.getAccessor.get(obj);
 					pstmt.setObject(i++, value);
 				}
 
@@ -425,14 +421,14 @@ public class AsyncDaoImpl implements HeartBeat, AsyncDao {
 				pstmt = conn.prepareStatement(sql);
 				
 				Parsed parsed = Parser.get(clz);
-				String keyOne = parsed.getKey(X.KEY_ONE);
 				
 				ArrayList<Object> objList = tempMap.get(clz);
+				Metrics.get().recordBatch(clz, "remove", objList.size());
 				for (Object obj : objList) {
 
 					int i = 1;
 					
-					SqlUtil.adpterSqlKey(pstmt, keyOne, obj, i);
+					SqlUtil.adpterSqlKey(pstmt, parsed, obj, i);
 
 					pstmt.addBatch();
 				}
@@ -542,6 +538,7 @@ public class AsyncDaoImpl implements HeartBeat, AsyncDao {
 			pstmt = conn.prepareStatement(sql);
 			
 			Parsed parsed = Parser.get(objList.get(0).getClass());
+			Metrics.get().recordBatch(parsed.getClz(), "refresh", objList.size());
 			String keyOne = parsed.getKey(X.KEY_ONE);
 			
 			for (Object obj : objList) {
@@ -554,21 +551,14 @@ public class AsyncDaoImpl implements HeartBeat, AsyncDao {
 					}
 					
 
-					Method method = null;
-					try {
-						method = obj.getClass().getSuperclass()
-								.getDeclaredMethod(ele.getter);
-					} catch (NoSuchMethodException e) {
-						method = obj.getClass().getDeclaredMethod(ele.getter);
-					}
-					Object value = method.invoke(obj);
+					Object value = ele.getAccessor.get(obj);
 					pstmt.setObject(i++, value);
 				}
 				
 				/*
 				 * 处理KEY
 				 */
-				SqlUtil.adpterSqlKey(pstmt, keyOne, obj, i);
+				SqlUtil.adpterSqlKey(pstmt, parsed, obj, i);
 
 				pstmt.addBatch();
 			}
@@ -613,20 +603,13 @@ public class AsyncDaoImpl implements HeartBeat, AsyncDao {
 			@SuppressWarnings("rawtypes")
 			@Override
 			public void run()  {
-				if (heartBeatTime == 0){
-					heartBeatTime = now;
-					return;
-				}
-				if (now - heartBeatTime >= HEARTBEAT_DELAY) {
-					heartBeatTime = now;
-					/*
-					 * 定时批处理
-					 */
-					try {
-						batch();
-					}catch (Exception e){
-						e.printStackTrace();
-					}
+				/*
+				 * 定时批处理, 每HEARTBEAT_DELAY一次
+				 */
+				try {
+					batch();
+				}catch (Exception e){
+					e.printStackTrace();
 				}
 			}
 		});
@@ -32,6 +32,7 @@ import x7.repository.exception.PersistenceException;
 import x7.repository.exception.RollbackException;
 import x7.repository.mapper.Mapper;
 import x7.repository.mapper.MapperFactory;
+import x7.repository.monitor.SqlStatistics;
 import x7.repository.util.ResultSortUtil;
 
 import java.io.IOException;
@@ -102,6 +103,7 @@ public class DaoImpl implements Dao {
 
         Connection conn = null;
         PreparedStatement pstmt = null;
+        long startTime = 0;
         try {
             Parsed parsed = Parser.get(clz);
 
@@ -111,7 +113,7 @@ public class DaoImpl implements Dao {
                 throw new PersistenceException("No setting of PrimaryKey by @X.Key");
             Class keyOneType = keyOneField.getType();
             if (keyOneType != String.class) {
-                keyOneValue = keyOneField.getLong(obj);
+                keyOneValue = parsed.getKeyOneLong(obj);
             }
 
             conn = DataSourceUtil.getConnection();
@@ -127,7 +129,7 @@ public class DaoImpl implements Dao {
                 int i = 1;
                 for (BeanElement ele : eles) {
 
-                    Object value = ele.getMethod.invoke(o);
+                    Object value = ele.getAccessor.get(o);
                     if (value == null) {
                         if (ele.clz.isEnum())
                             throw new PersistenceException(
@@ -156,9 +158,12 @@ public class DaoImpl implements Dao {
 
             }
 
+            startTime = System.nanoTime();
             pstmt.executeBatch();
+            SqlStatistics.record(sql, startTime, objList.size(), null);
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, null, e);
             e.printStackTrace();
 
             throw new RollbackException("RollbackException: " + ExceptionUtil.getMessage(e) + ", while create: " + obj);
@@ -180,6 +185,7 @@ public class DaoImpl implements Dao {
         boolean flag = false;
 
         PreparedStatement pstmt = null;
+        long startTime = 0;
         try {
 
             pstmt = conn.prepareStatement(sql);
@@ -191,11 +197,15 @@ public class DaoImpl implements Dao {
             Field keyOneField = parsed.getKeyField(X.KEY_ONE);
             if (Objects.isNull(keyOneField))
                 throw new PersistenceException("No setting of PrimaryKey by @X.Key");
-            SqlUtil.adpterSqlKey(pstmt, keyOneField, obj, i);
+            SqlUtil.adpterSqlKey(pstmt, parsed, obj, i);
 
-            flag = pstmt.executeUpdate() == 0 ? false : true;
+            startTime = System.nanoTime();
+            int updated = pstmt.executeUpdate();
+            SqlStatistics.record(sql, startTime, updated, obj);
+            flag = updated == 0 ? false : true;
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, obj, e);
             e.printStackTrace();
             throw new RollbackException("RollbackException: " + e.getMessage());
 
@@ -217,6 +227,7 @@ public class DaoImpl implements Dao {
 
         long id = -1;
         PreparedStatement pstmt = null;
+        long startTime = 0;
         try {
             Parsed parsed = Parser.get(clz);
             Long keyOneValue = 0L;
@@ -227,7 +238,7 @@ public class DaoImpl implements Dao {
             if (keyOneType == String.class) {
                 keyOneValue = 1L;
             }else{
-                keyOneValue = keyOneField.getLong(obj);
+                keyOneValue = parsed.getKeyOneLong(obj);
             }
 
             /*
@@ -243,7 +254,7 @@ public class DaoImpl implements Dao {
             int i = 1;
             for (BeanElement ele : eles) {
 
-                Object value = ele.getMethod.invoke(obj);
+                Object value = ele.getAccessor.get(obj);
                 if (value == null) {
                     if (ele.clz.isEnum())
                         throw new PersistenceException(
@@ -269,7 +280,9 @@ public class DaoImpl implements Dao {
 
             }
 
+            startTime = System.nanoTime();
             pstmt.execute();
+            SqlStatistics.record(sql, startTime, 1, obj);
 
             if (keyOneType != String.class && (keyOneValue == null || keyOneValue == 0)) {
                 ResultSet rs = pstmt.getGeneratedKeys();
@@ -282,6 +295,7 @@ public class DaoImpl implements Dao {
             }
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, obj, e);
             System.out.println("Exception occured, while create: " + obj);
             e.printStackTrace();
 
@@ -319,6 +333,7 @@ public class DaoImpl implements Dao {
         boolean flag = false;
 
         PreparedStatement pstmt = null;
+        long startTime = 0;
         try {
 
             pstmt = conn.prepareStatement(sql);
@@ -335,11 +350,15 @@ public class DaoImpl implements Dao {
             Field keyOneField = parsed.getKeyField(X.KEY_ONE);
             if (Objects.isNull(keyOneField))
                 throw new PersistenceException("No setting of PrimaryKey by @X.Key");
-            SqlUtil.adpterSqlKey(pstmt, keyOneField, obj, i);
+            SqlUtil.adpterSqlKey(pstmt, parsed, obj, i);
 
-            flag = pstmt.executeUpdate() == 0 ? false : true;
+            startTime = System.nanoTime();
+            int updated = pstmt.executeUpdate();
+            SqlStatistics.record(sql, startTime, updated, refreshMap);
+            flag = updated == 0 ? false : true;
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, refreshMap, e);
             e.printStackTrace();
 
             throw new RollbackException("RollbackException: " + e.getMessage());
@@ -399,6 +418,7 @@ public class DaoImpl implements Dao {
 
         PreparedStatement pstmt = null;
         BeanElement tempEle = null;
+        long startTime = 0;
         try {
             conn.setAutoCommit(true);
             pstmt = conn.prepareStatement(sql);
@@ -407,6 +427,7 @@ public class DaoImpl implements Dao {
 
             pstmt.setObject(i++, idOne);
 
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
 
             if (rs != null) {
@@ -416,8 +437,10 @@ public class DaoImpl implements Dao {
                     initObj(obj, rs, tempEle, eles);
                 }
             }
+            SqlStatistics.record(sql, startTime, list.size(), idOne);
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, idOne, e);
             e.printStackTrace();
             throw new RollbackException(
                     "Exception occured by class = " + clz.getName() + ",column："+ tempEle!=null?(tempEle.property+"|"+tempEle.getMapper()):"" + ", message: " + ExceptionUtil.getMessage(e));
@@ -454,6 +477,7 @@ public class DaoImpl implements Dao {
 
         PreparedStatement pstmt = null;
 
+        long startTime = 0;
         try {
             conn.setAutoCommit(true);
             pstmt = conn.prepareStatement(sql);
@@ -466,6 +490,7 @@ public class DaoImpl implements Dao {
                 }
             }
 
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
 
             if (rs != null) {
@@ -486,8 +511,10 @@ public class DaoImpl implements Dao {
 
                 }
             }
+            SqlStatistics.record(sql, startTime, list.size(), conditionList);
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, conditionList, e);
             e.printStackTrace();
         } finally {
             close(pstmt);
@@ -513,11 +540,13 @@ public class DaoImpl implements Dao {
         Connection conn = null;
         PreparedStatement pstmt = null;
         BeanElement tempEle = null;
+        long startTime = 0;
         try {
             conn = RcDataSourceUtil.getConnection();
             conn.setAutoCommit(true);
             pstmt = conn.prepareStatement(sql);
 
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
 
             if (rs != null) {
@@ -527,8 +556,10 @@ public class DaoImpl implements Dao {
                     initObj(obj, rs, tempEle, eles);
                 }
             }
+            SqlStatistics.record(sql, startTime, list.size(), null);
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, null, e);
             e.printStackTrace();
             throw new RollbackException(
                     "Exception occured by class = " + clz.getName() + ",column："+ tempEle!=null?(tempEle.property+"|"+tempEle.getMapper()):"" + ", message: " + ExceptionUtil.getMessage(e));
@@ -558,6 +589,7 @@ public class DaoImpl implements Dao {
 
         PreparedStatement pstmt = null;
         BeanElement tempEle = null;
+        long startTime = 0;
         try {
             conn.setAutoCommit(true);
             pstmt = conn.prepareStatement(sql);
@@ -569,6 +601,7 @@ public class DaoImpl implements Dao {
             }
 
             List<BeanElement> eles = parsed.getBeanElementList();
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
             if (rs != null) {
                 while (rs.next()) {
@@ -577,8 +610,10 @@ public class DaoImpl implements Dao {
                     initObj(obj, rs, tempEle, eles);
                 }
             }
+            SqlStatistics.record(sql, startTime, list.size(), queryMap);
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, queryMap, e);
             e.printStackTrace();
             throw new RollbackException(
                     "Exception occured by class = " + clz.getName() + ",column："+ tempEle!=null?(tempEle.property+"|"+tempEle.getMapper()):"" +", message: " + ExceptionUtil.getMessage(e));
@@ -616,6 +651,7 @@ public class DaoImpl implements Dao {
 
         PreparedStatement pstmt = null;
         BeanElement tempEle = null;
+        long startTime = 0;
         try {
             conn.setAutoCommit(true);
             pstmt = conn.prepareStatement(sql);
@@ -626,6 +662,7 @@ public class DaoImpl implements Dao {
                 this.dialect.setObject(i++, value, pstmt);
             }
 
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
 
             if (rs != null) {
@@ -641,8 +678,10 @@ public class DaoImpl implements Dao {
                 }
 
             }
+            SqlStatistics.record(sql, startTime, list.size(), valueList);
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, valueList, e);
             e.printStackTrace();
             throw new RollbackException(
                     "Exception occured by class = " + clz.getName() + ",column："+ tempEle!=null?(tempEle.property+"|"+tempEle.getMapper()):"" + ", message: " + ExceptionUtil.getMessage(e));
@@ -682,6 +721,7 @@ public class DaoImpl implements Dao {
 
         PreparedStatement pstmt = null;
         BeanElement tempEle = null;
+        long startTime = 0;
         try {
             conn.setAutoCommit(true);
             pstmt = conn.prepareStatement(sql);
@@ -692,6 +732,7 @@ public class DaoImpl implements Dao {
                 this.dialect.setObject(i++, value, pstmt);
             }
 
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
 
             if (rs != null) {
@@ -706,6 +747,7 @@ public class DaoImpl implements Dao {
                     initObj(obj, rs, tempEle, eles);
 
                 }
+                SqlStatistics.record(sql, startTime, list.size(), valueList);
 
                 Parsed parsed = Parser.get(clz);
                 ResultSortUtil.sort(list,criteria,parsed);
@@ -725,6 +767,7 @@ public class DaoImpl implements Dao {
             }
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, valueList, e);
             e.printStackTrace();
             throw new RollbackException(
                     "Exception occured by class = " + clz.getName() + ", message: " + ExceptionUtil.getMessage(e));
@@ -788,8 +831,8 @@ public class DaoImpl implements Dao {
         Object result = null;
 
         PreparedStatement pstmt = null;
+        long startTime = 0;
         try {
-            conn = RcDataSourceUtil.getConnection();
             conn.setAutoCommit(true);
             pstmt = conn.prepareStatement(sql);
 
@@ -801,13 +844,16 @@ public class DaoImpl implements Dao {
                 this.dialect.setObject(i++, value, pstmt);
             }
 
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
                 result = rs.getObject(returnStr);
             }
+            SqlStatistics.record(sql, startTime, result == null ? 0 : 1, valueList);
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, null, e);
             e.printStackTrace();
         } finally {
             close(pstmt);
@@ -829,6 +875,7 @@ public class DaoImpl implements Dao {
         long count = 0;
         Connection conn = null;
         PreparedStatement pstmt = null;
+        long startTime = 0;
         try {
             conn = RcDataSourceUtil.getConnection();
             conn.setAutoCommit(true);
@@ -840,13 +887,16 @@ public class DaoImpl implements Dao {
                 this.dialect.setObject(i++, value, pstmt);
             }
 
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
                 count = rs.getLong("count");
             }
+            SqlStatistics.record(sql, startTime, 1, set);
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, set, e);
             e.printStackTrace();
         } finally {
             close(pstmt);
@@ -884,6 +934,7 @@ public class DaoImpl implements Dao {
         Connection conn = null;
         PreparedStatement pstmt = null;
         BeanElement tempEle = null;
+        long startTime = 0;
         try {
             conn = RcDataSourceUtil.getConnection();
             conn.setAutoCommit(true);
@@ -896,6 +947,7 @@ public class DaoImpl implements Dao {
             }
 
             List<BeanElement> eles = parsed.getBeanElementList();
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
             if (rs != null) {
                 while (rs.next()) {
@@ -904,8 +956,10 @@ public class DaoImpl implements Dao {
                     initObj(obj, rs, tempEle, eles);
                 }
             }
+            SqlStatistics.record(sql, startTime, list.size(), queryMap);
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, queryMap, e);
             e.printStackTrace();
             throw new RollbackException(
                     "Exception occured by class = " + clz.getName() + ", message: " + ExceptionUtil.getMessage(e));
@@ -942,14 +996,19 @@ public class DaoImpl implements Dao {
         boolean b = false;
         Connection conn = null;
         PreparedStatement pstmt = null;
+        long startTime = 0;
         try {
 
             conn = DataSourceUtil.getConnection();
             pstmt = conn.prepareStatement(sql);
 
-            b = pstmt.executeUpdate() == 0 ? false : true;
+            startTime = System.nanoTime();
+            int updated = pstmt.executeUpdate();
+            SqlStatistics.record(sql, startTime, updated, null);
+            b = updated == 0 ? false : true;
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, null, e);
             e.printStackTrace();
             throw new RuntimeException(e.getMessage());
         } finally {
@@ -984,6 +1043,7 @@ public class DaoImpl implements Dao {
         boolean flag = false;
 
         PreparedStatement pstmt = null;
+        long startTime = 0;
         try {
             pstmt = conn.prepareStatement(sql);
 
@@ -995,9 +1055,13 @@ public class DaoImpl implements Dao {
 
             SqlUtil.adpterRefreshCondition(pstmt, i, refreshCondition.getCondition());
 
-            flag = pstmt.executeUpdate() == 0 ? false : true;
+            startTime = System.nanoTime();
+            int updated = pstmt.executeUpdate();
+            SqlStatistics.record(sql, startTime, updated, refreshMap);
+            flag = updated == 0 ? false : true;
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, refreshMap, e);
             flag = false;
             e.printStackTrace();
             throw new RollbackException(
@@ -1095,11 +1159,13 @@ public class DaoImpl implements Dao {
         Connection conn = null;
         PreparedStatement pstmt = null;
         BeanElement tempEle = null;
+        long startTime = 0;
         try {
             conn = RcDataSourceUtil.getConnection();
             conn.setAutoCommit(true);
             pstmt = conn.prepareStatement(sql);
 
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
 
             if (rs != null) {
@@ -1109,8 +1175,10 @@ public class DaoImpl implements Dao {
                     initObj(obj, rs, tempEle, eles);
                 }
             }
+            SqlStatistics.record(sql, startTime, list.size(), null);
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, null, e);
             e.printStackTrace();
             throw new RollbackException(
                     "Exception occured by class = " + clz.getName() + ", message: " + ExceptionUtil.getMessage(e));
@@ -1159,6 +1227,7 @@ public class DaoImpl implements Dao {
         List<Map<String,Object>> list = pagination.getList();
 
         PreparedStatement pstmt = null;
+        long startTime = 0;
         try {
             conn.setAutoCommit(true);
             pstmt = conn.prepareStatement(sql);
@@ -1170,6 +1239,7 @@ public class DaoImpl implements Dao {
             }
 
 
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
 
             if (rs != null) {
@@ -1189,6 +1259,7 @@ public class DaoImpl implements Dao {
                         mapR.put(property, obj);
                     }
                 }
+                SqlStatistics.record(sql, startTime, list.size(), valueList);
 
                 ResultSortUtil.sort(list,resultMapped);
 
@@ -1209,6 +1280,7 @@ public class DaoImpl implements Dao {
             }
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, valueList, e);
             e.printStackTrace();
         } finally {
             close(pstmt);
@@ -1247,6 +1319,7 @@ public class DaoImpl implements Dao {
 
         Connection conn = null;
         PreparedStatement pstmt = null;
+        long startTime = 0;
         try {
             conn = RcDataSourceUtil.getConnection();
             conn.setAutoCommit(true);
@@ -1258,6 +1331,7 @@ public class DaoImpl implements Dao {
                 this.dialect.setObject(i++, value, pstmt);
             }
 
+            startTime = System.nanoTime();
             ResultSet rs = pstmt.executeQuery();
 
             if (rs != null) {
@@ -1278,6 +1352,7 @@ public class DaoImpl implements Dao {
                     }
 
                 }
+                SqlStatistics.record(sql, startTime, list.size(), valueList);
 
                 String resultKey0 = resultKeyList.get(0);
                 if (!resultKey0.contains("."))
@@ -1285,6 +1360,7 @@ public class DaoImpl implements Dao {
             }
 
         } catch (Exception e) {
+            SqlStatistics.failed(sql, startTime, valueList, e);
             e.printStackTrace();
         } finally {
             close(pstmt);
@@ -1320,4 +1396,4 @@ public class DaoImpl implements Dao {
         return list.get(0);
     }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -28,6 +28,7 @@ public class DataSourceHolder {
 
     private static DataSource dataSource;
     private static DataSource readableDataSource;
+    private static ReplicaPool replicaPool;
 
     public static DataSource getDataSource() {
         return dataSource;
@@ -49,6 +50,14 @@ public class DataSourceHolder {
             put(READABLE_DEFAULT,readableDatasource);
     }
 
+    public static ReplicaPool getReplicaPool() {
+        return replicaPool;
+    }
+
+    public static void setReplicaPool(ReplicaPool replicaPool) {
+        DataSourceHolder.replicaPool = replicaPool;
+    }
+
     private final static Map<String,DataSource> map = new ConcurrentHashMap<>();
 
     public static void put(String key, DataSource dataSource){
@@ -17,6 +17,7 @@
 package x7.repository.dao;
 
 import org.springframework.jdbc.datasource.DataSourceUtils;
+import x7.core.metrics.Metrics;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -31,7 +32,15 @@ public class DataSourceUtil {
         String key = DataSourceHolder.WRITEABLE_DEFAULT;
         DataSource ds = DataSourceHolder.getDataSource();
 
-        Connection conn = DataSourceUtils.getConnection(ds);
+        long start = System.nanoTime();
+        Connection conn;
+        try {
+            conn = DataSourceUtils.getConnection(ds);
+        } finally {
+            Metrics.get().recordConnectionWait("write", System.nanoTime() - start);
+        }
+
+        RcDataSourceUtil.onWritten();
 
         return conn;
     }
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.repository.dao;
+
+import com.zaxxer.hikari.HikariDataSource;
+import x7.core.async.ExecutorFactory;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bounded executor for the blocking jdbc work of async query <br>
+ * pool size: the readable hikari pool size (sum of replicas), or poolSize configed <br>
+ * queue full: RejectedExecutionException, no caller blocked <br>
+ * virtual mode: one virtual thread per task, poolSize + queueCapacity tasks at most, <br>
+ * poolSize of them running the jdbc work at a time, as the connection pool <br>
+ */
+public class JdbcExecutor {
+
+    private final static int DEFAULT_POOL_SIZE = 10;
+    private final static int QUEUE_FACTOR = 64;
+
+    private static int poolSize = 0;
+    private static int queueCapacity = 0;
+
+    private final static AtomicReference<Executor> executorRef = new AtomicReference<>();
+
+    /**
+     * before the first get()
+     * @param poolSize 0: sized to hikari pool
+     */
+    public static void setPoolSize(int poolSize) {
+        JdbcExecutor.poolSize = poolSize;
+    }
+
+    /**
+     * before the first get()
+     * @param queueCapacity 0: poolSize * 64
+     */
+    public static void setQueueCapacity(int queueCapacity) {
+        JdbcExecutor.queueCapacity = queueCapacity;
+    }
+
+    public static Executor get() {
+        Executor executor = executorRef.get();
+        if (executor != null)
+            return executor;
+
+        executor = create();
+        if (executorRef.compareAndSet(null, executor))
+            return executor;
+
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+        return executorRef.get();
+    }
+
+    private static Executor create() {
+
+        int size = poolSize > 0 ? poolSize : getReadablePoolSize();
+        int capacity = queueCapacity > 0 ? queueCapacity : size * QUEUE_FACTOR;
+
+        if (ExecutorFactory.isVirtual()) {
+            return new BoundedExecutor(ExecutorFactory.newTaskExecutor("x7-jdbc", size), size, size + capacity);
+        }
+
+        ThreadPoolExecutor tpe = new ThreadPoolExecutor(size, size,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(capacity),
+                ExecutorFactory.threadFactory("x7-jdbc", true),
+                new ThreadPoolExecutor.AbortPolicy());
+        tpe.allowCoreThreadTimeOut(true);
+        return tpe;
+    }
+
+    private static int getReadablePoolSize() {
+
+        ReplicaPool replicaPool = DataSourceHolder.getReplicaPool();
+        if (replicaPool != null && !replicaPool.isEmpty()) {
+            int size = 0;
+            for (ReplicaPool.Replica replica : replicaPool.getReplicaList()) {
+                size += getPoolSize(replica.getDataSource());
+            }
+            return size;
+        }
+
+        DataSource ds = DataSourceHolder.getReadableDataSource();
+        if (ds == null) {
+            ds = DataSourceHolder.getDataSource();
+        }
+        return getPoolSize(ds);
+    }
+
+    private static int getPoolSize(DataSource ds) {
+        if (ds instanceof HikariDataSource) {
+            int size = ((HikariDataSource) ds).getMaximumPoolSize();
+            if (size > 0)
+                return size;
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+
+    private static class BoundedExecutor implements Executor {
+
+        private final ExecutorService executor;
+        private final Semaphore semaphore;
+        /**
+         * the virtual threads blocked here, not on the connection pool
+         */
+        private final Semaphore running;
+
+        private BoundedExecutor(ExecutorService executor, int concurrency, int bound) {
+            this.executor = executor;
+            this.semaphore = new Semaphore(bound);
+            this.running = new Semaphore(concurrency);
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            if (!semaphore.tryAcquire())
+                throw new RejectedExecutionException("JdbcExecutor full");
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            running.acquireUninterruptibly();
+                            try {
+                                command.run();
+                            } finally {
+                                running.release();
+                            }
+                        } finally {
+                            semaphore.release();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                semaphore.release();
+                throw e;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.repository.dao;
+
+import x7.core.bean.Criteria;
+import x7.core.bean.condition.InCondition;
+import x7.core.bean.condition.ReduceCondition;
+import x7.core.bean.condition.RefreshCondition;
+import x7.core.metrics.Metrics;
+import x7.core.metrics.MetricsRecorder;
+import x7.core.web.Direction;
+import x7.core.web.Page;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * latency and rows of every call to the dao, per entity class and operation <br>
+ * no-op if Metrics not enabled <br>
+ */
+public class MeteredDao implements Dao {
+
+    private final Dao dao;
+
+    public MeteredDao(Dao dao) {
+        this.dao = dao;
+    }
+
+    public Dao getDao() {
+        return dao;
+    }
+
+    private static <R> R record(Class<?> clz, String op, Supplier<R> supplier) {
+        MetricsRecorder recorder = Metrics.get();
+        if (!Metrics.isEnabled())
+            return supplier.get();
+
+        long startTime = System.nanoTime();
+        R r;
+        try {
+            r = supplier.get();
+        } catch (RuntimeException e) {
+            recorder.recordQuery(clz, op, System.nanoTime() - startTime, -1, true);
+            throw e;
+        }
+        recorder.recordQuery(clz, op, System.nanoTime() - startTime, rows(r), false);
+        return r;
+    }
+
+    private static int rows(Object r) {
+        if (r == null)
+            return 0;
+        if (r instanceof Collection)
+            return ((Collection) r).size();
+        if (r instanceof Page) {
+            List list = ((Page) r).getList();
+            return list == null ? 0 : list.size();
+        }
+        if (r instanceof Boolean)
+            return ((Boolean) r) ? 1 : 0;
+        return 1;
+    }
+
+    private static Class<?> clzOf(List<?> objList) {
+        return objList == null || objList.isEmpty() ? null : objList.get(0).getClass();
+    }
+
+    @Override
+    public long create(Object obj) {
+        return record(obj.getClass(), "create", () -> dao.create(obj));
+    }
+
+    @Override
+    public boolean createBatch(List<? extends Object> objList) {
+        Class<?> clz = clzOf(objList);
+        if (clz != null) {
+            Metrics.get().recordBatch(clz, "createBatch", objList.size());
+        }
+        return record(clz, "createBatch", () -> dao.createBatch(objList));
+    }
+
+    @Override
+    public boolean refresh(Object obj) {
+        return record(obj.getClass(), "refresh", () -> dao.refresh(obj));
+    }
+
+    @Override
+    public boolean remove(Object obj) {
+        return record(obj.getClass(), "remove", () -> dao.remove(obj));
+    }
+
+    @Override
+    public <T> boolean refreshByCondition(RefreshCondition<T> conditon) {
+        return record(conditon.getClz(), "refreshByCondition", () -> dao.refreshByCondition(conditon));
+    }
+
+    @Override
+    public <T> T get(Class<T> clz, long idOne) {
+        return record(clz, "get", () -> dao.get(clz, idOne));
+    }
+
+    @Override
+    public <T> List<T> list(Object conditionObj) {
+        return record(conditionObj.getClass(), "list", () -> dao.list(conditionObj));
+    }
+
+    @Override
+    public List<Map<String, Object>> list(Class clz, String sql, List<Object> conditionList) {
+        return record(clz, "listBySql", () -> dao.list(clz, sql, conditionList));
+    }
+
+    @Override
+    public <T> List<T> list(Class<T> clz) {
+        return record(clz, "listAll", () -> dao.list(clz));
+    }
+
+    @Override
+    public <T> T getOne(T conditionObj) {
+        return record(conditionObj.getClass(), "getOne", () -> dao.getOne(conditionObj));
+    }
+
+    @Override
+    public <T> T getOne(T conditionObj, String orderBy, Direction sc) {
+        return record(conditionObj.getClass(), "getOne", () -> dao.getOne(conditionObj, orderBy, sc));
+    }
+
+    @Override
+    public <T> List<T> in(InCondition inCondition) {
+        return record(inCondition.getClz(), "in", () -> dao.in(inCondition));
+    }
+
+    @Override
+    public Page<Map<String, Object>> find(Criteria.ResultMappedCriteria resultMapped) {
+        return record(resultMapped.getClz(), "findResultMapped", () -> dao.find(resultMapped));
+    }
+
+    @Override
+    public List<Map<String, Object>> list(Criteria.ResultMappedCriteria resultMapped) {
+        return record(resultMapped.getClz(), "listResultMapped", () -> dao.list(resultMapped));
+    }
+
+    @Override
+    public <T> Page<T> find(Criteria criteria) {
+        return record(criteria.getClz(), "find", () -> dao.find(criteria));
+    }
+
+    @Override
+    public <T> List<T> list(Criteria criteria) {
+        return record(criteria.getClz(), "listByCriteria", () -> dao.list(criteria));
+    }
+
+    @Override
+    public Object reduce(ReduceCondition reduceCondition) {
+        return record(reduceCondition.getClz(), "reduce", () -> dao.reduce(reduceCondition));
+    }
+
+    @Deprecated
+    @Override
+    public <T> boolean execute(T obj, String sql) {
+        return record(obj.getClass(), "execute", () -> dao.execute(obj, sql));
+    }
+}
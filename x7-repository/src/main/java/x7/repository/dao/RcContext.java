@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.repository.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import x7.core.async.HeartBeat;
+import x7.core.async.HeartBeator;
+
+import java.sql.Connection;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Request scoped readable connection holder <br>
+ * RcContext.open() on request begin, context.close() on request end <br>
+ * carried to other threads by wrap(...), the thread bound while the task running: <br>
+ * CompletableFuture.supplyAsync(context.wrap(supplier), context.wrap(executor)) <br>
+ * the connection used by one thread at a time, other threads read with their own connection <br>
+ * the connection held longer than leakDetectionThreshold reported, and reclaimed if no thread bound <br>
+ */
+public final class RcContext {
+
+    private final static Logger logger = LoggerFactory.getLogger(RcContext.class);
+
+    /**
+     * the context bound to the thread, carried to other threads by attach/detach only
+     */
+    private final static ThreadLocal<RcContext> binding = new ThreadLocal<>();
+
+    private final static Set<RcContext> openSet = ConcurrentHashMap.newKeySet();
+
+    private static volatile long leakDetectionThreshold = 60000;
+
+    private final AtomicReference<Thread> user = new AtomicReference<>();
+    private int depth;
+    /**
+     * the threads bound to this context, released on close, the dead ones pruned by LeakDetector
+     */
+    private final Set<Thread> boundSet = ConcurrentHashMap.newKeySet();
+
+    private volatile Connection connection;
+    private volatile long acquiredTime;
+    private volatile boolean written;
+    private volatile boolean closed;
+    private volatile boolean leakReported;
+
+    static {
+        HeartBeator.add(new LeakDetector(), LeakDetector.INTERVAL);
+    }
+
+    private RcContext() {
+    }
+
+    public static long getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+
+    /**
+     * @param leakDetectionThreshold ms
+     */
+    public static void setLeakDetectionThreshold(long leakDetectionThreshold) {
+        if (leakDetectionThreshold > 0)
+            RcContext.leakDetectionThreshold = leakDetectionThreshold;
+    }
+
+    /**
+     * open and bind to current thread, <br>
+     * the one still bound (not closed by last request) closed
+     */
+    public static RcContext open() {
+        RcContext context = new RcContext();
+        openSet.add(context);
+        Thread thread = Thread.currentThread();
+        RcContext previous = binding.get();
+        binding.set(context);
+        context.boundSet.add(thread);
+        if (previous != null) {
+            previous.boundSet.remove(thread);
+            if (!previous.closed) {
+                logger.warn("RcContext not closed, closed by next open, thread: " + Thread.currentThread().getName());
+                previous.close();
+            }
+        }
+        return context;
+    }
+
+    /**
+     * @return null if no context bound to current thread
+     */
+    public static RcContext current() {
+        return binding.get();
+    }
+
+    /**
+     * bind to current thread
+     * @return the previous one, to restore by detach(previous)
+     */
+    public RcContext attach() {
+        RcContext previous = binding.get();
+        if (previous == this)
+            return this;
+        Thread thread = Thread.currentThread();
+        binding.set(this);
+        boundSet.add(thread);
+        if (previous != null) {
+            previous.boundSet.remove(thread);
+        }
+        return previous;
+    }
+
+    public void detach(RcContext previous) {
+        if (previous == this)
+            return;
+        Thread thread = Thread.currentThread();
+        boundSet.remove(thread);
+        if (previous == null) {
+            if (binding.get() == this) {
+                binding.remove();
+            }
+        } else {
+            previous.boundSet.add(thread);
+            binding.set(previous);
+        }
+    }
+
+    public Runnable wrap(final Runnable runnable) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                RcContext previous = attach();
+                try {
+                    runnable.run();
+                } finally {
+                    detach(previous);
+                }
+            }
+        };
+    }
+
+    public <T> Supplier<T> wrap(final Supplier<T> supplier) {
+        return new Supplier<T>() {
+            @Override
+            public T get() {
+                RcContext previous = attach();
+                try {
+                    return supplier.get();
+                } finally {
+                    detach(previous);
+                }
+            }
+        };
+    }
+
+    public <T> Callable<T> wrap(final Callable<T> callable) {
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                RcContext previous = attach();
+                try {
+                    return callable.call();
+                } finally {
+                    detach(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * the tasks run by the executor bound to this context
+     */
+    public Executor wrap(final Executor executor) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executor.execute(wrap(command));
+            }
+        };
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * close the connection, unbind current thread
+     */
+    public void close() {
+        closed = true;
+        openSet.remove(this);
+        if (binding.get() == this) {
+            binding.remove();
+        }
+        boundSet.clear();
+        Connection conn = connection;
+        connection = null;
+        if (conn != null) {
+            RcDataSourceUtil.close(conn);
+        }
+    }
+
+    /**
+     * reentrant for the same thread
+     * @return false if closed or used by other thread
+     */
+    boolean tryAcquire() {
+        if (closed)
+            return false;
+        Thread thread = Thread.currentThread();
+        if (user.get() == thread) {
+            depth++;
+            return true;
+        }
+        if (!user.compareAndSet(null, thread))
+            return false;
+        depth = 1;
+        return true;
+    }
+
+    void release() {
+        if (user.get() != Thread.currentThread())
+            return;
+        if (--depth <= 0) {
+            depth = 0;
+            user.set(null);
+        }
+    }
+
+    boolean isHolding(Connection conn) {
+        return conn != null && conn == connection && user.get() == Thread.currentThread();
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    void setConnection(Connection connection) {
+        this.acquiredTime = System.currentTimeMillis();
+        this.leakReported = false;
+        this.connection = connection;
+        if (closed) {
+            this.connection = null;
+            RcDataSourceUtil.close(connection);
+        }
+    }
+
+    /**
+     * @return null if no connection, or used by other thread
+     */
+    Connection takeIdleConnection() {
+        if (!user.compareAndSet(null, Thread.currentThread()))
+            return null;
+        Connection conn = connection;
+        connection = null;
+        user.set(null);
+        return conn;
+    }
+
+    boolean isWritten() {
+        return written;
+    }
+
+    void setWritten(boolean written) {
+        this.written = written;
+    }
+
+    private static class LeakDetector implements HeartBeat {
+
+        private final static long INTERVAL = 1000;
+
+        @Override
+        public void tick(long now) {
+            for (RcContext context : openSet) {
+                if (context.connection == null)
+                    continue;
+                long held = now - context.acquiredTime;
+                if (held < leakDetectionThreshold)
+                    continue;
+                for (Thread thread : context.boundSet) {
+                    if (!thread.isAlive()) {
+                        context.boundSet.remove(thread);
+                    }
+                }
+                if (context.boundSet.isEmpty() && context.user.get() == null) {
+                    logger.warn("RcContext connection leaked, held " + held + "ms, reclaimed");
+                    context.close();
+                } else if (!context.leakReported) {
+                    context.leakReported = true;
+                    Thread thread = context.user.get();
+                    logger.warn("RcContext connection held " + held + "ms, possible leak"
+                            + (thread == null ? "" : ", thread: " + thread.getName()));
+                }
+            }
+        }
+    }
+}
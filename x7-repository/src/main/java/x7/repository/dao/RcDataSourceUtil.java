@@ -16,31 +16,22 @@
  */
 package x7.repository.dao;
 
+import x7.core.metrics.Metrics;
+
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
  * X7-repository defect design readable datasource <br>
  * only read committed <br>
  * X7-repository doesn't suggest for system dependent on database tx <br>
+ * with ReplicaPool, read from the replicas; after write in the current request, read from primary <br>
+ * the request scoped connection held by RcContext <br>
  */
 public class RcDataSourceUtil {
 
-    /**
-     * <Key, Connection>
-     */
-    private final static Map<String, Connection> connectionMap = new ConcurrentHashMap<String, Connection>();
-
-    /**
-     * <ThreadId, Key>
-     */
-    private final static Map<String, String> keyMap = new ConcurrentHashMap<>();
-
-
 
     public static Connection getConnection() {
 
@@ -53,41 +44,30 @@ public class RcDataSourceUtil {
 
     private static Connection getConnection0() throws Exception {
 
-        String key = getKey();
-
-        DataSource ds = getDataSourceReadable();
+        RcContext context = RcContext.current();
 
         Connection conn = null;
 
-        if (key == null) {
-
-            conn = ds.getConnection();
-            if (conn == null) {
-                try {
-                    TimeUnit.MICROSECONDS.sleep(10);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                conn = ds.getConnection();
-            }
-
+        if (context == null || !context.tryAcquire()) {
 
+            conn = getConnectionReadable(false);
 
         } else {
-            conn = connectionMap.get(key);
+            conn = context.getConnection();
             if (conn == null) {
 
-                conn = ds.getConnection();
-                if (conn == null) {
-                    try {
-                        TimeUnit.MICROSECONDS.sleep(10);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                    conn = ds.getConnection();
+                try {
+                    conn = getConnectionReadable(context.isWritten());
+                } catch (Exception e) {
+                    context.release();
+                    throw e;
                 }
 
-                connectionMap.put(key, conn);
+                if (conn == null) {
+                    context.release();
+                } else {
+                    context.setConnection(conn);
+                }
 
             }
         }
@@ -100,50 +80,113 @@ public class RcDataSourceUtil {
         return conn;
     }
 
+    private static Connection getConnectionReadable(boolean isWritten) throws SQLException {
 
-    protected static void releaseConnection(Connection conn){
+        long start = System.nanoTime();
+        try {
+            return getConnectionReadable0(isWritten);
+        } finally {
+            Metrics.get().recordConnectionWait(isWritten ? "write" : "read", System.nanoTime() - start);
+        }
+    }
 
-        String key = getKey();
+    private static Connection getConnectionReadable0(boolean isWritten) throws SQLException {
 
-        if (key == null) {
+        if (isWritten)
+            return connect(DataSourceHolder.getDataSource());
+
+        ReplicaPool replicaPool = DataSourceHolder.getReplicaPool();
+        if (replicaPool == null || replicaPool.isEmpty())
+            return connect(getDataSourceReadable());
+
+        Connection conn = replicaPool.getConnection();
+        if (conn == null) {
+            conn = connect(DataSourceHolder.getDataSource());
+        }
+        return conn;
+    }
+
+    private static Connection connect(DataSource ds) throws SQLException {
+        Connection conn = ds.getConnection();
+        if (conn == null) {
             try {
-                if (conn != null) {
-                    conn.close();
-                }
-            } catch (SQLException e) {
+                TimeUnit.MICROSECONDS.sleep(10);
+            } catch (InterruptedException e) {
                 e.printStackTrace();
-                throw new RuntimeException("RcDataSourceUtil.releaseConnection Exception: " + e.getMessage());
             }
+            conn = ds.getConnection();
+        }
+        return conn;
+    }
+
+    static void close(Connection conn) {
+        if (conn == null)
+            return;
+        ReplicaPool replicaPool = DataSourceHolder.getReplicaPool();
+        if (replicaPool != null && replicaPool.release(conn))
             return;
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("RcDataSourceUtil.releaseConnection Exception: " + e.getMessage());
         }
+    }
+
 
+    protected static void releaseConnection(Connection conn){
+
+        RcContext context = RcContext.current();
+
+        if (context != null && context.isHolding(conn)) {
+            context.release();
+            return;
+        }
+
+        close(conn);
+    }
+
+    /**
+     * use RcContext.open() instead
+     */
+    public static void key(){
+        RcContext.open();
     }
 
+    /**
+     * use context.close() instead
+     */
     public static void closeConnection(){
 
-        String key = getKey();
+        RcContext context = RcContext.current();
+
+        if (context == null)
+            return;
+
+        context.close();
+    }
+
+    /**
+     * called on writing, the later reading of the request go to primary <br>
+     * the readable connection held by the request released
+     */
+    protected static void onWritten() {
+
+        RcContext context = RcContext.current();
 
-        if (key == null)
+        if (context == null || context.isWritten())
             return;
 
-        Connection conn = connectionMap.remove(key);
+        context.setWritten(true);
 
+        Connection conn = context.takeIdleConnection();
         if (conn != null){
             try {
-                conn.close();
+                close(conn);
             }catch (Exception e) {
                 e.printStackTrace();
             }
         }
-
-        String threadId = String.valueOf(Thread.currentThread().getId());
-        keyMap.remove(threadId);
-    }
-
-    private static String getKey() {
-        String threadId = String.valueOf(Thread.currentThread().getId());
-        return keyMap.get(threadId);
-
     }
 
     private static DataSource getDataSourceReadable(){
@@ -154,11 +197,4 @@ public class RcDataSourceUtil {
         return ds;
     }
 
-    public static void key(){
-        String threadId = String.valueOf(Thread.currentThread().getId());
-        String key = "rcTx."+threadId;
-        keyMap.put(threadId,key);
-    }
-
-
 }
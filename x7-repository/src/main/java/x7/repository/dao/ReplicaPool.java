@@ -0,0 +1,396 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.repository.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import x7.core.async.ExecutorFactory;
+import x7.core.async.HeartBeat;
+import x7.core.async.HeartBeator;
+import x7.repository.DbType;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Readable replicas of the primary datasource <br>
+ * routing: weighted least outstanding requests <br>
+ * health: probed on HeartBeator, the broken or lagging replica ejected, re-admitted when healthy again <br>
+ * the timeout of the pool of a replica under load not a failure, until it repeats for MAX_PROBE_TIMEOUTS probes in a row <br>
+ * no healthy replica: getConnection() returns null, caller falls back to primary <br>
+ */
+public class ReplicaPool implements HeartBeat {
+
+    private final static Logger logger = LoggerFactory.getLogger(ReplicaPool.class);
+
+    public final static long DEFAULT_CHECK_INTERVAL = 5000;
+    public final static long DEFAULT_MAX_LAG_SECONDS = 10;
+    private final static int VALID_TIMEOUT_SECONDS = 2;
+    /**
+     * the consecutive probes timed out by the pool, then ejected: a dead replica times out as well
+     */
+    private final static int MAX_PROBE_TIMEOUTS = 3;
+
+    private final List<Replica> replicaList = new CopyOnWriteArrayList<>();
+
+    /**
+     * <Connection, Replica>, the borrowed connection
+     */
+    private final Map<Connection, Replica> borrowedMap = new ConcurrentHashMap<>();
+
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    private final ExecutorService prober = Executors.newSingleThreadExecutor(ExecutorFactory.threadFactory("x7-replica-probe", true));
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    private long checkInterval = DEFAULT_CHECK_INTERVAL;
+    private long maxLagSeconds = DEFAULT_MAX_LAG_SECONDS;
+    /**
+     * one row, one column: seconds behind primary <br>
+     * null: SHOW SLAVE STATUS for mysql, no lag check for others
+     */
+    private String lagSql;
+
+    public ReplicaPool() {
+        HeartBeator.add(this, checkInterval);
+    }
+
+    public void add(String name, DataSource dataSource, int weight) {
+        if (dataSource == null)
+            return;
+        replicaList.add(new Replica(name, dataSource, weight <= 0 ? 1 : weight));
+    }
+
+    public List<Replica> getReplicaList() {
+        return replicaList;
+    }
+
+    public boolean isEmpty() {
+        return replicaList.isEmpty();
+    }
+
+    public long getCheckInterval() {
+        return checkInterval;
+    }
+
+    /**
+     * the probe re-scheduled by the new interval
+     */
+    public void setCheckInterval(long checkInterval) {
+        if (checkInterval <= 0 || checkInterval == this.checkInterval)
+            return;
+        this.checkInterval = checkInterval;
+        HeartBeator.remove(this);
+        HeartBeator.add(this, checkInterval);
+    }
+
+    public long getMaxLagSeconds() {
+        return maxLagSeconds;
+    }
+
+    public void setMaxLagSeconds(long maxLagSeconds) {
+        if (maxLagSeconds > 0)
+            this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public String getLagSql() {
+        return lagSql;
+    }
+
+    public void setLagSql(String lagSql) {
+        this.lagSql = lagSql;
+    }
+
+    /**
+     * @return null if no healthy replica
+     */
+    public Connection getConnection() {
+
+        int size = replicaList.size();
+        List<Replica> failedList = null;
+        for (int tried = 0; tried < size; tried++) {
+
+            Replica replica = select(failedList);
+            if (replica == null)
+                return null;
+
+            replica.outstanding.incrementAndGet();
+            Connection conn = null;
+            try {
+                conn = replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                logger.warn("Replica getConnection failed: " + replica.name + ", " + e.getMessage());
+            }
+
+            if (conn != null) {
+                borrowedMap.put(conn, replica);
+                return conn;
+            }
+            replica.outstanding.decrementAndGet();
+            if (failedList == null) {
+                failedList = new ArrayList<>(size);
+            }
+            failedList.add(replica);
+        }
+
+        return null;
+    }
+
+    /**
+     * @return false if the connection not borrowed from this pool
+     */
+    public boolean release(Connection conn) {
+        if (conn == null)
+            return false;
+        Replica replica = borrowedMap.remove(conn);
+        if (replica == null)
+            return false;
+        replica.outstanding.decrementAndGet();
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return true;
+    }
+
+    /**
+     * min (outstanding + 1) / weight, compared as cross products, <br>
+     * started by a rotating cursor so that the equal ones take turns
+     * @param failedList the replicas failed to get connection in this call, nullable
+     */
+    private Replica select(List<Replica> failedList) {
+
+        int size = replicaList.size();
+        if (size == 0)
+            return null;
+
+        int start = (cursor.getAndIncrement() & Integer.MAX_VALUE) % size;
+
+        Replica selected = null;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicaList.get((start + i) % size);
+            if (!replica.healthy)
+                continue;
+            if (failedList != null && failedList.contains(replica))
+                continue;
+            if (selected == null) {
+                selected = replica;
+                continue;
+            }
+            long load = (long) (replica.outstanding.get() + 1) * selected.weight;
+            long selectedLoad = (long) (selected.outstanding.get() + 1) * replica.weight;
+            if (load < selectedLoad) {
+                selected = replica;
+            }
+        }
+
+        return selected;
+    }
+
+    /**
+     * 内部机制, 永远不能调用此方法
+     */
+    @Override
+    @Deprecated
+    public void tick(long now) {
+
+        if (!probing.compareAndSet(false, true))
+            return;
+
+        prober.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (Replica replica : replicaList) {
+                        probe(replica);
+                    }
+                } finally {
+                    probing.set(false);
+                }
+            }
+        });
+    }
+
+    private void probe(Replica replica) {
+
+        Connection conn = null;
+        try {
+            try {
+                conn = replica.dataSource.getConnection();
+            } catch (SQLTransientException e) {
+                /*
+                 * pool timeout, busy, not unhealthy, unless timed out again and again
+                 */
+                int timeouts = replica.probeTimeouts.incrementAndGet();
+                if (timeouts >= MAX_PROBE_TIMEOUTS) {
+                    replica.eject("probe timed out " + timeouts + " times: " + e.getMessage());
+                }
+                return;
+            }
+            replica.probeTimeouts.set(0);
+            if (!conn.isValid(VALID_TIMEOUT_SECONDS)) {
+                replica.eject("invalid connection");
+                return;
+            }
+
+            long lag = getLagSeconds(conn);
+            replica.lagSeconds = lag;
+            if (lag < 0) {
+                replica.eject("replication stopped");
+            } else if (lag > maxLagSeconds) {
+                replica.eject("lag " + lag + "s > " + maxLagSeconds + "s");
+            } else {
+                replica.admit();
+            }
+
+        } catch (Exception e) {
+            replica.eject("probe: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return -1 if replication stopped or unknown
+     */
+    private long getLagSeconds(Connection conn) throws SQLException {
+
+        String sql = lagSql;
+        boolean isMySql = false;
+        if (sql == null) {
+            if (!DbType.MYSQL.equals(DbType.value))
+                return 0;
+            sql = "SHOW SLAVE STATUS";
+            isMySql = true;
+        }
+
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = conn.createStatement();
+            stmt.setQueryTimeout(VALID_TIMEOUT_SECONDS);
+            rs = stmt.executeQuery(sql);
+            if (!rs.next())
+                return isMySql ? 0 : -1; // mysql: not a slave
+
+            Object lag = isMySql ? rs.getObject("Seconds_Behind_Master") : rs.getObject(1);
+            if (lag == null)
+                return -1;
+            return ((Number) lag).longValue();
+        } finally {
+            if (rs != null)
+                rs.close();
+            if (stmt != null)
+                stmt.close();
+        }
+    }
+
+
+    public static class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final int weight;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger probeTimeouts = new AtomicInteger();
+        private volatile boolean healthy = true;
+        private volatile long lagSeconds;
+        private volatile String reason;
+
+        private Replica(String name, DataSource dataSource, int weight) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.weight = weight;
+        }
+
+        private void eject(String reason) {
+            this.reason = reason;
+            if (healthy) {
+                healthy = false;
+                logger.warn("Replica ejected: " + name + ", " + reason);
+            }
+        }
+
+        private void admit() {
+            if (!healthy) {
+                healthy = true;
+                logger.info("Replica admitted: " + name);
+            }
+            this.reason = null;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public long getLagSeconds() {
+            return lagSeconds;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Replica{" +
+                    "name='" + name + '\'' +
+                    ", weight=" + weight +
+                    ", outstanding=" + outstanding +
+                    ", healthy=" + healthy +
+                    ", lagSeconds=" + lagSeconds +
+                    ", reason='" + reason + '\'' +
+                    '}';
+        }
+    }
+}
@@ -28,7 +28,6 @@ import x7.repository.mapper.Mapper;
 
 import java.io.Reader;
 import java.io.StringReader;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.sql.PreparedStatement;
@@ -58,13 +57,12 @@ public class SqlUtil {
 
 	}
 
-	protected static void adpterSqlKey(PreparedStatement pstmt, Field keyOneF,  Object obj, int i)
-			throws SQLException, SecurityException, IllegalAccessException,
-			IllegalArgumentException{
+	protected static void adpterSqlKey(PreparedStatement pstmt, Parsed parsed, Object obj, int i)
+			throws SQLException {
 		/*
 		 * 处理KEY
 		 */
-		Object value = keyOneF.get(obj);
+		Object value = parsed.getKeyOneValue(obj);
 
 		pstmt.setObject(i++, value);
 
@@ -23,8 +23,8 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
 import x7.config.SpringHelper;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 
@@ -33,6 +33,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * Tx.begin(); <br>
  * (ok) Tx.commit(); <br>
  * (exception) Tx.rollback(); <br>
+ * bound to the thread, as the spring tx is, can not be carried to other threads <br>
  * <br>
  * 
  * @author Sim
@@ -40,14 +41,30 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class Tx {
 
-	private static Map<String, TransactionStatus> map = new ConcurrentHashMap<>();
+	private final static Logger logger = LoggerFactory.getLogger(Tx.class);
 
+	/**
+	 * spring tx bound to the thread, no reference to the Thread held
+	 */
+	private final static ThreadLocal<TransactionStatus> holder = new ThreadLocal<>();
+
+	/**
+	 * the tx no longer keyed by thread id
+	 */
+	@Deprecated
 	public static String getKey(){
-		long threadId = Thread.currentThread().getId();
-		String key = String.valueOf(threadId);
-		return key;
+		return String.valueOf(Thread.currentThread().getId());
 	}
 
+	/**
+	 * use TransactionSynchronizationManager.isActualTransactionActive() instead
+	 * @return true if begun and not committed or rolled back on current thread
+	 */
+	@Deprecated
+	public static boolean isActive(){
+		TransactionStatus status = holder.get();
+		return status != null && !status.isCompleted();
+	}
 
 	public static void begin(){
 		DefaultTransactionDefinition def = new DefaultTransactionDefinition();
@@ -56,15 +73,20 @@ public class Tx {
 		PlatformTransactionManager tm = SpringHelper.getObject(DataSourceTransactionManager.class);
 		TransactionStatus status = tm.getTransaction(def);
 
-		String key = getKey();
-		map.put(key,status);
+		TransactionStatus previous = holder.get();
+		if (previous != null && !previous.isCompleted()) {
+			logger.warn("Tx not committed or rolled back before next begin, thread: " + Thread.currentThread().getName());
+		}
+		holder.set(status);
 
 	}
 
 	public static void commit(){
 
-		String key = getKey();
-		TransactionStatus status = map.remove(key);
+		TransactionStatus status = holder.get();
+		holder.remove();
+		if (status == null)
+			throw new RuntimeException("Tx.commit() without Tx.begin(), thread: " + Thread.currentThread().getName());
 
 		PlatformTransactionManager tm = SpringHelper.getObject(DataSourceTransactionManager.class);
 		tm.commit(status);
@@ -72,8 +94,15 @@ public class Tx {
 
 	public static void rollback(){
 
-		String key = getKey();
-		TransactionStatus status = map.remove(key);
+		TransactionStatus status = holder.get();
+		holder.remove();
+		if (status == null) {
+			/*
+			 * not thrown, the exception being handled by the caller not to be hidden
+			 */
+			logger.error("Tx.rollback() without Tx.begin(), thread: " + Thread.currentThread().getName());
+			return;
+		}
 
 		PlatformTransactionManager tm = SpringHelper.getObject(DataSourceTransactionManager.class);
 		tm.rollback(status);
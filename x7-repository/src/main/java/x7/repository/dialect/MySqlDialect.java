@@ -22,7 +22,6 @@ import x7.repository.mapper.Mapper;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -147,7 +146,7 @@ public class MySqlDialect implements Mapper.Dialect {
 
         for (BeanElement ele : eles) {
 
-            Method method = ele.setMethod;
+            Setter setter = ele.setAccessor;
             String mapper = ele.getMapper();
 
             if (mapper.contains("`")) {
@@ -155,7 +154,7 @@ public class MySqlDialect implements Mapper.Dialect {
             }
 
             Object value = getObject(mapper, rs, ele);
-            method.invoke(obj, value);
+            setter.set(obj, value);
 
         }
 
@@ -24,7 +24,6 @@ import x7.repository.mapper.Mapper;
 import java.io.IOException;
 import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -213,13 +212,13 @@ public class OracleDialect implements Mapper.Dialect {
 
         for (BeanElement ele : eles) {
 
-            Method method = ele.setMethod;
+            Setter setter = ele.setAccessor;
             String mapper = ele.getMapper();
 
 
             Object value = getObject(mapper, rs, ele);
             if (value != null) {
-                method.invoke(obj, value);
+                setter.set(obj, value);
             }
 
         }
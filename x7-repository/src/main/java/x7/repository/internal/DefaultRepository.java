@@ -38,6 +38,8 @@ import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Biz Repository extends DefaultRepository
@@ -51,6 +53,11 @@ public abstract class DefaultRepository<T> implements BaseRepository<T> {
 
     public final static String ID_MAP_KEY = "ID_MAP_KEY";
 
+    /**
+     * clzName -> the max id created, read by the coalesced task, never lowered by a late caller
+     */
+    private final static ConcurrentHashMap<String, AtomicLong> maxIdMap = new ConcurrentHashMap<>();
+
     private Class<T> clz;
 
     @Override
@@ -97,10 +104,14 @@ public abstract class DefaultRepository<T> implements BaseRepository<T> {
             throw new PersistenceException("UNEXPECTED EXCEPTION WHILE CREATING ID");
         }
 
-        CasualWorker.accept(new IAsyncTask() {
+        final AtomicLong maxId = maxIdMap.computeIfAbsent(name, k -> new AtomicLong());
+        maxId.accumulateAndGet(id, Math::max);
+
+        CasualWorker.coalesce(ID_MAP_KEY + name, new IAsyncTask() {
 
             @Override
             public void execute() throws Exception {
+                final long id = maxId.get();
                 IdGenerator generator = new IdGenerator();
                 generator.setClzName(name);
                 generator.setMaxId(id);
@@ -118,7 +129,7 @@ public abstract class DefaultRepository<T> implements BaseRepository<T> {
 
             }
 
-        });
+        }, CasualWorker.Priority.LOW);
 
         return id;
     }
@@ -22,7 +22,6 @@ import x7.core.repository.X;
 import x7.core.util.ExceptionUtil;
 import x7.repository.SqlRepository;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -56,7 +55,7 @@ public class DomainObjectRepositoy {
 
             List<Object> withInList = new ArrayList<>();
             for (Object r : relativeList) {
-                Object in = relativeWithBe.getMethod.invoke(r);
+                Object in = relativeWithBe.getAccessor.get(r);
                 withInList.add(in);
             }
 
@@ -77,8 +76,6 @@ public class DomainObjectRepositoy {
             BeanElement relatievMainBe = domainObjectCriteria.getRelativeClz() == null ? null :
                     relativeParsed.getElement(domainObjectCriteria.getMainPropperty());
 
-            Field withKeyF = withParsed.getKeyField(X.KEY_ONE);
-            withKeyF.setAccessible(true);
 
             BeanElement wBe = withParsed.getElement(domainObjectCriteria.getMainPropperty());// maybe null
 
@@ -88,12 +85,12 @@ public class DomainObjectRepositoy {
 
 
                 for (Object r : relativeList) {
-                    Object oRelative = relatievMainBe.getMethod.invoke(r);
+                    Object oRelative = relatievMainBe.getAccessor.get(r);
                     if (mainKeyOne.toString().equals(oRelative.toString())) {
-                        Object relativeWithKey = relativeWithBe.getMethod.invoke(r);
+                        Object relativeWithKey = relativeWithBe.getAccessor.get(r);
 
                         for (Object w : withList) {
-                            Object withId = withKeyF.get(w);
+                            Object withId = withParsed.getKeyOneValue(w);
                             if (relativeWithKey.toString().equals(withId.toString())) {
                                 withListOne.add(w);
                             }
@@ -142,8 +139,6 @@ public class DomainObjectRepositoy {
              * result assemble step3
              */
 
-            Field withKeyF = withParsed.getKeyField(X.KEY_ONE);
-            withKeyF.setAccessible(true);
 
             BeanElement wBe = withParsed.getElement(domainObjectCriteria.getMainPropperty());// maybe null
 
@@ -152,7 +147,7 @@ public class DomainObjectRepositoy {
                 List withListOne = new ArrayList();
 
                 for (Object w : withList) {
-                    Object withR = wBe.getMethod.invoke(w);
+                    Object withR = wBe.getAccessor.get(w);
                     if (mainKeyOne.toString().equals(withR.toString())) {
                         withListOne.add(w);
                     }
@@ -188,11 +183,9 @@ public class DomainObjectRepositoy {
                 mainList = SqlRepository.getInstance().list((Criteria) domainObjectCriteria);
 
                 Parsed mainParsed = Parser.get(domainObjectCriteria.getClz());
-                Field mainField = mainParsed.getKeyField(X.KEY_ONE);
-                mainField.setAccessible(true);
 
                 for (Object t : mainList) {
-                    Object in = mainField.get(t);
+                    Object in = mainParsed.getKeyOneValue(t);
                     mainInList.add(in);
                 }
             }
@@ -216,7 +209,7 @@ public class DomainObjectRepositoy {
 
             List<Object> withInList = new ArrayList<>();
             for (Object r : relativeList) {
-                Object in = relativeWithBe.getMethod.invoke(r);
+                Object in = relativeWithBe.getAccessor.get(r);
                 withInList.add(in);
             }
 
@@ -235,30 +228,26 @@ public class DomainObjectRepositoy {
             BeanElement relatievMainBe = domainObjectCriteria.getRelativeClz() == null ? null :
                     relativeParsed.getElement(domainObjectCriteria.getMainPropperty());
 
-            Field withKeyF = withParsed.getKeyField(X.KEY_ONE);
-            withKeyF.setAccessible(true);
 
 
             Parsed mainParsed = Parser.get(domainObjectCriteria.getClz());
-            Field mainField = mainParsed.getKeyField(X.KEY_ONE);
-            mainField.setAccessible(true);
 
             BeanElement wBe = withParsed.getElement(domainObjectCriteria.getMainPropperty());
 
             for (Object main : mainList) {
 
-                Object mainKeyOne = mainField.get(main);
+                Object mainKeyOne = mainParsed.getKeyOneValue(main);
 
                 List withListOne = new ArrayList();
 
 
                 for (Object r : relativeList) {
-                    Object oRelative = relatievMainBe.getMethod.invoke(r);
+                    Object oRelative = relatievMainBe.getAccessor.get(r);
                     if (mainKeyOne.toString().equals(oRelative.toString())) {
-                        Object relativeWithKey = relativeWithBe.getMethod.invoke(r);
+                        Object relativeWithKey = relativeWithBe.getAccessor.get(r);
 
                         for (Object w : withList) {
-                            Object withId = withKeyF.get(w);
+                            Object withId = withParsed.getKeyOneValue(w);
                             if (relativeWithKey.toString().equals(withId.toString())) {
                                 withListOne.add(w);
                             }
@@ -294,8 +283,6 @@ public class DomainObjectRepositoy {
             List<T> mainList = null;
 
             Parsed mainParsed = Parser.get(domainObjectCriteria.getClz());
-            Field mainField = mainParsed.getKeyField(X.KEY_ONE);
-            mainField.setAccessible(true);
 
             if (mainInList == null || mainInList.isEmpty()) {
 
@@ -303,7 +290,7 @@ public class DomainObjectRepositoy {
 
 
                 for (Object t : mainList) {
-                    Object in = mainField.get(t);
+                    Object in = mainParsed.getKeyOneValue(t);
                     mainInList.add(in);
                 }
             }
@@ -335,12 +322,12 @@ public class DomainObjectRepositoy {
 
             for (Object main : mainList) {
 
-                Object mainKeyOne = mainField.get(main);
+                Object mainKeyOne = mainParsed.getKeyOneValue(main);
 
                 List withListOne = new ArrayList();
 
                 for (Object w : withList) {
-                    Object withR = wBe.getMethod.invoke(w);
+                    Object withR = wBe.getAccessor.get(w);
                     if (mainKeyOne.toString().equals(withR.toString())) {
                         withListOne.add(w);
                     }
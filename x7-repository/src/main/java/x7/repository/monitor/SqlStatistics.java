@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.repository.monitor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * per statement statistics of the dao, instead of show-sql under load <br>
+ * SQL of MapperFactory and SqlCriteriaParser is a template with ?, the literals <br>
+ * added by dialect(limit) or in(...) are normalized to ?, IN (?, ?, ?) to IN (?) <br>
+ * x7.repository.stats-enabled=true, x7.repository.slow-query-threshold=1000 <br>
+ */
+public final class SqlStatistics {
+
+    private final static Logger logger = LoggerFactory.getLogger(SqlStatistics.class);
+
+    private final static String OTHER = "(other)";
+    private final static int MAX_PARAMS = 16;
+    private final static int MAX_PARAM_LENGTH = 64;
+
+    private static volatile boolean enabled = false;
+    /**
+     * ns, 0: no slow log
+     */
+    private static volatile long slowThreshold = 1000_000_000L;
+    private static volatile int maxStatements = 1000;
+
+    private final static ConcurrentMap<String, StatementStat> statMap = new ConcurrentHashMap<>();
+
+    private SqlStatistics() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        SqlStatistics.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param ms 0: no slow log
+     */
+    public static void setSlowThreshold(long ms) {
+        SqlStatistics.slowThreshold = ms * 1000_000L;
+    }
+
+    public static void setMaxStatements(int maxStatements) {
+        SqlStatistics.maxStatements = maxStatements;
+    }
+
+    /**
+     * @param sql       executed
+     * @param startTime System.nanoTime() before execute
+     * @param rows      mapped or affected
+     * @param params    bind parameters, List, Map, array or single value, formatted only if slow
+     */
+    public static void record(String sql, long startTime, int rows, Object params) {
+        long threshold = slowThreshold;
+        if (!enabled && threshold == 0)
+            return;
+
+        long nanos = System.nanoTime() - startTime;
+
+        if (threshold > 0 && nanos >= threshold) {
+            logger.warn("Slow SQL: " + nanos / 1000_000 + "ms, rows: " + rows + ", sql: " + sql + ", params: " + format(params));
+        }
+
+        if (!enabled)
+            return;
+
+        stat(sql).record(nanos, rows, params);
+    }
+
+    /**
+     * the failed or timed out execution, counted as error, slow logged by the time to failure
+     * @param startTime System.nanoTime() before execute, 0 if failed before execute
+     */
+    public static void failed(String sql, long startTime, Object params, Throwable e) {
+        long threshold = slowThreshold;
+        if (startTime == 0 || sql == null || (!enabled && threshold == 0))
+            return;
+
+        long nanos = System.nanoTime() - startTime;
+
+        if (threshold > 0 && nanos >= threshold) {
+            logger.warn("Slow SQL failed: " + nanos / 1000_000 + "ms, " + e + ", sql: " + sql + ", params: " + format(params));
+        }
+
+        if (!enabled)
+            return;
+
+        stat(sql).recordError(nanos, params);
+    }
+
+    private static StatementStat stat(String sql) {
+        String key = normalize(sql);
+        StatementStat stat = statMap.get(key);
+        if (stat == null) {
+            if (statMap.size() >= maxStatements) {
+                key = OTHER;
+            }
+            stat = statMap.computeIfAbsent(key, StatementStat::new);
+        }
+        return stat;
+    }
+
+    /**
+     * @param orderBy total, count, avg, max, p99, rows, errors; default total
+     */
+    public static List<StatementStat> top(int n, String orderBy) {
+        Comparator<StatementStat> comparator;
+        if ("count".equals(orderBy)) {
+            comparator = Comparator.comparingLong(StatementStat::getCount);
+        } else if ("avg".equals(orderBy)) {
+            comparator = Comparator.comparingDouble(StatementStat::getAvg);
+        } else if ("max".equals(orderBy)) {
+            comparator = Comparator.comparingDouble(StatementStat::getMax);
+        } else if ("p99".equals(orderBy)) {
+            comparator = Comparator.comparingDouble(stat -> stat.percentile(0.99));
+        } else if ("rows".equals(orderBy)) {
+            comparator = Comparator.comparingLong(StatementStat::getRows);
+        } else if ("errors".equals(orderBy)) {
+            comparator = Comparator.comparingLong(StatementStat::getErrors);
+        } else {
+            comparator = Comparator.comparingDouble(StatementStat::getTotal);
+        }
+
+        List<StatementStat> list = new ArrayList<>(statMap.values());
+        list.sort(comparator.reversed());
+        if (n > 0 && list.size() > n)
+            return new ArrayList<>(list.subList(0, n));
+        return list;
+    }
+
+    public static void reset() {
+        statMap.clear();
+    }
+
+    /**
+     * whitespace collapsed, numeric and string literals to ?, lists of ? to one ? <br>
+     * identifiers and quoted identifiers kept <br>
+     */
+    public static String normalize(String sql) {
+        if (sql == null)
+            return null;
+        int length = sql.length();
+        StringBuilder sb = new StringBuilder(length);
+        char quote = 0;
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+
+            if (quote != 0) {
+                sb.append(c);
+                if (c == quote)
+                    quote = 0;
+                continue;
+            }
+
+            if (c == '`' || c == '"') {
+                quote = c;
+                sb.append(c);
+            } else if (c == '\'') {
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    i++;
+                }
+                appendPlaceholder(sb);
+            } else if (Character.isWhitespace(c)) {
+                int len = sb.length();
+                if (len > 0 && sb.charAt(len - 1) != ' ')
+                    sb.append(' ');
+            } else if (Character.isDigit(c) && !isIdentifierEnd(sb)) {
+                while (i + 1 < length && (Character.isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '.'))
+                    i++;
+                appendPlaceholder(sb);
+            } else if (c == '?') {
+                appendPlaceholder(sb);
+            } else {
+                sb.append(c);
+            }
+        }
+
+        int len = sb.length();
+        if (len > 0 && sb.charAt(len - 1) == ' ')
+            sb.setLength(len - 1);
+        return sb.toString();
+    }
+
+    private static boolean isIdentifierEnd(StringBuilder sb) {
+        int len = sb.length();
+        if (len == 0)
+            return false;
+        char c = sb.charAt(len - 1);
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+    }
+
+    /**
+     * ", ?" after "?" dropped
+     */
+    private static void appendPlaceholder(StringBuilder sb) {
+        int i = sb.length() - 1;
+        while (i >= 0 && sb.charAt(i) == ' ')
+            i--;
+        if (i >= 0 && sb.charAt(i) == ',') {
+            int j = i - 1;
+            while (j >= 0 && sb.charAt(j) == ' ')
+                j--;
+            if (j >= 0 && sb.charAt(j) == '?') {
+                sb.setLength(j + 1);
+                return;
+            }
+        }
+        sb.append('?');
+    }
+
+    static String format(Object params) {
+        if (params == null)
+            return "[]";
+        Collection<?> values;
+        if (params instanceof Collection) {
+            values = (Collection<?>) params;
+        } else if (params instanceof Map) {
+            values = ((Map<?, ?>) params).values();
+        } else if (params instanceof Object[]) {
+            values = Arrays.asList((Object[]) params);
+        } else {
+            return "[" + abbreviate(params) + "]";
+        }
+
+        StringBuilder sb = new StringBuilder("[");
+        int i = 0;
+        for (Object value : values) {
+            if (i > 0)
+                sb.append(", ");
+            if (i++ == MAX_PARAMS) {
+                sb.append("...(").append(values.size()).append(")");
+                break;
+            }
+            sb.append(abbreviate(value));
+        }
+        return sb.append("]").toString();
+    }
+
+    private static String abbreviate(Object value) {
+        String str = String.valueOf(value);
+        if (str.length() > MAX_PARAM_LENGTH)
+            return str.substring(0, MAX_PARAM_LENGTH) + "...";
+        return str;
+    }
+}
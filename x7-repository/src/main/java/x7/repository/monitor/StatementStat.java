@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package x7.repository.monitor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * statistics of one normalized statement, lock-free <br>
+ * latency histogram: 4 buckets per power of 2 of microseconds, error < 25% <br>
+ */
+public final class StatementStat {
+
+    private final static int MAX_BIT = 40;
+    private final static int BUCKETS = 4 + (MAX_BIT - 1) * 4;
+
+    private final String sql;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    /**
+     * bind parameters of the slowest execution
+     */
+    private volatile String sample;
+
+    StatementStat(String sql) {
+        this.sql = sql;
+    }
+
+    void record(long nanos, int rows, Object params) {
+        this.count.increment();
+        this.totalNanos.add(nanos);
+        if (rows > 0) {
+            this.rows.add(rows);
+        }
+        this.buckets.incrementAndGet(bucket(nanos / 1000));
+
+        long max = this.maxNanos.get();
+        while (nanos > max) {
+            if (this.maxNanos.compareAndSet(max, nanos)) {
+                this.sample = SqlStatistics.format(params);
+                break;
+            }
+            max = this.maxNanos.get();
+        }
+    }
+
+    /**
+     * the failed execution, in count and latency too
+     */
+    void recordError(long nanos, Object params) {
+        this.errors.increment();
+        record(nanos, 0, params);
+    }
+
+    static int bucket(long us) {
+        if (us < 4)
+            return (int) us;
+        int bit = 63 - Long.numberOfLeadingZeros(us);
+        if (bit > MAX_BIT)
+            return BUCKETS - 1;
+        int sub = (int) ((us >>> (bit - 2)) & 3);
+        return 4 + (bit - 2) * 4 + sub;
+    }
+
+    /**
+     * @return exclusive upper bound of the bucket, microseconds
+     */
+    static long upperBound(int index) {
+        if (index < 4)
+            return index + 1;
+        int bit = (index - 4) / 4 + 2;
+        int sub = (index - 4) % 4;
+        return ((4L | sub) + 1) << (bit - 2);
+    }
+
+    /**
+     * @param p 0.5, 0.95, 0.99
+     * @return ms
+     */
+    public double percentile(double p) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = this.buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0)
+            return 0;
+        long target = (long) Math.ceil(p * total);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= target)
+                return Math.min(upperBound(i) / 1000.0, getMax());
+        }
+        return getMax();
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * ms
+     */
+    public double getTotal() {
+        return totalNanos.sum() / 1000_000.0;
+    }
+
+    /**
+     * ms
+     */
+    public double getMax() {
+        return maxNanos.get() / 1000_000.0;
+    }
+
+    /**
+     * ms
+     */
+    public double getAvg() {
+        long c = getCount();
+        return c == 0 ? 0 : getTotal() / c;
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public String getSample() {
+        return sample;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        long c = getCount();
+        map.put("sql", sql);
+        map.put("count", c);
+        map.put("totalMs", getTotal());
+        map.put("avgMs", getAvg());
+        map.put("maxMs", getMax());
+        map.put("p50Ms", percentile(0.5));
+        map.put("p95Ms", percentile(0.95));
+        map.put("p99Ms", percentile(0.99));
+        map.put("rows", getRows());
+        map.put("avgRows", c == 0 ? 0 : getRows() / (double) c);
+        map.put("errors", getErrors());
+        map.put("slowestParams", sample);
+        return map;
+    }
+}
@@ -19,6 +19,7 @@ package x7.repository.redis;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import x7.config.SpringHelper;
+import x7.core.metrics.Metrics;
 
 import java.util.List;
 import java.util.Set;
@@ -53,13 +54,23 @@ public class JedisConnector_Cache {
 	public boolean set(String key, String value){
 		if (key == null || key.equals("") ) 
 			return false;
-		this.stringRedisTemplate.opsForValue().set(key, value);
+		long start = System.nanoTime();
+		try {
+			this.stringRedisTemplate.opsForValue().set(key, value);
+		} finally {
+			Metrics.redis("set", start);
+		}
 		return true;
 	}
 	
 	public boolean set(byte[] key, byte[] value){
 
-		this.redisTemplate.opsForValue().set(key, value);
+		long start = System.nanoTime();
+		try {
+			this.redisTemplate.opsForValue().set(key, value);
+		} finally {
+			Metrics.redis("set", start);
+		}
 
 		return true;
 	}
@@ -67,19 +78,35 @@ public class JedisConnector_Cache {
 	public boolean set(String key, String value,int validSeconds){
 		if (key == null || key.equals("") )
 			return false;
-		this.stringRedisTemplate.opsForValue().set(key, value,validSeconds);
+		long start = System.nanoTime();
+		try {
+			this.stringRedisTemplate.opsForValue().set(key, value,validSeconds);
+		} finally {
+			Metrics.redis("set", start);
+		}
 		return true;
 	}
 	
 	public boolean set(byte[] key, byte[] value, int validSeconds){
 
-		this.redisTemplate.opsForValue().set(key, value,validSeconds);
+		long start = System.nanoTime();
+		try {
+			this.redisTemplate.opsForValue().set(key, value,validSeconds);
+		} finally {
+			Metrics.redis("set", start);
+		}
 		return true;
 	}
 	
 	public String get(String key){
 
-		String str = this.stringRedisTemplate.opsForValue().get(key);
+		long start = System.nanoTime();
+		String str;
+		try {
+			str = this.stringRedisTemplate.opsForValue().get(key);
+		} finally {
+			Metrics.redis("get", start);
+		}
 		if (str == null)
 			return str;
 		return str.trim();
@@ -102,7 +129,13 @@ public class JedisConnector_Cache {
 		if (keyList == null || keyList.isEmpty())
 			return null;
 
-		List<String> list = this.stringRedisTemplate.opsForValue().multiGet(keyList);
+		long start = System.nanoTime();
+		List<String> list;
+		try {
+			list = this.stringRedisTemplate.opsForValue().multiGet(keyList);
+		} finally {
+			Metrics.redis("mget", start);
+		}
 		if (list == null)
 			return null;
 		return list;
@@ -111,26 +144,48 @@ public class JedisConnector_Cache {
 	
 	public byte[] get(byte[] key){
 
-		Object obj = this.redisTemplate.opsForValue().get(key);
+		long start = System.nanoTime();
+		Object obj;
+		try {
+			obj = this.redisTemplate.opsForValue().get(key);
+		} finally {
+			Metrics.redis("get", start);
+		}
 		
 		return (byte[])obj;
 	}
 	
 	public boolean delete(byte[] key){
 
-		this.redisTemplate.delete(key);
+		long start = System.nanoTime();
+		try {
+			this.redisTemplate.delete(key);
+		} finally {
+			Metrics.redis("delete", start);
+		}
 		return true;
 	}
 
 	public boolean delete(String key){
 
-		this.stringRedisTemplate.delete(key);
+		long start = System.nanoTime();
+		try {
+			this.stringRedisTemplate.delete(key);
+		} finally {
+			Metrics.redis("delete", start);
+		}
 		return true;
 	}
 
 	public Set<String> keys(String pattern){
 
-		Set<String> set = this.stringRedisTemplate.keys(pattern);
+		long start = System.nanoTime();
+		Set<String> set;
+		try {
+			set = this.stringRedisTemplate.keys(pattern);
+		} finally {
+			Metrics.redis("keys", start);
+		}
 
 		return set;
 	}
@@ -16,10 +16,14 @@
  */
 package x7.repository.redis;
 
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import x7.config.SpringHelper;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -37,6 +41,54 @@ public class JedisConnector_Persistence {
 
 	private static JedisConnector_Persistence instance;
 
+	/**
+	 * SET NX PX, then INCR the fencing key; 0 if not locked <br>
+	 * the fencing key: PEXPIRE fenceTtl on every lock, seeded by the time in micros if not exists, <br>
+	 * so that the token still increased after expired
+	 */
+	private final static DefaultRedisScript<Long> LOCK_SCRIPT = new DefaultRedisScript<Long>(
+			"if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then " +
+					"redis.call('set', KEYS[2], ARGV[4], 'NX') " +
+					"local fence = redis.call('incr', KEYS[2]) " +
+					"redis.call('pexpire', KEYS[2], ARGV[3]) " +
+					"return fence " +
+					"end " +
+					"return 0", Long.class);
+
+	/**
+	 * DEL if the owner, then PUBLISH the key
+	 */
+	private final static DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<Long>(
+			"if redis.call('get', KEYS[1]) == ARGV[1] then " +
+					"redis.call('del', KEYS[1]) " +
+					"redis.call('publish', ARGV[2], KEYS[1]) " +
+					"return 1 " +
+					"end " +
+					"return 0", Long.class);
+
+	/**
+	 * PEXPIRE and INCR the fencing key if the owner, for the next holder of the same node <br>
+	 * the fencing key as LOCK_SCRIPT
+	 */
+	private final static DefaultRedisScript<Long> RELOCK_SCRIPT = new DefaultRedisScript<Long>(
+			"if redis.call('get', KEYS[1]) == ARGV[1] then " +
+					"redis.call('pexpire', KEYS[1], ARGV[2]) " +
+					"redis.call('set', KEYS[2], ARGV[4], 'NX') " +
+					"local fence = redis.call('incr', KEYS[2]) " +
+					"redis.call('pexpire', KEYS[2], ARGV[3]) " +
+					"return fence " +
+					"end " +
+					"return 0", Long.class);
+
+	/**
+	 * PEXPIRE if the owner
+	 */
+	private final static DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<Long>(
+			"if redis.call('get', KEYS[1]) == ARGV[1] then " +
+					"return redis.call('pexpire', KEYS[1], ARGV[2]) " +
+					"end " +
+					"return 0", Long.class);
+
 	public static JedisConnector_Persistence getInstance() {
 		if (instance == null) {
 			instance = new JedisConnector_Persistence();
@@ -138,10 +190,8 @@ public class JedisConnector_Persistence {
 		
 		final String value = "LOCK";
 
-		isLock = this.stringRedisTemplate.opsForValue().setIfAbsent(key, value);
-		if (isLock) {
-			this.stringRedisTemplate.expire(key,5, TimeUnit.SECONDS);
-		}
+		Boolean b = this.stringRedisTemplate.opsForValue().setIfAbsent(key, value, 5, TimeUnit.SECONDS);
+		isLock = b != null && b;
 
 		return isLock;
 	}
@@ -149,4 +199,54 @@ public class JedisConnector_Persistence {
 	public void unLock(String key){
 		this.stringRedisTemplate.delete(key);
 	}
+
+	/**
+	 * @param token owner of the lock
+	 * @param fenceKey INCR on locked, in the same cluster slot of the key
+	 * @param fenceTtlMillis the fencing key expired after no lock in it
+	 * @return the fencing token, 0 if locked by other
+	 */
+	public long lock(String key, String token, long ttlMillis, String fenceKey, long fenceTtlMillis) {
+		Long fence = this.stringRedisTemplate.execute(LOCK_SCRIPT, Arrays.asList(key, fenceKey), token, String.valueOf(ttlMillis),
+				String.valueOf(fenceTtlMillis), fenceSeed());
+		return fence == null ? 0 : fence;
+	}
+
+	/**
+	 * micros, more than the token of the expired fencing key, unless locked a million times a second
+	 */
+	private static String fenceSeed() {
+		return String.valueOf(System.currentTimeMillis() * 1000);
+	}
+
+	/**
+	 * @param channel published with the key if unlocked
+	 * @return false if not the owner, or expired
+	 */
+	public boolean unLock(String key, String token, String channel) {
+		Long r = this.stringRedisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(key), token, channel);
+		return r != null && r == 1;
+	}
+
+	/**
+	 * the lock handed to another thread of the owner node
+	 * @return the new fencing token, 0 if not the owner, or expired
+	 */
+	public long relock(String key, String token, long ttlMillis, String fenceKey, long fenceTtlMillis) {
+		Long fence = this.stringRedisTemplate.execute(RELOCK_SCRIPT, Arrays.asList(key, fenceKey), token, String.valueOf(ttlMillis),
+				String.valueOf(fenceTtlMillis), fenceSeed());
+		return fence == null ? 0 : fence;
+	}
+
+	/**
+	 * @return false if not the owner, or expired
+	 */
+	public boolean renew(String key, String token, long ttlMillis) {
+		Long r = this.stringRedisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(key), token, String.valueOf(ttlMillis));
+		return r != null && r == 1;
+	}
+
+	public RedisConnectionFactory getConnectionFactory() {
+		return this.stringRedisTemplate.getConnectionFactory();
+	}
 }
@@ -19,6 +19,8 @@ package x7.repository.redis;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import x7.core.exception.CacheException;
+import x7.core.metrics.Metrics;
+import x7.core.metrics.MetricsRecorder;
 import x7.core.repository.CacheResolver;
 import x7.core.util.JsonX;
 import x7.core.util.StringUtil;
@@ -233,9 +235,11 @@ public class LevelTwoCacheResolver implements CacheResolver {
 	public List<String> getResultKeyList(Class clz, Object condition) {
 		String key = getKey(clz, condition);
 		String str = JedisConnector_Cache.getInstance().get(key);
-		if (StringUtil.isNullOrEmpty(str))
+		if (StringUtil.isNullOrEmpty(str)) {
+			Metrics.cache(clz, MetricsRecorder.Cache.MISS);
 			return new ArrayList<String>();
-		
+		}
+		Metrics.cache(clz, MetricsRecorder.Cache.HIT);
 		return JsonX.toList(str, String.class);
 	}
 	
@@ -245,9 +249,11 @@ public class LevelTwoCacheResolver implements CacheResolver {
 		String key = getKey(clz, condition);
 		String json = JedisConnector_Cache.getInstance().get(key);
 		
-		if (StringUtil.isNullOrEmpty(json))
+		if (StringUtil.isNullOrEmpty(json)) {
+			Metrics.cache(clz, MetricsRecorder.Cache.MISS);
 			return null;
-		
+		}
+		Metrics.cache(clz, MetricsRecorder.Cache.HIT);
 		return ObjectUtil.toPagination(json);
 	}
 
@@ -267,7 +273,13 @@ public class LevelTwoCacheResolver implements CacheResolver {
 				list.add(t);
 			}
 		}
-		
+
+		if (Metrics.isEnabled()) {
+			int miss = jsonList.size() - list.size();
+			Metrics.get().recordCache(clz, MetricsRecorder.Cache.HIT, list.size());
+			if (miss > 0)
+				Metrics.get().recordCache(clz, MetricsRecorder.Cache.MISS, miss);
+		}
 		return list;
 	}
 
@@ -278,8 +290,11 @@ public class LevelTwoCacheResolver implements CacheResolver {
 	public <T> T get(Class<T> clz, String key) {
 		key = getSimpleKey(clz,key);
 		String str = JedisConnector_Cache.getInstance().get(key);
-		if (StringUtil.isNullOrEmpty(str))
+		if (StringUtil.isNullOrEmpty(str)) {
+			Metrics.cache(clz, MetricsRecorder.Cache.MISS);
 			return null;
+		}
+		Metrics.cache(clz, MetricsRecorder.Cache.HIT);
 		T obj = JsonX.toObject(str,clz);
 		return obj;
 	}
@@ -297,8 +312,11 @@ public class LevelTwoCacheResolver implements CacheResolver {
 		
 		key = getSimpleKey(clz,key);
 		String str = JedisConnector_Cache.getInstance().get(key);
-		if (StringUtil.isNullOrEmpty(str))
+		if (StringUtil.isNullOrEmpty(str)) {
+			Metrics.cache(clz, MetricsRecorder.Cache.MISS);
 			return null;
+		}
+		Metrics.cache(clz, MetricsRecorder.Cache.HIT);
 		List mapList = JsonX.toList(str,Map.class);
 		return mapList;
 	}
@@ -0,0 +1,85 @@
+package x7.repository.monitor;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.SQLTimeoutException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SqlStatisticsTest {
+
+    @After
+    public void reset() {
+        SqlStatistics.setEnabled(false);
+        SqlStatistics.reset();
+    }
+
+    @Test
+    public void normalizeWhitespaceAndLiterals() {
+        assertEquals("SELECT * FROM t_cat WHERE id = ? AND name = ? LIMIT ?",
+                SqlStatistics.normalize("SELECT * FROM t_cat  WHERE\n id = ? AND name = 'x''y' LIMIT 10, 20 "));
+    }
+
+    @Test
+    public void normalizeInList() {
+        String expected = "select * from cat where id in (?)";
+        assertEquals(expected, SqlStatistics.normalize("select * from cat where id in (1, 2, 3)"));
+        assertEquals(expected, SqlStatistics.normalize("select * from cat where id in (?,?,?)"));
+        assertEquals(expected, SqlStatistics.normalize("select * from cat where id in ('a', 'b')"));
+    }
+
+    @Test
+    public void normalizeKeepsIdentifiers() {
+        assertEquals("select t1.col2 from `t 1` where \"c3\" = ?",
+                SqlStatistics.normalize("select t1.col2 from `t 1` where \"c3\" = 3.14"));
+    }
+
+    @Test
+    public void bucketOfSmallValues() {
+        for (int us = 0; us < 4; us++) {
+            assertEquals(us, StatementStat.bucket(us));
+            assertEquals(us + 1, StatementStat.upperBound(us));
+        }
+    }
+
+    @Test
+    public void bucketBoundsAndError() {
+        int last = 0;
+        for (long us = 4; us < 1L << 30; us += 1 + us / 7) {
+            int bucket = StatementStat.bucket(us);
+            assertTrue("monotonic: " + us, bucket >= last);
+            last = bucket;
+            long upper = StatementStat.upperBound(bucket);
+            assertTrue("upper bound: " + us, upper > us);
+            assertTrue("error < 25%: " + us, upper - us <= us / 4 + 1);
+            if (bucket > 4) {
+                assertTrue("lower bound: " + us, StatementStat.upperBound(bucket - 1) <= us);
+            }
+        }
+    }
+
+    @Test
+    public void bucketOverflow() {
+        assertEquals(StatementStat.bucket((1L << 41) - 1), StatementStat.bucket(Long.MAX_VALUE));
+        assertEquals(StatementStat.bucket(1L << 41), StatementStat.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void failedCountedAsError() {
+        SqlStatistics.setEnabled(true);
+        String sql = "select * from cat where id = ?";
+        SqlStatistics.record(sql, System.nanoTime(), 1, 1);
+        SqlStatistics.failed(sql, System.nanoTime(), 2, new SQLTimeoutException());
+        SqlStatistics.failed(sql, 0, 3, new SQLTimeoutException());
+
+        List<StatementStat> list = SqlStatistics.top(10, "errors");
+        assertEquals(1, list.size());
+        StatementStat stat = list.get(0);
+        assertEquals(2, stat.getCount());
+        assertEquals(1, stat.getErrors());
+        assertEquals(1, stat.getRows());
+    }
+}
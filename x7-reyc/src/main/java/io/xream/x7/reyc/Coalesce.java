@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc;
+
+import java.lang.annotation.*;
+
+/**
+ * on the GET method of ReyClient <br>
+ * identical calls in flight share one request <br>
+ * with batchMapping, calls in the window collapsed into one POST of the keys (the first arg) <br>
+ * every caller given its own copy of the result <br>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface Coalesce {
+
+    /**
+     * "": single-flight only <br>
+     * or the batch mapping, POST [key...], return [item...]
+     */
+    String batchMapping() default "";
+
+    /**
+     * ms to wait for more calls
+     */
+    long window() default 5;
+
+    int maxBatchSize() default 100;
+
+    /**
+     * property of the returned item, equals to the key
+     */
+    String keyProperty() default "id";
+}
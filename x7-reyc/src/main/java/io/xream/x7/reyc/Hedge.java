@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc;
+
+import java.lang.annotation.*;
+
+/**
+ * on the idempotent GET method of ReyClient <br>
+ * no response in the delay (percentile of recent latency), a duplicate sent to the next url <br>
+ * the first response taken, the other cancelled <br>
+ * not with ReyCache <br>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface Hedge {
+
+    /**
+     * percentile of recent latency as the delay
+     */
+    int percentile() default 95;
+
+    /**
+     * ms, the delay not less than
+     */
+    long minDelay() default 5;
+
+    /**
+     * ms, the delay before enough samples, and not more than
+     */
+    long maxDelay() default 1000;
+
+    /**
+     * hedged calls, % of all calls at most
+     */
+    int budget() default 10;
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc;
+
+import java.lang.annotation.*;
+
+/**
+ * cache the response of the idempotent GET method of ReyClient <br>
+ * Cache-Control of the response preferred to ttl, no-store not cached <br>
+ * expired with ETag or Last-Modified, revalidated by conditional GET <br>
+ * not with Hedge <br>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface ReyCache {
+
+    /**
+     * ms, without max-age of the response
+     */
+    long ttl() default 60000;
+
+    int maxEntries() default 1000;
+
+    /**
+     * index of args as the key <br>
+     * {}: the url resolved with path variables
+     */
+    int[] keyArgs() default {};
+
+    /**
+     * true: stored also by the CacheResolver, if configed
+     */
+    boolean l2() default false;
+}
@@ -26,7 +26,7 @@ public @interface ReyClient {
     String IGNORE_CIRCUITBREAKER = "IGNORE_CIRCUITBREAKER";
 
     /**
-     * dns or url
+     * dns or url, or the list of them split by ","
      */
     String value() default  "";
 
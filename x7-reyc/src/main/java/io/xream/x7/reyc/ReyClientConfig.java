@@ -20,15 +20,23 @@ import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.retry.RetryRegistry;
 import io.xream.x7.reyc.internal.ClientResolver;
 import io.xream.x7.reyc.internal.HttpClientProperies;
+import io.xream.x7.reyc.internal.ResponseCache;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Import;
+import x7.core.repository.CacheResolver;
 
 @Import(HttpClientProperies.class)
 public class ReyClientConfig {
 
-    public ReyClientConfig(HttpClientProperies properies, CircuitBreakerRegistry circuitBreakerRegistry){
+    public ReyClientConfig(HttpClientProperies properies, CircuitBreakerRegistry circuitBreakerRegistry, ObjectProvider<CacheResolver> cacheResolverProvider){
 
         RetryRegistry retryRegistry = RetryRegistry.ofDefaults();
         ClientResolver.init(properies, circuitBreakerRegistry, retryRegistry);
+
+        CacheResolver cacheResolver = cacheResolverProvider.getIfAvailable();
+        if (cacheResolver != null) {
+            ResponseCache.setCacheResolver(cacheResolver);
+        }
     }
 
 }
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc.internal;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import x7.core.async.HeartBeat;
+import x7.core.async.HeartBeator;
+import x7.core.bean.KV;
+import x7.core.util.ExceptionUtil;
+import x7.core.util.HttpClientPool;
+import x7.core.util.HttpClientUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NIO http client of one backend, for the ReyClient methods returning CompletableFuture <br>
+ * cancel the future, the exchange aborted <br>
+ * one io reactor per endpoint, of IO_THREADS threads, so the io threads not endpoints * cores <br>
+ */
+public class AsyncHttpClientPool implements HeartBeat {
+
+    private final static long EVICT_INTERVAL = 5000;
+    /**
+     * the reactor only moves bytes, the entity decoded off it
+     */
+    private final static int IO_THREADS = Math.min(2, Runtime.getRuntime().availableProcessors());
+
+    private final PoolingNHttpClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient client;
+    private final HttpClientPool.Config config;
+
+    public AsyncHttpClientPool(HttpClientPool.Config config) {
+
+        this.config = config;
+
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(IO_THREADS)
+                .setConnectTimeout(config.getConnectTimeout())
+                .setSoTimeout(config.getSocketTimeout())
+                .setSoKeepAlive(true)
+                .build();
+        try {
+            this.connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        } catch (IOReactorException e) {
+            throw new RuntimeException(ExceptionUtil.getMessage(e));
+        }
+        this.connectionManager.setMaxTotal(config.getMaxTotal());
+        this.connectionManager.setDefaultMaxPerRoute(config.getMaxPerRoute());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(config.getConnectTimeout())
+                .setSocketTimeout(config.getSocketTimeout())
+                .setConnectionRequestTimeout(config.getConnectionRequestTimeout())
+                .build();
+
+        this.client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(HttpClientPool.keepAliveStrategy(config.getKeepAlive()))
+                .build();
+        this.client.start();
+
+        HeartBeator.add(this, EVICT_INTERVAL);
+    }
+
+    /**
+     * the entity buffered, to decode off the io reactor
+     */
+    public CompletableFuture<HttpResponse> get(String url, List<KV> headerList) {
+        return execute(new HttpGet(url), headerList);
+    }
+
+    public CompletableFuture<HttpResponse> post(String url, String json, List<KV> headerList) {
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setHeader("Content-type", "application/json;charset=UTF-8");
+        httpPost.setEntity(new ByteArrayEntity(json.getBytes(StandardCharsets.UTF_8)));
+        return execute(httpPost, headerList);
+    }
+
+    /**
+     * GET with status and headers, the body as String
+     */
+    public CompletableFuture<HttpClientUtil.Response> exchange(String url, List<KV> headerList) {
+        CompletableFuture<HttpResponse> future = execute(new HttpGet(url), headerList);
+        CompletableFuture<HttpClientUtil.Response> cf = future.thenApply(response -> {
+            try {
+                return HttpClientUtil.Response.of(response);
+            } catch (IOException e) {
+                throw new RuntimeException(ExceptionUtil.getMessage(e));
+            }
+        });
+        cf.whenComplete((r, e) -> {
+            if (cf.isCancelled()) {
+                future.cancel(false);
+            }
+        });
+        return cf;
+    }
+
+    private CompletableFuture<HttpResponse> execute(final HttpRequestBase request, List<KV> headerList) {
+
+        if (headerList != null) {
+            for (KV kv : headerList) {
+                request.addHeader(kv.getK(), kv.getV().toString());
+            }
+        }
+
+        final CompletableFuture<HttpResponse> cf = new CompletableFuture<>();
+
+        final Future<HttpResponse> future = client.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                cf.complete(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                cf.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                cf.cancel(false);
+            }
+        });
+
+        cf.whenComplete((r, e) -> {
+            if (cf.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+
+        return cf;
+    }
+
+    public HttpClientPool.Config getConfig() {
+        return config;
+    }
+
+    public int getLeased() {
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    public int getPending() {
+        return connectionManager.getTotalStats().getPending();
+    }
+
+    public void close() {
+        HeartBeator.remove(this);
+        try {
+            client.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 内部机制, 永远不能调用此方法
+     */
+    @Deprecated
+    @Override
+    public void tick(long now) {
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(config.getIdleTimeout(), TimeUnit.MILLISECONDS);
+    }
+}
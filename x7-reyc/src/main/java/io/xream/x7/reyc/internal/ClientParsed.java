@@ -17,16 +17,20 @@
 package io.xream.x7.reyc.internal;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class ClientParsed {
 
     private Class<?> objectType;
     private String url;
+    private List<String> baseUrlList = Collections.emptyList();
     private Map<String,MethodParsed> map = new HashMap<>();
     private Map<String, Method> fallbackMethodMap = new HashMap<>();
     private Object fallback;
+    private volatile LoadBalancer balancer;
 
     public Class<?> getObjectType() {
         return objectType;
@@ -40,8 +44,19 @@ public class ClientParsed {
         return url;
     }
 
+    /**
+     * @param url dns or url, or the list split by ","
+     */
     public void setUrl(String url) {
         this.url = url;
+        this.baseUrlList = Collections.unmodifiableList(EndpointRegistry.split(url));
+    }
+
+    /**
+     * every url with http://
+     */
+    public List<String> getBaseUrlList() {
+        return baseUrlList;
     }
 
     public Map<String, MethodParsed> getMap() {
@@ -68,6 +83,14 @@ public class ClientParsed {
         this.fallback = fallback;
     }
 
+    public LoadBalancer getBalancer() {
+        return balancer;
+    }
+
+    public void setBalancer(LoadBalancer balancer) {
+        this.balancer = balancer;
+    }
+
     @Override
     public String toString() {
         return "ClientParsed{" +
@@ -16,6 +16,9 @@
  */
 package io.xream.x7.reyc.internal;
 
+import io.xream.x7.reyc.Coalesce;
+import io.xream.x7.reyc.Hedge;
+import io.xream.x7.reyc.ReyCache;
 import io.xream.x7.reyc.ReyClient;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -23,10 +26,13 @@ import x7.core.bean.KV;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class ClientParser {
 
@@ -78,6 +84,11 @@ public class ClientParser {
 
             String methodName = method.getName();
             Class<?> returnType = method.getReturnType();
+            boolean async = false;
+            if (returnType == CompletableFuture.class) {
+                async = true;
+                returnType = getTypeArgument(method.getGenericReturnType());
+            }
 
             Annotation mappingAnno = method.getAnnotation(RequestMapping.class);
             if (mappingAnno == null)
@@ -115,7 +126,38 @@ public class ClientParser {
 
             MethodParsed methodParsed = new MethodParsed();
             methodParsed.setRequestMapping(mapping);
+            methodParsed.setUrlTemplate(UrlTemplate.compile(mapping));
             methodParsed.setReturnType(returnType);
+            methodParsed.setAsync(async);
+
+            Coalesce coalesce = method.getAnnotation(Coalesce.class);
+            if (coalesce != null) {
+                if (rm != RequestMethod.GET)
+                    throw new RuntimeException(clz.getName()+"."+methodName+ ", Coalesce, only for GET");
+                if (!coalesce.batchMapping().equals("") && method.getParameterCount() != 1)
+                    throw new RuntimeException(clz.getName()+"."+methodName+ ", Coalesce batch, only for the method of one arg");
+                methodParsed.setCoalescer(new Coalescer(parsed, methodParsed, coalesce));
+            }
+
+            ReyCache reyCache = method.getAnnotation(ReyCache.class);
+            if (reyCache != null) {
+                if (rm != RequestMethod.GET)
+                    throw new RuntimeException(clz.getName()+"."+methodName+ ", ReyCache, only for GET");
+                if (method.getAnnotation(Hedge.class) != null)
+                    throw new RuntimeException(clz.getName()+"."+methodName+ ", ReyCache, not with Hedge");
+                for (int i : reyCache.keyArgs()) {
+                    if (i < 0 || i >= method.getParameterCount())
+                        throw new RuntimeException(clz.getName()+"."+methodName+ ", ReyCache, keyArgs out of args: " + i);
+                }
+                methodParsed.setResponseCache(new ResponseCache(clz.getName() + "." + methodName + ":", reyCache));
+            }
+
+            Hedge hedge = method.getAnnotation(Hedge.class);
+            if (hedge != null) {
+                if (rm != RequestMethod.GET)
+                    throw new RuntimeException(clz.getName()+"."+methodName+ ", Hedge, only for GET");
+                methodParsed.setHedger(new Hedger(hedge));
+            }
             methodParsed.setRequestMethod(rm);
             methodParsed.setHeaderList(hearderList);
 
@@ -124,4 +166,15 @@ public class ClientParser {
 
     }
 
+    private static Class<?> getTypeArgument(Type genericType) {
+        if (!(genericType instanceof ParameterizedType))
+            return Object.class;
+        Type arg = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+        if (arg instanceof Class)
+            return (Class<?>) arg;
+        if (arg instanceof ParameterizedType)
+            return (Class<?>) ((ParameterizedType) arg).getRawType();
+        return Object.class;
+    }
+
 }
@@ -19,23 +19,38 @@ package io.xream.x7.reyc.internal;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerOpenException;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.AsyncRetry;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryRegistry;
 import io.vavr.control.Try;
 import io.xream.x7.reyc.ReyClient;
+import org.apache.http.HttpResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.RequestMethod;
+import x7.core.async.ExecutorFactory;
+import x7.core.bean.KV;
 import x7.core.exception.BusyException;
 import x7.core.exception.RemoteServiceException;
+import x7.core.util.ExceptionUtil;
+import x7.core.util.HttpClientPool;
 import x7.core.util.HttpClientUtil;
 import x7.core.util.JsonX;
-import x7.core.util.StringUtil;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.regex.Pattern;
 
 public class ClientResolver {
 
@@ -44,68 +59,282 @@ public class ClientResolver {
 
     private static CircuitBreakerRegistry circuitBreakerRegistry;
     private static RetryRegistry retryRegistry;
+    /**
+     * backend -> AsyncRetry, by the RetryConfig of retryRegistry
+     */
+    private final static Map<String, AsyncRetry> asyncRetryMap = new ConcurrentHashMap<>();
 
     private static HttpClientProperies properies;
 
+    private final static Map<String, ConcurrencyLimiter> limiterMap = new ConcurrentHashMap<>();
+
 
     public static void init(HttpClientProperies p, CircuitBreakerRegistry c, RetryRegistry r) {
         circuitBreakerRegistry = c;
         properies = p;
         retryRegistry = r;
+        EndpointRegistry.init(p, c);
     }
 
-    private static Pattern pattern = Pattern.compile("\\{[\\w]*\\}");
+    /**
+     * decode and stages of the caller off the io reactor; retry scheduling
+     */
+    static class AsyncHolder {
+        final static ExecutorService EXECUTOR = ExecutorFactory.newTaskExecutor("x7-reyc", Runtime.getRuntime().availableProcessors() * 2);
+        final static ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(ExecutorFactory.threadFactory("x7-reyc-retry", true));
+    }
 
+    /**
+     * @return null if http.limit(s).enabled=false
+     */
+    public static ConcurrencyLimiter getLimiter(String backend) {
+        ConcurrencyLimiter limiter = limiterMap.get(backend);
+        if (limiter != null)
+            return limiter;
+        HttpClientProperies.Limit config = properies.getLimit(backend);
+        if (!config.isEnabled())
+            return null;
+        return limiterMap.computeIfAbsent(backend, b -> new ConcurrencyLimiter(b, config));
+    }
+
+    /**
+     * for metrics, in flight and limit
+     */
+    public static Collection<ConcurrencyLimiter> getLimiters() {
+        return limiterMap.values();
+    }
+
+    /**
+     * of every endpoint
+     */
+    static HttpClientPool.Config getPoolConfig() {
+        HttpClientPool.Config config = new HttpClientPool.Config();
+        config.setConnectTimeout(properies.getConnectTimeout());
+        config.setSocketTimeout(properies.getSocketTimeout());
+        config.setConnectionRequestTimeout(properies.getConnectionRequestTimeout());
+        config.setMaxTotal(properies.getMaxTotal());
+        config.setMaxPerRoute(properies.getMaxPerRoute());
+        config.setKeepAlive(properies.getKeepAlive());
+        config.setIdleTimeout(properies.getIdleTimeout());
+        return config;
+    }
 
     protected static Object resolve(String remoteIntfName, String methodName, Object[] args) {
 
         ClientParsed parsed = ClientParser.get(remoteIntfName);
-        String url = parsed.getUrl();
-        if (!url.startsWith("http")) {
-            url = "http://" + url;
+        MethodParsed methodParsed = getMethodParsed(parsed, remoteIntfName, methodName);
+
+        String path = buildPath(methodParsed, args);
+
+        Coalescer coalescer = methodParsed.getCoalescer();
+        if (coalescer != null) {
+            CompletableFuture<Object> cf = coalescer.resolve(path, args, () -> {
+                CompletableFuture<Object> single = new CompletableFuture<>();
+                try {
+                    single.complete(resolve(parsed, methodParsed, path, args));
+                } catch (Throwable e) {
+                    single.completeExceptionally(e);
+                }
+                return single;
+            });
+            return join(cf);
         }
-        MethodParsed methodParsed = parsed.getMap().get(methodName);
-
-        if (methodParsed == null)
-            throw new RuntimeException("RequestMapping NONE: " + remoteIntfName + "." + methodName);
 
-        String mapping = methodParsed.getRequestMapping();
+        return resolve(parsed, methodParsed, path, args);
+    }
 
-        url = url + mapping;
+    /**
+     * @param path the url without the base url of endpoint
+     */
+    private static Object resolve(ClientParsed parsed, MethodParsed methodParsed, String path, Object[] args) {
+
+        LoadBalancer balancer = EndpointRegistry.getBalancer(parsed);
+
+        ResponseCache cache = methodParsed.getResponseCache();
+        if (cache != null) {
+            String key = cache.key(path, args);
+            ResponseCache.Entry entry = cache.get(key);
+            if (entry != null && !entry.isExpired(System.currentTimeMillis()))
+                return cache.value(entry, body -> ResponseDecoder.decode(body, methodParsed));
+
+            List<KV> headerList = cache.conditionalHeaders(methodParsed.getHeaderList(), entry);
+            Endpoint endpoint = balancer.choose(null);
+            HttpClientUtil.Response response = call(endpoint,
+                    base -> HttpClientUtil.exchange(endpoint.getPool(), base + path, headerList, properies.getConnectTimeout(), properies.getSocketTimeout()));
+            return cache.onResponse(key, entry, response, methodParsed, body -> ResponseDecoder.decode(body, methodParsed));
+        }
 
-        String result = null;
+        Hedger hedger = methodParsed.getHedger();
+        if (hedger != null)
+            return join(hedger.execute(balancer, endpoint -> send(endpoint, methodParsed, path, args)));
 
         RequestMethod requestMethod = methodParsed.getRequestMethod();
 
+        Endpoint endpoint = balancer.choose(null);
+        HttpClientPool pool = endpoint.getPool();
+
         if (requestMethod == RequestMethod.POST) {
+            Object param = (args != null && args.length > 0) ? args[0] : null;
+            return call(endpoint, base -> HttpClientUtil.post(pool, base + path, param, methodParsed.getHeaderList(), properies.getConnectTimeout(), properies.getSocketTimeout(),
+                    response -> ResponseDecoder.decode(response, methodParsed)));
+        }
+
+        return call(endpoint, base -> HttpClientUtil.get(pool, base + path, methodParsed.getHeaderList(), properies.getConnectTimeout(), properies.getSocketTimeout(),
+                response -> ResponseDecoder.decode(response, methodParsed)));
+    }
 
-            if (args != null && args.length > 0) {
-                result = HttpClientUtil.post(url, args[0], methodParsed.getHeaderList(), properies.getConnectTimeout(), properies.getSocketTimeout());
-            } else {
-                result = HttpClientUtil.post(url, null, methodParsed.getHeaderList(), properies.getConnectTimeout(), properies.getSocketTimeout());
+    /**
+     * outstanding, latency and error of the endpoint recorded
+     */
+    private static <T> T call(Endpoint endpoint, Function<String, T> request) {
+        long startTime = endpoint.start();
+        try {
+            T t = request.apply(endpoint.getBaseUrl());
+            endpoint.end(startTime, null);
+            return t;
+        } catch (RuntimeException e) {
+            endpoint.end(startTime, e);
+            throw e;
+        }
+    }
+
+    private static <T> CompletableFuture<T> callAsync(Endpoint endpoint, Function<String, CompletableFuture<T>> request) {
+        long startTime = endpoint.start();
+        CompletableFuture<T> cf;
+        try {
+            cf = request.apply(endpoint.getBaseUrl());
+        } catch (RuntimeException e) {
+            endpoint.end(startTime, e);
+            throw e;
+        }
+        cf.whenComplete((r, e) -> endpoint.end(startTime, e));
+        return cf;
+    }
+
+    /**
+     * for the method returning CompletableFuture, no thread blocked while waiting
+     */
+    protected static CompletableFuture<Object> resolveAsync(String remoteIntfName, String methodName, Object[] args) {
+
+        ClientParsed parsed = ClientParser.get(remoteIntfName);
+        MethodParsed methodParsed = getMethodParsed(parsed, remoteIntfName, methodName);
+
+        String path = buildPath(methodParsed, args);
+
+        Coalescer coalescer = methodParsed.getCoalescer();
+        if (coalescer != null) {
+            return coalescer.resolve(path, args, () -> resolveAsync(parsed, methodParsed, path, args));
+        }
+
+        return resolveAsync(parsed, methodParsed, path, args);
+    }
+
+    private static CompletableFuture<Object> resolveAsync(ClientParsed parsed, MethodParsed methodParsed, String path, Object[] args) {
+
+        LoadBalancer balancer = EndpointRegistry.getBalancer(parsed);
+
+        ResponseCache cache = methodParsed.getResponseCache();
+        if (cache != null) {
+            String key = cache.key(path, args);
+            ResponseCache.Entry entry = cache.get(key);
+            if (entry != null && !entry.isExpired(System.currentTimeMillis()))
+                return CompletableFuture.completedFuture(cache.value(entry, body -> ResponseDecoder.decode(body, methodParsed)));
+
+            List<KV> headerList = cache.conditionalHeaders(methodParsed.getHeaderList(), entry);
+            Endpoint endpoint = balancer.choose(null);
+            CompletableFuture<HttpClientUtil.Response> future = callAsync(endpoint,
+                    base -> endpoint.getAsyncPool().exchange(base + path, headerList));
+            CompletableFuture<Object> cf = future.thenApplyAsync(
+                    response -> cache.onResponse(key, entry, response, methodParsed, body -> ResponseDecoder.decode(body, methodParsed)),
+                    AsyncHolder.EXECUTOR);
+            cf.whenComplete((r, e) -> {
+                if (cf.isCancelled()) {
+                    future.cancel(false);
+                }
+            });
+            return cf;
+        }
+
+        Hedger hedger = methodParsed.getHedger();
+        if (hedger != null)
+            return hedger.execute(balancer, endpoint -> send(endpoint, methodParsed, path, args));
+
+        return send(balancer.choose(null), methodParsed, path, args);
+    }
+
+    private static CompletableFuture<Object> send(Endpoint endpoint, MethodParsed methodParsed, String path, Object[] args) {
+        return callAsync(endpoint, base -> send(endpoint.getAsyncPool(), methodParsed, base + path, args));
+    }
+
+    private static CompletableFuture<Object> send(AsyncHttpClientPool pool, MethodParsed methodParsed, String url, Object[] args) {
+
+        CompletableFuture<HttpResponse> future;
+        if (methodParsed.getRequestMethod() == RequestMethod.POST) {
+            String json = "";
+            if (args != null && args.length > 0 && args[0] != null) {
+                json = JsonX.toJson(args[0]);
             }
+            future = pool.post(url, json, methodParsed.getHeaderList());
         } else {
-            List<String> regExList = StringUtil.listByRegEx(url, pattern);
-            int size = regExList.size();
-            for (int i = 0; i < size; i++) {
-                url = url.replaceAll(regExList.get(i), args[i].toString());
-            }
-            result = HttpClientUtil.getUrl(url, methodParsed.getHeaderList(), properies.getConnectTimeout(), properies.getSocketTimeout());
+            future = pool.get(url, methodParsed.getHeaderList());
         }
 
-        if (StringUtil.isNullOrEmpty(result))
-            return null;
+        CompletableFuture<Object> cf = future.thenApplyAsync(response -> {
+            try {
+                return ResponseDecoder.decode(response, methodParsed);
+            } catch (IOException e) {
+                throw new RuntimeException(ExceptionUtil.getMessage(e));
+            }
+        }, AsyncHolder.EXECUTOR);
 
-        hanleRemoteException(result);
+        cf.whenComplete((r, e) -> {
+            if (cf.isCancelled()) {
+                future.cancel(false);
+            }
+        });
 
-        Class<?> returnType = methodParsed.getReturnType();
-        if (returnType == null || returnType == void.class) {
-            return null;
+        return cf;
+    }
+
+    /**
+     * POST [key...] to the batchMapping of Coalesce
+     */
+    static List<?> resolveBatch(ClientParsed parsed, MethodParsed methodParsed, List<Object> keyList) {
+
+        String path = methodParsed.getCoalescer().getCoalesce().batchMapping();
+
+        Endpoint endpoint = EndpointRegistry.getBalancer(parsed).choose(null);
+
+        return call(endpoint, base -> HttpClientUtil.post(endpoint.getPool(), base + path, keyList, methodParsed.getHeaderList(), properies.getConnectTimeout(), properies.getSocketTimeout(),
+                response -> ResponseDecoder.decodeList(response, methodParsed)));
+    }
+
+    private static Object join(CompletableFuture<Object> cf) {
+        try {
+            return cf.join();
+        } catch (CompletionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof RuntimeException)
+                throw (RuntimeException) t;
+            throw new RuntimeException(ExceptionUtil.getMessage(t));
         }
+    }
 
-        Object obj = JsonX.toObject(result, returnType);
+    private static MethodParsed getMethodParsed(ClientParsed parsed, String remoteIntfName, String methodName) {
+        MethodParsed methodParsed = parsed.getMap().get(methodName);
 
-        return obj;
+        if (methodParsed == null)
+            throw new RuntimeException("RequestMapping NONE: " + remoteIntfName + "." + methodName);
+        return methodParsed;
+    }
+
+    /**
+     * the base url of endpoint chosen by LoadBalancer
+     */
+    private static String buildPath(MethodParsed methodParsed, Object[] args) {
+        if (methodParsed.getRequestMethod() == RequestMethod.POST)
+            return methodParsed.getRequestMapping();
+        return methodParsed.getUrlTemplate().expand("", args);
     }
 
     protected static Object wrap(HttpClientProxy proxy, String methodName, BackendService backendService) {
@@ -136,7 +365,17 @@ public class ClientResolver {
             }
         }
 
-        Object result = Try.ofSupplier(decoratedSupplier)
+        ConcurrencyLimiter limiter = getLimiter(backend);
+        if (limiter != null && !limiter.tryAcquire())
+            return hanleException(new ConcurrencyLimitException(limiter.toString()), tag, backendService);
+
+        long startTime = System.nanoTime();
+        Try<Object> t = Try.ofSupplier(decoratedSupplier);
+        if (limiter != null) {
+            limiter.release(System.nanoTime() - startTime, t.isFailure() && isDropped(t.getCause()));
+        }
+
+        Object result = t
                 .recover(e ->
                         hanleException(e, tag, backendService)
                 ).get();
@@ -144,16 +383,108 @@ public class ClientResolver {
         return result;
     }
 
+    /**
+     * timeout or connection failure, not the error of remote
+     */
+    static boolean isDropped(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return !(e instanceof RemoteServiceException) && !(e instanceof CircuitBreakerOpenException);
+    }
+
+    private static AsyncRetry getAsyncRetry(String backend) {
+        AsyncRetry retry = asyncRetryMap.get(backend);
+        if (retry != null)
+            return retry;
+        return asyncRetryMap.computeIfAbsent(backend, b -> {
+            AsyncRetry r = AsyncRetry.of(b, retryRegistry.retry(b).getRetryConfig());
+            r.getEventPublisher()
+                    .onRetry(event -> {
+                        if (logger.isDebugEnabled()) {
+                            logger.debug(event.getEventType().toString() + "_" + event.getNumberOfRetryAttempts() + ": "
+                                    + b);
+                        }
+                    });
+            return r;
+        });
+    }
+
+    protected static CompletableFuture<Object> wrapAsync(HttpClientProxy proxy, String methodName, AsyncBackendService backendService) {
+
+        String backend = proxy.getBackend();
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(backend);
+
+        Supplier<CompletionStage<Object>> decoratedSupplier = CircuitBreaker
+                .decorateCompletionStage(circuitBreaker, backendService::decorate);
+
+        final String intfName = proxy.getObjectType().getName();
+        final String tag = intfName + "." + methodName;
+
+        if (proxy.isRetry()) {
+            AsyncRetry retry = getAsyncRetry(backend);
+            decoratedSupplier = AsyncRetry
+                    .decorateCompletionStage(retry, AsyncHolder.SCHEDULER, decoratedSupplier);
+        }
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+
+        ConcurrencyLimiter limiter = getLimiter(backend);
+        if (limiter != null && !limiter.tryAcquire()) {
+            try {
+                hanleException(new ConcurrencyLimitException(limiter.toString()), tag, backendService);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+            return result;
+        }
+
+        long startTime = System.nanoTime();
+
+        CompletionStage<Object> stage;
+        try {
+            stage = decoratedSupplier.get();
+        } catch (Throwable e) {
+            stage = failed(e);
+        }
+
+        stage.whenComplete((r, e) -> {
+            if (limiter != null) {
+                limiter.release(System.nanoTime() - startTime, e != null && isDropped(e));
+            }
+            if (e == null) {
+                result.complete(r);
+                return;
+            }
+            if (e instanceof CompletionException && e.getCause() != null) {
+                e = e.getCause();
+            }
+            try {
+                hanleException(e, tag, backendService);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+
+        return result;
+    }
+
+    private static CompletionStage<Object> failed(Throwable e) {
+        CompletableFuture<Object> cf = new CompletableFuture<>();
+        cf.completeExceptionally(e);
+        return cf;
+    }
+
     /**
      * @param e
      * @return
      */
-    private static Object hanleException(Throwable e, String tag, BackendService backendService) {
+    private static Object hanleException(Throwable e, String tag, Fallback backendService) {
 
         if (e instanceof RemoteServiceException) {
             throw (RemoteServiceException) e;
         }
-        if (e instanceof CircuitBreakerOpenException) {
+        if (e instanceof CircuitBreakerOpenException || e instanceof ConcurrencyLimitException) {
 
             backendService.fallback();
             if (logger.isErrorEnabled()) {
@@ -187,22 +518,6 @@ public class ClientResolver {
         throw new RuntimeException(tag + ": " + e.getMessage());
     }
 
-    private static void hanleRemoteException(String result) {
-
-        if (result.contains("RemoteServiceException")
-                || result.contains("RuntimeException")
-                || result.contains("BizException")
-                || result.contains("\"status\":\"FAIL\"")) {
-
-            if (logger.isErrorEnabled()) {
-                logger.error(result);
-            }
-
-            throw new RemoteServiceException(result);
-        }
-
-    }
-
     public static Object fallback(String intfName, String methodName, Object[] args) {
 
 
@@ -224,9 +539,15 @@ public class ClientResolver {
     }
 
 
-    public interface BackendService {
+    public interface Fallback {
+        Object fallback();
+    }
+
+    public interface BackendService extends Fallback {
         Object decorate();
+    }
 
-        Object fallback();
+    public interface AsyncBackendService extends Fallback {
+        CompletionStage<Object> decorate();
     }
 }
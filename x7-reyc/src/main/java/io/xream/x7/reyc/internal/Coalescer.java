@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc.internal;
+
+import io.xream.x7.reyc.Coalesce;
+import x7.core.util.BeanUtil;
+import x7.core.util.JsonX;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * single-flight and micro-batching of one ReyClient GET method <br>
+ * the batch flushed when the window elapsed or maxBatchSize reached <br>
+ * the result not shared: every caller given its own copy, decoded from the json of the result <br>
+ */
+public class Coalescer {
+
+    private final ClientParsed parsed;
+    private final MethodParsed methodParsed;
+    private final Coalesce coalesce;
+    private final Method keyGetter;
+
+    private final Map<String, Flight> inFlightMap = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    public Coalescer(ClientParsed parsed, MethodParsed methodParsed, Coalesce coalesce) {
+        this.parsed = parsed;
+        this.methodParsed = methodParsed;
+        this.coalesce = coalesce;
+
+        if (isBatch()) {
+            Class<?> returnType = methodParsed.getReturnType();
+            try {
+                this.keyGetter = returnType.getMethod(BeanUtil.getGetter(coalesce.keyProperty()));
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(parsed.getObjectType().getName() + ", Coalesce, keyProperty not found: "
+                        + returnType.getName() + "." + coalesce.keyProperty());
+            }
+        } else {
+            this.keyGetter = null;
+        }
+    }
+
+    public boolean isBatch() {
+        return !coalesce.batchMapping().equals("");
+    }
+
+    public Coalesce getCoalesce() {
+        return coalesce;
+    }
+
+    /**
+     * @param url    the resolved url, the key of single-flight
+     * @param args   args of the method, args[0] is the key of batch
+     * @param single the request without batch, called by the leader
+     */
+    public CompletableFuture<Object> resolve(String url, Object[] args, Supplier<CompletableFuture<Object>> single) {
+
+        Flight flight = inFlightMap.get(url);
+        if (flight != null)
+            return flight.join();
+
+        Flight leader = new Flight();
+        flight = inFlightMap.putIfAbsent(url, leader);
+        if (flight != null)
+            return flight.join();
+
+        CompletableFuture<Object> future = leader.future;
+        future.whenComplete((r, e) -> inFlightMap.remove(url, leader));
+
+        if (isBatch()) {
+            enqueue(new Pending(args[0], future));
+            return leader.join();
+        }
+
+        try {
+            single.get().whenComplete((r, e) -> {
+                if (e == null) {
+                    future.complete(r);
+                } else {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+
+        return leader.join();
+    }
+
+    private void enqueue(Pending pending) {
+        queue.add(pending);
+        if (queueSize.incrementAndGet() >= coalesce.maxBatchSize()) {
+            ClientResolver.AsyncHolder.EXECUTOR.execute(this::flush);
+            return;
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            ClientResolver.AsyncHolder.SCHEDULER.schedule(() -> {
+                scheduled.set(false);
+                ClientResolver.AsyncHolder.EXECUTOR.execute(this::flush);
+            }, coalesce.window(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+
+        for (; ; ) {
+            List<Pending> batch = new ArrayList<>();
+            Pending pending;
+            while (batch.size() < coalesce.maxBatchSize() && (pending = queue.poll()) != null) {
+                queueSize.decrementAndGet();
+                batch.add(pending);
+            }
+            if (batch.isEmpty())
+                return;
+
+            call(batch);
+        }
+    }
+
+    private void call(List<Pending> batch) {
+
+        List<Object> keyList = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            keyList.add(pending.key);
+        }
+
+        try {
+            List<?> resultList = ClientResolver.resolveBatch(parsed, methodParsed, keyList);
+
+            Map<String, Object> resultMap = new HashMap<>();
+            if (resultList != null) {
+                for (Object obj : resultList) {
+                    if (obj == null)
+                        continue;
+                    Object key = keyGetter.invoke(obj);
+                    resultMap.put(String.valueOf(key), obj);
+                }
+            }
+
+            for (Pending pending : batch) {
+                pending.future.complete(resultMap.get(String.valueOf(pending.key)));
+            }
+        } catch (Throwable e) {
+            for (Pending pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * one request for the identical calls
+     */
+    private static class Flight {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private volatile String json;
+
+        /**
+         * the copy for the caller, cancelled without the request cancelled
+         */
+        private CompletableFuture<Object> join() {
+            return future.thenApply(this::copy);
+        }
+
+        /**
+         * String, Number, Boolean not copied
+         */
+        private Object copy(Object result) {
+            if (result == null || result instanceof String || result instanceof Number || result instanceof Boolean)
+                return result;
+            String s = json;
+            if (s == null) {
+                s = JsonX.toJson(result);
+                json = s;
+            }
+            return JsonX.toObject(s, result.getClass());
+        }
+    }
+
+    private static class Pending {
+        private final Object key;
+        private final CompletableFuture<Object> future;
+
+        private Pending(Object key, CompletableFuture<Object> future) {
+            this.key = key;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc.internal;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * bulkhead and adaptive concurrency limit of one backend <br>
+ * in flight never over maxConcurrentCalls, nor the limit <br>
+ * limit: +1/limit on the fast success, *backoffRatio on the drop or rtt over minRtt * tolerance <br>
+ */
+public class ConcurrencyLimiter {
+
+    private final static int MIN_RTT_WINDOW = 1000;
+
+    private final String backend;
+    private final HttpClientProperies.Limit config;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicLong minRtt = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicInteger samples = new AtomicInteger();
+
+    public ConcurrencyLimiter(String backend, HttpClientProperies.Limit config) {
+        this.backend = backend;
+        this.config = config;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(config.isAdaptive() ? config.getInitialLimit() : config.getMaxConcurrentCalls()));
+    }
+
+    /**
+     * @return false: rejected, no wait
+     */
+    public boolean tryAcquire() {
+        int max = Math.min(getLimit(), config.getMaxConcurrentCalls());
+        for (; ; ) {
+            int current = inFlight.get();
+            if (current >= max) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    /**
+     * @param rttNanos time of the call
+     * @param dropped  timeout or connection failure
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+
+        if (!config.isAdaptive())
+            return;
+
+        long min = updateMinRtt(rttNanos);
+
+        for (; ; ) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double newLimit;
+            if (dropped || rttNanos > min * config.getTolerance()) {
+                newLimit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+            } else if (current * 2 >= limit) {
+                newLimit = Math.min(config.getMaxConcurrentCalls(), limit + 1.0 / limit);
+            } else {
+                return;
+            }
+            if (limitBits.compareAndSet(bits, Double.doubleToLongBits(newLimit)))
+                return;
+        }
+    }
+
+    /**
+     * the min rtt forgotten every MIN_RTT_WINDOW samples, to follow the backend
+     */
+    private long updateMinRtt(long rttNanos) {
+        if (samples.incrementAndGet() % MIN_RTT_WINDOW == 0) {
+            minRtt.set(rttNanos);
+            return rttNanos;
+        }
+        for (; ; ) {
+            long min = minRtt.get();
+            if (rttNanos >= min)
+                return min;
+            if (minRtt.compareAndSet(min, rttNanos))
+                return rttNanos;
+        }
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimiter{" +
+                "backend='" + backend + '\'' +
+                ", inFlight=" + getInFlight() +
+                ", limit=" + getLimit() +
+                ", rejected=" + getRejected() +
+                '}';
+    }
+}
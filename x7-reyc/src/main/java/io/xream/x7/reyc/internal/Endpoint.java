@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc.internal;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import x7.core.util.HttpClientPool;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * one instance of backend, with own connection pools <br>
+ * outstanding requests and EWMA latency for LoadBalancer <br>
+ * ejected while the circuit breaker of the endpoint is OPEN, <br>
+ * selectable again for a trial call after the wait duration of OPEN <br>
+ */
+public class Endpoint {
+
+    private static Logger logger = LoggerFactory.getLogger(Endpoint.class);
+
+    private final static double DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final String baseUrl;
+    private final CircuitBreaker circuitBreaker;
+    private final HttpClientPool.Config config;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong ewma = new AtomicLong(Double.doubleToLongBits(0));
+    private volatile long sampleTime = System.nanoTime();
+    private final long waitNanos;
+    private volatile boolean ejected;
+    private volatile long ejectedTime;
+
+    private volatile HttpClientPool pool;
+    private volatile AsyncHttpClientPool asyncPool;
+
+    public Endpoint(String baseUrl, CircuitBreaker circuitBreaker, HttpClientPool.Config config) {
+        this.baseUrl = baseUrl;
+        this.circuitBreaker = circuitBreaker;
+        this.config = config;
+        this.waitNanos = circuitBreaker == null ? 0 : circuitBreaker.getCircuitBreakerConfig().getWaitDurationInOpenState().toNanos();
+        if (circuitBreaker != null) {
+            circuitBreaker.getEventPublisher()
+                    .onStateTransition(event -> {
+                        CircuitBreaker.State state = event.getStateTransition().getToState();
+                        ejectedTime = System.nanoTime();
+                        ejected = state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+                        if (logger.isInfoEnabled()) {
+                            logger.info((ejected ? "EJECTED: " : "RESTORED: ") + baseUrl + ", " + event.getStateTransition());
+                        }
+                    });
+        }
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * @return the start time, nanos
+     */
+    public long start() {
+        outstanding.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * @param e null if success
+     */
+    public void end(long startTime, Throwable e) {
+        outstanding.decrementAndGet();
+        long now = System.nanoTime();
+        long rtt = now - startTime;
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        if (e instanceof CancellationException)
+            return;
+        sample(now, rtt);
+        if (circuitBreaker == null)
+            return;
+        if (e == null || !ClientResolver.isDropped(e)) {
+            circuitBreaker.onSuccess(rtt);
+        } else {
+            circuitBreaker.onError(rtt, e);
+        }
+    }
+
+    private void sample(long now, long rtt) {
+        long elapsed = Math.max(0, now - sampleTime);
+        sampleTime = now;
+        double w = Math.exp(-elapsed / DECAY_NANOS);
+        for (; ; ) {
+            long bits = ewma.get();
+            double old = Double.longBitsToDouble(bits);
+            double value = old == 0 ? rtt : old * w + rtt * (1 - w);
+            if (ewma.compareAndSet(bits, Double.doubleToLongBits(value)))
+                return;
+        }
+    }
+
+    /**
+     * asks the circuit breaker, may move it from OPEN to HALF_OPEN <br>
+     * call it only on the endpoint picked
+     */
+    public boolean isAvailable() {
+        return circuitBreaker == null || circuitBreaker.isCallPermitted();
+    }
+
+    public boolean isEjected() {
+        return ejected;
+    }
+
+    /**
+     * not ejected, or ejected longer than the wait duration of OPEN, no side effect
+     */
+    public boolean isSelectable() {
+        return !ejected || System.nanoTime() - ejectedTime >= waitNanos;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * nanos, 0 before the first response
+     */
+    public double getEwma() {
+        return Double.longBitsToDouble(ewma.get());
+    }
+
+    public HttpClientPool getPool() {
+        HttpClientPool p = pool;
+        if (p != null)
+            return p;
+        synchronized (this) {
+            if (pool == null) {
+                pool = new HttpClientPool(config);
+            }
+            return pool;
+        }
+    }
+
+    public AsyncHttpClientPool getAsyncPool() {
+        AsyncHttpClientPool p = asyncPool;
+        if (p != null)
+            return p;
+        synchronized (this) {
+            if (asyncPool == null) {
+                asyncPool = new AsyncHttpClientPool(config);
+            }
+            return asyncPool;
+        }
+    }
+
+    /**
+     * the pools closed, after removed from EndpointRegistry
+     */
+    public void close() {
+        HttpClientPool p = pool;
+        if (p != null) {
+            p.close();
+        }
+        AsyncHttpClientPool ap = asyncPool;
+        if (ap != null) {
+            ap.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Endpoint{" +
+                "baseUrl='" + baseUrl + '\'' +
+                ", outstanding=" + outstanding.get() +
+                ", ewma=" + getEwma() +
+                ", ejected=" + ejected +
+                '}';
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc.internal;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import x7.core.async.HeartBeat;
+import x7.core.async.HeartBeator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * endpoints of ReyClient, key: value of ReyClient <br>
+ * http.endpoints.{key}=http://10.0.0.1:8080,http://10.0.0.2:8080 <br>
+ * http.endpointsFile: properties of the same format, reloaded if modified, as the stand-in of registry <br>
+ * without the key, the value of ReyClient is the url list <br>
+ * the endpoint dropped on reload removed, its pools closed when no outstanding request, or after RETIRE_TIMEOUT <br>
+ */
+public class EndpointRegistry implements HeartBeat {
+
+    private static Logger logger = LoggerFactory.getLogger(EndpointRegistry.class);
+
+    private final static long RETIRE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    private static HttpClientProperies properies;
+    private static CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final static Map<String, Endpoint> endpointMap = new ConcurrentHashMap<>();
+    private final static Map<String, LoadBalancer> balancerMap = new ConcurrentHashMap<>();
+    /**
+     * <Endpoint, removed time>, to be closed
+     */
+    private final static Map<Endpoint, Long> retiredMap = new ConcurrentHashMap<>();
+
+    private static volatile Map<String, List<String>> fileMap = Collections.emptyMap();
+    private static EndpointRegistry instance;
+
+    private final File file;
+    private long lastModified;
+
+    private EndpointRegistry(File file) {
+        this.file = file;
+        load();
+        HeartBeator.add(this, properies.getEndpointsRefreshInterval());
+    }
+
+    public static synchronized void init(HttpClientProperies p, CircuitBreakerRegistry c) {
+        properies = p;
+        circuitBreakerRegistry = c;
+        String path = p.getEndpointsFile();
+        if (instance == null && path != null && !path.trim().isEmpty()) {
+            instance = new EndpointRegistry(new File(path.trim()));
+        }
+    }
+
+    public static LoadBalancer getBalancer(ClientParsed parsed) {
+        LoadBalancer balancer = parsed.getBalancer();
+        if (balancer != null)
+            return balancer;
+
+        synchronized (EndpointRegistry.class) { // not to be swept by load() while created
+            balancer = balancerMap.computeIfAbsent(parsed.getUrl(),
+                    key -> new LoadBalancer(key, LoadBalancer.Strategy.of(properies.getBalancer()), getEndpointList(key)));
+        }
+        parsed.setBalancer(balancer);
+        return balancer;
+    }
+
+    /**
+     * for metrics, outstanding, EWMA, ejected
+     */
+    public static Collection<Endpoint> getEndpoints() {
+        return endpointMap.values();
+    }
+
+    /**
+     * one endpoint per url, shared by the ReyClients of the same url
+     */
+    public static Endpoint getEndpoint(String baseUrl) {
+        return endpointMap.computeIfAbsent(baseUrl, url -> new Endpoint(url,
+                circuitBreakerRegistry == null ? null : circuitBreakerRegistry.circuitBreaker("endpoint-" + url),
+                ClientResolver.getPoolConfig()));
+    }
+
+    /**
+     * @param key the value of ReyClient
+     */
+    private static List<Endpoint> getEndpointList(String key) {
+        List<String> urlList = fileMap.get(key);
+        if (urlList == null) {
+            String urls = properies.getEndpoints().get(key);
+            urlList = split(urls == null ? key : urls);
+        }
+        List<Endpoint> list = new ArrayList<>(urlList.size());
+        for (String url : urlList) {
+            list.add(getEndpoint(url));
+        }
+        return list;
+    }
+
+    /**
+     * @param urls dns or url, split by ","
+     */
+    public static List<String> split(String urls) {
+        List<String> list = new ArrayList<>();
+        for (String u : urls.split(",")) {
+            u = u.trim();
+            if (u.isEmpty())
+                continue;
+            list.add(u.startsWith("http") ? u : "http://" + u);
+        }
+        return list;
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("http.endpointsFile NOT EXISTS: " + file.getAbsolutePath());
+            }
+            return;
+        }
+        lastModified = file.lastModified();
+        Properties properties = new Properties();
+        try (InputStream is = new FileInputStream(file)) {
+            properties.load(is);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        Map<String, List<String>> map = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            List<String> urlList = split(properties.getProperty(key));
+            if (!urlList.isEmpty()) {
+                map.put(key, Collections.unmodifiableList(urlList));
+            }
+        }
+
+        synchronized (EndpointRegistry.class) {
+            Map<String, List<String>> oldMap = fileMap;
+            fileMap = map;
+
+            for (Map.Entry<String, LoadBalancer> entry : balancerMap.entrySet()) {
+                String key = entry.getKey();
+                List<String> urlList = map.get(key);
+                if (urlList == null ? !oldMap.containsKey(key) : urlList.equals(oldMap.get(key)))
+                    continue;
+                LoadBalancer balancer = entry.getValue();
+                balancer.setEndpoints(getEndpointList(key));
+                if (logger.isInfoEnabled()) {
+                    logger.info("REFRESHED: " + balancer);
+                }
+            }
+
+            sweep();
+        }
+    }
+
+    /**
+     * the endpoints of no balancer removed, to be closed
+     */
+    private static void sweep() {
+        Set<Endpoint> usedSet = new HashSet<>();
+        for (LoadBalancer balancer : balancerMap.values()) {
+            Collections.addAll(usedSet, balancer.getEndpoints());
+        }
+        long now = System.currentTimeMillis();
+        for (Iterator<Endpoint> ite = endpointMap.values().iterator(); ite.hasNext(); ) {
+            Endpoint endpoint = ite.next();
+            if (usedSet.contains(endpoint))
+                continue;
+            ite.remove();
+            retiredMap.put(endpoint, now);
+            if (logger.isInfoEnabled()) {
+                logger.info("REMOVED: " + endpoint);
+            }
+        }
+    }
+
+    private static void closeRetired(long now) {
+        for (Map.Entry<Endpoint, Long> entry : retiredMap.entrySet()) {
+            Endpoint endpoint = entry.getKey();
+            if (endpoint.getOutstanding() > 0 && now - entry.getValue() < RETIRE_TIMEOUT)
+                continue;
+            retiredMap.remove(endpoint);
+            endpoint.close();
+        }
+    }
+
+    /**
+     * 内部机制, 永远不能调用此方法
+     */
+    @Deprecated
+    @Override
+    public void tick(long now) {
+        if (file.exists() && file.lastModified() != lastModified) {
+            load();
+        }
+        closeRetired(now);
+    }
+}
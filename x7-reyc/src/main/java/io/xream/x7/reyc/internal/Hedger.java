@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc.internal;
+
+import io.xream.x7.reyc.Hedge;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * hedged request of one ReyClient method <br>
+ * budget: hedges / calls, halved both after BUDGET_WINDOW calls <br>
+ */
+public class Hedger {
+
+    private final static long BUDGET_WINDOW = 10000;
+
+    private final Hedge hedge;
+    private final LatencyTracker tracker;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+
+    public Hedger(Hedge hedge) {
+        this.hedge = hedge;
+        this.tracker = new LatencyTracker(hedge.percentile());
+    }
+
+    /**
+     * @param balancer endpoints of ReyClient, the hedge sent to another than the primary
+     * @param send     request to the endpoint
+     */
+    public CompletableFuture<Object> execute(LoadBalancer balancer, Function<Endpoint, CompletableFuture<Object>> send) {
+
+        countCall();
+
+        final Endpoint primaryEndpoint = balancer.choose(null);
+
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final long startTime = System.nanoTime();
+
+        final CompletableFuture<Object> primary = send.apply(primaryEndpoint);
+        final AtomicInteger pending = new AtomicInteger(1);
+        final CompletableFuture<?>[] hedged = new CompletableFuture<?>[1];
+
+        primary.whenComplete((r, e) -> onComplete(result, pending, startTime, r, e));
+
+        ScheduledFuture<?> timer = ClientResolver.AsyncHolder.SCHEDULER.schedule(() -> {
+            if (result.isDone() || !tryHedge())
+                return;
+            pending.incrementAndGet();
+            CompletableFuture<Object> second = send.apply(balancer.choose(primaryEndpoint));
+            hedged[0] = second;
+            second.whenComplete((r, e) -> onComplete(result, pending, startTime, r, e));
+            if (result.isDone()) {
+                second.cancel(false);
+            }
+        }, getDelay(), TimeUnit.NANOSECONDS);
+
+        result.whenComplete((r, e) -> {
+            timer.cancel(false);
+            primary.cancel(false);
+            CompletableFuture<?> second = hedged[0];
+            if (second != null) {
+                second.cancel(false);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * the first success, or the last failure
+     */
+    private void onComplete(CompletableFuture<Object> result, AtomicInteger pending, long startTime, Object r, Throwable e) {
+        int left = pending.decrementAndGet();
+        if (e == null) {
+            if (result.complete(r)) {
+                tracker.record(System.nanoTime() - startTime);
+            }
+            return;
+        }
+        if (left == 0 && !result.isDone()) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private long getDelay() {
+        long min = TimeUnit.MILLISECONDS.toNanos(hedge.minDelay());
+        long max = TimeUnit.MILLISECONDS.toNanos(hedge.maxDelay());
+        long p = tracker.getPercentile();
+        if (p < 0)
+            return max;
+        return Math.max(min, Math.min(max, p));
+    }
+
+    private void countCall() {
+        if (calls.incrementAndGet() >= BUDGET_WINDOW) {
+            calls.set(BUDGET_WINDOW / 2);
+            hedges.set(hedges.get() / 2);
+        }
+    }
+
+    private boolean tryHedge() {
+        for (; ; ) {
+            long h = hedges.get();
+            if ((h + 1) * 100 > calls.get() * hedge.budget())
+                return false;
+            if (hedges.compareAndSet(h, h + 1))
+                return true;
+        }
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getHedges() {
+        return hedges.get();
+    }
+}
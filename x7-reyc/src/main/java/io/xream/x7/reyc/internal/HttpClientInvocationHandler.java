@@ -20,6 +20,7 @@ import x7.core.util.ExceptionUtil;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
 
 public class HttpClientInvocationHandler implements InvocationHandler {
 
@@ -34,6 +35,26 @@ public class HttpClientInvocationHandler implements InvocationHandler {
         try{
 
             final String methodName = method.getName();
+            final String intfName = httpClientProxy.getObjectType().getName();
+
+            MethodParsed methodParsed = ClientParser.get(intfName).getMap().get(methodName);
+            if (methodParsed != null && methodParsed.isAsync()) {
+                if (httpClientProxy.getBackend() == null)
+                    return ClientResolver.resolveAsync(intfName, methodName, args);
+
+                return ClientResolver.wrapAsync(httpClientProxy, methodName, new ClientResolver.AsyncBackendService() {
+                    @Override
+                    public CompletionStage<Object> decorate() {
+                        return ClientResolver.resolveAsync(intfName, methodName, args);
+                    }
+
+                    @Override
+                    public Object fallback() {
+                        return ClientResolver.fallback(intfName, methodName, args);
+                    }
+                });
+            }
+
             if (httpClientProxy.getBackend() == null)
                 return ClientResolver.resolve(httpClientProxy.getObjectType().getName(),methodName,args);
 
@@ -18,6 +18,9 @@ package io.xream.x7.reyc.internal;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.HashMap;
+import java.util.Map;
+
 
 @ConfigurationProperties(
         prefix = "http"
@@ -26,6 +29,32 @@ public class HttpClientProperies {
 
     private int connectTimeout = 6000;
     private int socketTimeout = 15000;
+    private int connectionRequestTimeout = 1000;
+    private int maxTotal = 200;
+    private int maxPerRoute = 50;
+    private long keepAlive = 30000;
+    private long idleTimeout = 60000;
+    /**
+     * bulkhead and adaptive limit of every backend
+     */
+    private Limit limit = new Limit();
+    /**
+     * of the backend, key: circuitBreaker of ReyClient
+     */
+    private Map<String, Limit> limits = new HashMap<>();
+    /**
+     * least-outstanding, ewma
+     */
+    private String balancer = "least-outstanding";
+    /**
+     * key: value of ReyClient, value: urls split by ","
+     */
+    private Map<String, String> endpoints = new HashMap<>();
+    /**
+     * properties of the same format as endpoints, reloaded if modified
+     */
+    private String endpointsFile;
+    private long endpointsRefreshInterval = 5000;
 
     public int getConnectTimeout() {
         return connectTimeout;
@@ -43,11 +72,195 @@ public class HttpClientProperies {
         this.socketTimeout = socketTimeout;
     }
 
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Limit getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Limit limit) {
+        this.limit = limit;
+    }
+
+    public Map<String, Limit> getLimits() {
+        return limits;
+    }
+
+    public void setLimits(Map<String, Limit> limits) {
+        this.limits = limits;
+    }
+
+    public Limit getLimit(String backend) {
+        Limit l = limits.get(backend);
+        return l == null ? limit : l;
+    }
+
+    public String getBalancer() {
+        return balancer;
+    }
+
+    public void setBalancer(String balancer) {
+        this.balancer = balancer;
+    }
+
+    public Map<String, String> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, String> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public String getEndpointsFile() {
+        return endpointsFile;
+    }
+
+    public void setEndpointsFile(String endpointsFile) {
+        this.endpointsFile = endpointsFile;
+    }
+
+    public long getEndpointsRefreshInterval() {
+        return endpointsRefreshInterval;
+    }
+
+    public void setEndpointsRefreshInterval(long endpointsRefreshInterval) {
+        this.endpointsRefreshInterval = endpointsRefreshInterval;
+    }
+
     @Override
     public String toString() {
         return "HttpClientProperies{" +
                 "connectTimeout=" + connectTimeout +
                 ", socketTimeout=" + socketTimeout +
+                ", connectionRequestTimeout=" + connectionRequestTimeout +
+                ", maxTotal=" + maxTotal +
+                ", maxPerRoute=" + maxPerRoute +
+                ", keepAlive=" + keepAlive +
+                ", idleTimeout=" + idleTimeout +
+                ", limit=" + limit +
+                ", limits=" + limits +
+                ", balancer='" + balancer + '\'' +
+                ", endpoints=" + endpoints +
+                ", endpointsFile='" + endpointsFile + '\'' +
+                ", endpointsRefreshInterval=" + endpointsRefreshInterval +
                 '}';
     }
+
+    public static class Limit {
+
+        private boolean enabled = false;
+        private int maxConcurrentCalls = 200;
+        private boolean adaptive = true;
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private double backoffRatio = 0.9;
+        private double tolerance = 2.0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public void setTolerance(double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        @Override
+        public String toString() {
+            return "Limit{" +
+                    "enabled=" + enabled +
+                    ", maxConcurrentCalls=" + maxConcurrentCalls +
+                    ", adaptive=" + adaptive +
+                    ", initialLimit=" + initialLimit +
+                    ", minLimit=" + minLimit +
+                    ", backoffRatio=" + backoffRatio +
+                    ", tolerance=" + tolerance +
+                    '}';
+        }
+    }
 }
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * recent latencies in a ring, the percentile recomputed every RECOMPUTE samples
+ */
+public class LatencyTracker {
+
+    private final static int SIZE = 512;
+    private final static int RECOMPUTE = 64;
+
+    private final AtomicLongArray ring = new AtomicLongArray(SIZE);
+    /**
+     * long, not wrapped in the life of the process
+     */
+    private final AtomicLong count = new AtomicLong();
+    private final int percentile;
+
+    private volatile long value = -1;
+
+    public LatencyTracker(int percentile) {
+        this.percentile = percentile;
+    }
+
+    public void record(long nanos) {
+        long n = count.getAndIncrement() + 1;
+        ring.set((int) ((n - 1) & (SIZE - 1)), nanos);
+        if (n > 0 && n % RECOMPUTE == 0) {
+            recompute((int) Math.min(n, SIZE));
+        }
+    }
+
+    /**
+     * @return nanos, -1 before RECOMPUTE samples
+     */
+    public long getPercentile() {
+        return value;
+    }
+
+    private void recompute(int size) {
+        long[] arr = new long[size];
+        for (int i = 0; i < size; i++) {
+            arr[i] = ring.get(i);
+        }
+        Arrays.sort(arr);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        value = arr[Math.max(0, Math.min(size - 1, index))];
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * endpoints of one ReyClient <br>
+ * LEAST_OUTSTANDING: the least requests in flight <br>
+ * EWMA: EWMA latency * (outstanding + 1), unknown latency tried first <br>
+ * the ejected skipped, the circuit breaker asked only for the endpoint picked <br>
+ * all ejected: the least loaded anyway <br>
+ */
+public class LoadBalancer {
+
+    public enum Strategy {
+        LEAST_OUTSTANDING,
+        EWMA;
+
+        public static Strategy of(String name) {
+            if (name == null)
+                return LEAST_OUTSTANDING;
+            String str = name.trim().replace('-', '_').toUpperCase();
+            return str.equals(EWMA.name()) ? EWMA : LEAST_OUTSTANDING;
+        }
+    }
+
+    private final String name;
+    private final Strategy strategy;
+    private volatile Endpoint[] endpoints;
+
+    public LoadBalancer(String name, Strategy strategy, List<Endpoint> endpointList) {
+        this.name = name;
+        this.strategy = strategy;
+        setEndpoints(endpointList);
+    }
+
+    public void setEndpoints(List<Endpoint> endpointList) {
+        if (endpointList.isEmpty())
+            throw new IllegalArgumentException("ReyClient endpoints NONE: " + name);
+        this.endpoints = endpointList.toArray(new Endpoint[0]);
+    }
+
+    public Endpoint[] getEndpoints() {
+        return endpoints;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @param exclude the endpoint of primary request while hedging, or null
+     */
+    public Endpoint choose(Endpoint exclude) {
+        Endpoint[] arr = this.endpoints;
+        int size = arr.length;
+        if (size == 1)
+            return arr[0];
+
+        int offset = ThreadLocalRandom.current().nextInt(size);
+        Endpoint fallback = null;
+        double fallbackScore = Double.MAX_VALUE;
+        boolean[] denied = null;
+
+        for (int attempt = 0; attempt < size; attempt++) {
+            int picked = -1;
+            double bestScore = Double.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                int index = (offset + i) % size;
+                Endpoint endpoint = arr[index];
+                if (endpoint == exclude)
+                    continue;
+                double score = score(endpoint);
+                if (score < fallbackScore) {
+                    fallback = endpoint;
+                    fallbackScore = score;
+                }
+                if (denied != null && denied[index])
+                    continue;
+                if (score < bestScore && endpoint.isSelectable()) {
+                    picked = index;
+                    bestScore = score;
+                }
+            }
+            if (picked < 0)
+                break;
+            if (arr[picked].isAvailable())
+                return arr[picked];
+            if (denied == null) {
+                denied = new boolean[size];
+            }
+            denied[picked] = true;
+        }
+
+        return fallback != null ? fallback : arr[offset];
+    }
+
+    private double score(Endpoint endpoint) {
+        int outstanding = endpoint.getOutstanding();
+        if (strategy == Strategy.LEAST_OUTSTANDING)
+            return outstanding;
+        return endpoint.getEwma() * (outstanding + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "LoadBalancer{" +
+                "name='" + name + '\'' +
+                ", strategy=" + strategy +
+                ", endpoints=" + Arrays.toString(endpoints) +
+                '}';
+    }
+}
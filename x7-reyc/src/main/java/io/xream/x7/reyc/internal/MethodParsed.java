@@ -24,8 +24,13 @@ import java.util.List;
 public class MethodParsed {
 
     private String requestMapping;
+    private UrlTemplate urlTemplate;
     private RequestMethod requestMethod;
     private Class<?> returnType;
+    private boolean async;
+    private Coalescer coalescer;
+    private ResponseCache responseCache;
+    private Hedger hedger;
 
     private List<KV> headerList;
 
@@ -37,6 +42,14 @@ public class MethodParsed {
         this.requestMapping = requestMapping;
     }
 
+    public UrlTemplate getUrlTemplate() {
+        return urlTemplate;
+    }
+
+    public void setUrlTemplate(UrlTemplate urlTemplate) {
+        this.urlTemplate = urlTemplate;
+    }
+
     public RequestMethod getRequestMethod() {
         return requestMethod;
     }
@@ -53,6 +66,41 @@ public class MethodParsed {
         this.returnType = returnType;
     }
 
+    /**
+     * returns CompletableFuture, the returnType is the type argument
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public Coalescer getCoalescer() {
+        return coalescer;
+    }
+
+    public void setCoalescer(Coalescer coalescer) {
+        this.coalescer = coalescer;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    public Hedger getHedger() {
+        return hedger;
+    }
+
+    public void setHedger(Hedger hedger) {
+        this.hedger = hedger;
+    }
+
     public List<KV> getHeaderList() {
         return headerList;
     }
@@ -67,6 +115,7 @@ public class MethodParsed {
                 "requestMapping='" + requestMapping + '\'' +
                 ", requestMethod=" + requestMethod +
                 ", returnType=" + returnType +
+                ", async=" + async +
                 ", headerList=" + headerList +
                 '}';
     }
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc.internal;
+
+import io.xream.x7.reyc.ReyCache;
+import x7.core.bean.KV;
+import x7.core.repository.CacheResolver;
+import x7.core.util.HttpClientUtil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * LRU response cache of one ReyClient method, L2 by CacheResolver optional <br>
+ * the body cached, decoded on every hit, so the caller owns the result and may change it <br>
+ */
+public class ResponseCache {
+
+    private static CacheResolver cacheResolver;
+
+    private final String prefix;
+    private final ReyCache reyCache;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> map;
+
+    public ResponseCache(String prefix, final ReyCache reyCache) {
+        this.prefix = prefix;
+        this.reyCache = reyCache;
+        this.map = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > reyCache.maxEntries();
+            }
+        };
+    }
+
+    public static void setCacheResolver(CacheResolver resolver) {
+        cacheResolver = resolver;
+    }
+
+    public String key(String url, Object[] args) {
+        int[] keyArgs = reyCache.keyArgs();
+        if (keyArgs.length == 0)
+            return url;
+        StringBuilder sb = new StringBuilder();
+        for (int i : keyArgs) {
+            sb.append(args[i]).append(",");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return null if not cached, maybe expired
+     */
+    public Entry get(String key) {
+        lock.lock();
+        try {
+            Entry entry = map.get(key);
+            if (entry != null)
+                return entry;
+        } finally {
+            lock.unlock();
+        }
+
+        if (!isL2())
+            return null;
+
+        Entry entry = cacheResolver.get(Entry.class, prefix + key);
+        if (entry == null)
+            return null;
+        put(key, entry);
+        return entry;
+    }
+
+    /**
+     * If-None-Match, If-Modified-Since of the expired entry
+     */
+    public List<KV> conditionalHeaders(List<KV> headerList, Entry expired) {
+        if (expired == null || (expired.getEtag() == null && expired.getLastModified() == null))
+            return headerList;
+
+        List<KV> list = headerList == null ? new ArrayList<>() : new ArrayList<>(headerList);
+        if (expired.getEtag() != null) {
+            list.add(new KV("If-None-Match", expired.getEtag()));
+        }
+        if (expired.getLastModified() != null) {
+            list.add(new KV("If-Modified-Since", expired.getLastModified()));
+        }
+        return list;
+    }
+
+    /**
+     * @param decoder body to the object of return type
+     */
+    public Object onResponse(String key, Entry expired, HttpClientUtil.Response response, MethodParsed methodParsed, Function<String, Object> decoder) {
+
+        long now = System.currentTimeMillis();
+        String cacheControl = response.getHeader("Cache-Control");
+
+        if (response.getStatus() == 304 && expired != null) {
+            Entry entry = new Entry();
+            entry.setBody(expired.getBody());
+            entry.setEtag(expired.getEtag());
+            entry.setLastModified(expired.getLastModified());
+            entry.setExpireAt(now + getTtl(cacheControl));
+            store(key, entry);
+            return value(entry, decoder);
+        }
+
+        ResponseDecoder.check(response, methodParsed);
+
+        String body = response.getBody();
+        Object obj = decoder.apply(body);
+
+        if (response.getStatus() >= 300 || isNoStore(cacheControl))
+            return obj;
+
+        Entry entry = new Entry();
+        entry.setBody(body);
+        entry.setEtag(response.getHeader("ETag"));
+        entry.setLastModified(response.getHeader("Last-Modified"));
+        entry.setExpireAt(now + getTtl(cacheControl));
+        store(key, entry);
+
+        return obj;
+    }
+
+    /**
+     * a new object per call, not shared by the callers
+     */
+    public Object value(Entry entry, Function<String, Object> decoder) {
+        if (entry.getBody() == null)
+            return null;
+        return decoder.apply(entry.getBody());
+    }
+
+    private void store(String key, Entry entry) {
+        put(key, entry);
+        if (isL2()) {
+            cacheResolver.set(Entry.class, prefix + key, entry);
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        lock.lock();
+        try {
+            map.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isL2() {
+        return reyCache.l2() && cacheResolver != null;
+    }
+
+    private static boolean isNoStore(String cacheControl) {
+        return cacheControl != null && cacheControl.contains("no-store");
+    }
+
+    /**
+     * no-cache: revalidated every time
+     */
+    private long getTtl(String cacheControl) {
+        if (cacheControl == null)
+            return reyCache.ttl();
+        if (cacheControl.contains("no-cache"))
+            return 0;
+        for (String directive : cacheControl.split(",")) {
+            directive = directive.trim();
+            if (directive.startsWith("max-age=")) {
+                try {
+                    return Long.parseLong(directive.substring(8).trim()) * 1000;
+                } catch (NumberFormatException e) {
+                }
+            }
+        }
+        return reyCache.ttl();
+    }
+
+    public static class Entry {
+
+        private String body;
+        private String etag;
+        private String lastModified;
+        private long expireAt;
+
+        public String getBody() {
+            return body;
+        }
+
+        public void setBody(String body) {
+            this.body = body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public void setEtag(String etag) {
+            this.etag = etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public void setLastModified(String lastModified) {
+            this.lastModified = lastModified;
+        }
+
+        public long getExpireAt() {
+            return expireAt;
+        }
+
+        public void setExpireAt(long expireAt) {
+            this.expireAt = expireAt;
+        }
+
+        public boolean isExpired(long now) {
+            return now >= expireAt;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "body='" + body + '\'' +
+                    ", etag='" + etag + '\'' +
+                    ", lastModified='" + lastModified + '\'' +
+                    ", expireAt=" + expireAt +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc.internal;
+
+import io.xream.x7.reyc.ReyClient;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import x7.core.exception.RemoteServiceException;
+import x7.core.util.ExceptionUtil;
+import x7.core.util.HttpClientUtil;
+import x7.core.util.JsonX;
+import x7.core.util.StringUtil;
+import x7.core.web.ViewEntity;
+import x7.core.web.ViewStatus;
+
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * json of the response decoded from the stream into the return type <br>
+ * error: status >= 400, text not json, or ViewEntity of FAIL <br>
+ * the json object checked for ViewEntity of FAIL before mapped to the return type, whatever the return type <br>
+ */
+public class ResponseDecoder {
+
+    private static Logger logger = LoggerFactory.getLogger(ReyClient.class);
+
+    private final static Set<String> VIEW_KEYS = new HashSet<>(Arrays.asList("status", "body", "handledTimeMillis"));
+
+    public static Object decode(HttpResponse response, MethodParsed methodParsed) throws IOException {
+
+        HttpEntity entity = response.getEntity();
+        int status = response.getStatusLine().getStatusCode();
+        Class<?> returnType = methodParsed.getReturnType();
+
+        if (status >= 400 || isText(entity)) {
+            String body = entity == null ? null : EntityUtils.toString(entity, "UTF-8");
+            check(status, getContentType(entity), body, returnType);
+            if (StringUtil.isNullOrEmpty(body) || isVoid(returnType))
+                return null;
+            return body;
+        }
+
+        if (entity == null)
+            return null;
+
+        if (isVoid(returnType)) {
+            EntityUtils.consume(entity);
+            return null;
+        }
+
+        if (returnType == String.class)
+            return decode(EntityUtils.toString(entity, "UTF-8"), methodParsed);
+
+        PushbackInputStream is = new PushbackInputStream(entity.getContent());
+        try {
+            if (peek(is) != '{' || returnType == ViewEntity.class)
+                return checkView(JsonX.readObject(is, returnType));
+            Map<String, Object> map = JsonX.readMap(is);
+            checkViewMap(map);
+            return JsonX.toObject((Object) map, returnType);
+        } finally {
+            is.close();
+        }
+    }
+
+    public static List<?> decodeList(HttpResponse response, MethodParsed methodParsed) throws IOException {
+
+        HttpEntity entity = response.getEntity();
+        int status = response.getStatusLine().getStatusCode();
+
+        if (status >= 400 || isText(entity)) {
+            String body = entity == null ? null : EntityUtils.toString(entity, "UTF-8");
+            check(status, getContentType(entity), body, List.class);
+            return null;
+        }
+
+        if (entity == null)
+            return null;
+
+        PushbackInputStream is = new PushbackInputStream(entity.getContent());
+        try {
+            if (peek(is) == '{') {
+                Map<String, Object> map = JsonX.readMap(is);
+                checkViewMap(map);
+                throw remote(status, JsonX.toJson(map));
+            }
+            return JsonX.readList(is, methodParsed.getReturnType());
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * the response read fully, of the cached call
+     */
+    public static void check(HttpClientUtil.Response response, MethodParsed methodParsed) {
+        check(response.getStatus(), response.getHeader("Content-Type"), response.getBody(), methodParsed.getReturnType());
+    }
+
+    /**
+     * the body of the response checked, or cached
+     */
+    public static Object decode(String body, MethodParsed methodParsed) {
+
+        Class<?> returnType = methodParsed.getReturnType();
+        if (StringUtil.isNullOrEmpty(body) || isVoid(returnType))
+            return null;
+
+        try {
+            if (body.startsWith("{") && returnType != ViewEntity.class) {
+                Map<String, Object> map = JsonX.toMap(body);
+                checkViewMap(map);
+                if (returnType == String.class)
+                    return body;
+                return JsonX.toObject((Object) map, returnType);
+            }
+            if (returnType == String.class && !body.startsWith("\""))
+                return body;
+            return checkView(JsonX.toObject(body, returnType));
+        } catch (RemoteServiceException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new RuntimeException(ExceptionUtil.getMessage(e));
+        }
+    }
+
+    private static void check(int status, String contentType, String body, Class<?> returnType) {
+
+        if (status >= 400) {
+            throw remote(status, body);
+        }
+
+        if (contentType != null && !isJson(contentType) && returnType != String.class && !StringUtil.isNullOrEmpty(body)) {
+            throw remote(status, body);
+        }
+    }
+
+    private static Object checkView(Object obj) {
+        if (obj instanceof ViewEntity && ((ViewEntity) obj).getStatus() == ViewStatus.FAIL) {
+            throw remote(200, JsonX.toJson(obj));
+        }
+        return obj;
+    }
+
+    /**
+     * the json object of ViewEntity: no key other than the fields of ViewEntity
+     */
+    private static void checkViewMap(Map<String, Object> map) {
+        if (map != null && ViewStatus.FAIL.name().equals(map.get("status")) && VIEW_KEYS.containsAll(map.keySet())) {
+            throw remote(200, JsonX.toJson(map));
+        }
+    }
+
+    /**
+     * @return the first char not blank, unread, -1 if empty
+     */
+    private static int peek(PushbackInputStream is) throws IOException {
+        int b = is.read();
+        while (b != -1 && Character.isWhitespace(b)) {
+            b = is.read();
+        }
+        if (b != -1)
+            is.unread(b);
+        return b;
+    }
+
+    private static RemoteServiceException remote(int status, String body) {
+        String message = StringUtil.isNullOrEmpty(body) ? "HTTP " + status : body;
+        if (logger.isErrorEnabled()) {
+            logger.error(message);
+        }
+        return new RemoteServiceException(message);
+    }
+
+    private static boolean isVoid(Class<?> returnType) {
+        return returnType == null || returnType == void.class || returnType == Void.class;
+    }
+
+    private static String getContentType(HttpEntity entity) {
+        if (entity == null)
+            return null;
+        Header header = entity.getContentType();
+        return header == null ? null : header.getValue();
+    }
+
+    /**
+     * no content type: json
+     */
+    private static boolean isText(HttpEntity entity) {
+        String contentType = getContentType(entity);
+        return contentType != null && !isJson(contentType);
+    }
+
+    private static boolean isJson(String contentType) {
+        return contentType.contains("json");
+    }
+}
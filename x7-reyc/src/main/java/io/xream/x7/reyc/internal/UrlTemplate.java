@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.xream.x7.reyc.internal;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * request mapping compiled once, like /order/{id}/item/{itemId} <br>
+ * the placeholder i bound to args[i], url encoded <br>
+ */
+public class UrlTemplate {
+
+    private final String[] literals;
+    private final int[] argIndexes;
+    private final int length;
+
+    private UrlTemplate(String[] literals, int[] argIndexes, int length) {
+        this.literals = literals;
+        this.argIndexes = argIndexes;
+        this.length = length;
+    }
+
+    public static UrlTemplate compile(String mapping) {
+
+        List<String> literalList = new ArrayList<>();
+        List<Integer> indexList = new ArrayList<>();
+
+        int length = 0;
+        int start = 0;
+        int argIndex = 0;
+        for (; ; ) {
+            int open = mapping.indexOf('{', start);
+            int close = open < 0 ? -1 : mapping.indexOf('}', open);
+            if (close < 0) {
+                String literal = mapping.substring(start);
+                literalList.add(literal);
+                length += literal.length();
+                break;
+            }
+            String literal = mapping.substring(start, open);
+            literalList.add(literal);
+            length += literal.length();
+            indexList.add(argIndex++);
+            start = close + 1;
+        }
+
+        int[] argIndexes = new int[indexList.size()];
+        for (int i = 0; i < argIndexes.length; i++) {
+            argIndexes[i] = indexList.get(i);
+        }
+
+        return new UrlTemplate(literalList.toArray(new String[0]), argIndexes, length);
+    }
+
+    public boolean hasVariable() {
+        return argIndexes.length > 0;
+    }
+
+    /**
+     * @param base like http://dns, no / at the end
+     */
+    public String expand(String base, Object[] args) {
+
+        if (argIndexes.length == 0)
+            return base + literals[0];
+
+        StringBuilder sb = new StringBuilder(base.length() + length + argIndexes.length * 16);
+        sb.append(base);
+        for (int i = 0; i < argIndexes.length; i++) {
+            sb.append(literals[i]);
+            Object arg = args[argIndexes[i]];
+            appendEncoded(sb, arg == null ? "" : arg.toString());
+        }
+        sb.append(literals[argIndexes.length]);
+        return sb.toString();
+    }
+
+    private static void appendEncoded(StringBuilder sb, String value) {
+        int size = value.length();
+        for (int i = 0; i < size; i++) {
+            if (!isUnreserved(value.charAt(i))) {
+                try {
+                    sb.append(URLEncoder.encode(value, "UTF-8").replace("+", "%20"));
+                } catch (UnsupportedEncodingException e) {
+                    throw new RuntimeException(e.getMessage());
+                }
+                return;
+            }
+        }
+        sb.append(value);
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < literals.length; i++) {
+            sb.append(literals[i]);
+            if (i < argIndexes.length) {
+                sb.append("{").append(argIndexes[i]).append("}");
+            }
+        }
+        return sb.toString();
+    }
+}